@@ -0,0 +1,88 @@
+package hasjamon.block4block;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Chunk and block key packing, done for every player, chunk and spawner a pass looks at.
+// Scores are per key.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockKeysBenchmark {
+
+    private static final int KEYS = 1024;
+
+    private final int[] xs = new int[KEYS];
+    private final int[] ys = new int[KEYS];
+    private final int[] zs = new int[KEYS];
+    private final long[] chunkKeys = new long[KEYS];
+    private final long[] blockKeys = new long[KEYS];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1L);
+        for (int i = 0; i < KEYS; i++) {
+            xs[i] = random.nextInt(60_000_000) - 30_000_000;
+            ys[i] = random.nextInt(384) - 64;
+            zs[i] = random.nextInt(60_000_000) - 30_000_000;
+            chunkKeys[i] = BlockKeys.chunkKey(xs[i] >> 4, zs[i] >> 4);
+            blockKeys[i] = BlockKeys.blockKey(xs[i], ys[i], zs[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public long packChunkKey() {
+        long sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            sum += BlockKeys.chunkKey(xs[i] >> 4, zs[i] >> 4);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public long unpackChunkKey() {
+        long sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            sum += BlockKeys.chunkX(chunkKeys[i]) + BlockKeys.chunkZ(chunkKeys[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public long packBlockKey() {
+        long sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            sum += BlockKeys.blockKey(xs[i], ys[i], zs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public long unpackBlockKey() {
+        long sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            long key = blockKeys[i];
+            sum += BlockKeys.blockX(key) + BlockKeys.blockY(key) + BlockKeys.blockZ(key) + BlockKeys.chunkKeyOfBlock(key);
+        }
+        return sum;
+    }
+}
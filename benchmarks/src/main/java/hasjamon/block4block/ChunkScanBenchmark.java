@@ -0,0 +1,78 @@
+package hasjamon.block4block;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// One chunk's tile entities through SpawnerProcessor, the work of every chunk load and full scan.
+// "mixed" chunks hold one spawner per ten tile entities, "spawners" chunks (mob farms) nothing else.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkScanBenchmark {
+
+    @Param({"0", "10", "200"})
+    int tileEntities;
+
+    @Param({"mixed", "spawners"})
+    String layout;
+
+    private final UUID worldId = new UUID(0L, 1L);
+    private final SpawnerPassStats stats = new SpawnerPassStats();
+    private SpawnerProcessor processor;
+    private List<BlockState> states;
+    private int range = 64;
+
+    @Setup
+    public void setUp() {
+        processor = new SpawnerProcessor(new NamespacedKey("adaptiverangemobspawner", "player_placed"),
+                new NamespacedKey("adaptiverangemobspawner", "owner"), new NamespacedKey("adaptiverangemobspawner", "owner_team"),
+                new EntityDensityTracker(), new OwnerBudgets(), new ClusterThrottle(), (world, spawner, blockKey) -> false);
+        World world = Stubs.world(worldId, "world");
+        states = new ArrayList<>(tileEntities);
+        for (int i = 0; i < tileEntities; i++) {
+            int x = i & 15;
+            int y = 10 + (i >> 8);
+            int z = (i >> 4) & 15;
+            if (layout.equals("spawners") || i % 10 == 0) {
+                // Mostly player placed, the rest are reset to the vanilla range
+                states.add(Stubs.spawner(world, x, y, z, i % 4 != 3, range));
+            } else {
+                states.add(Stubs.tileEntity(x, y, z));
+            }
+        }
+        processor.scan(worldId, states, range, stats);
+    }
+
+    // Chunk load after a restart: every spawner already has the current range
+    @Benchmark
+    public SpawnerProcessor.ChunkScan scanUnchanged() {
+        return processor.scan(worldId, states, range, stats);
+    }
+
+    // Full pass after a range change: every managed spawner is written
+    @Benchmark
+    public SpawnerProcessor.ChunkScan scanChanged() {
+        range = range == 64 ? 96 : 64;
+        return processor.scan(worldId, states, range, stats);
+    }
+}
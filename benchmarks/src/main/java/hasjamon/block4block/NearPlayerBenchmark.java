@@ -0,0 +1,78 @@
+package hasjamon.block4block;
+
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// The near-player chunk enumeration of updateAllSpawners: spawner chunks within the player chunk
+// radius of any player, from the spawner index. "clustered" players share a town, "scattered"
+// players are spread over the whole indexed area, so their radii rarely overlap.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearPlayerBenchmark {
+
+    // Spawner chunks spread over a square of this many chunks from the origin in every direction
+    private static final int AREA = 250;
+
+    @Param({"1", "10", "100", "500"})
+    int players;
+
+    @Param({"2000"})
+    int spawnerChunks;
+
+    @Param({"5"})
+    int radius;
+
+    @Param({"clustered", "scattered"})
+    String spread;
+
+    private final List<SpawnerIndex.SpawnerChunk> nearby = new ArrayList<>();
+    private SpawnerIndex.WorldSpawners spawners;
+    private long[] centers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1L);
+        World world = Stubs.world(new UUID(0L, 1L), "world");
+        SpawnerIndex index = new SpawnerIndex();
+        for (int i = 0; i < spawnerChunks; i++) {
+            int chunkX = random.nextInt(AREA * 2) - AREA;
+            int chunkZ = random.nextInt(AREA * 2) - AREA;
+            long blockKey = BlockKeys.blockKey(chunkX << 4, 30, chunkZ << 4);
+            index.setChunk(world, chunkX, chunkZ, new long[]{blockKey}, new byte[]{SpawnerIndex.FLAG_PLAYER_PLACED}, new short[]{64}, new int[]{OwnerBudgets.NONE}, 1);
+        }
+        spawners = index.getWorld(world);
+
+        int playerArea = spread.equals("clustered") ? 16 : AREA;
+        centers = new long[players];
+        for (int i = 0; i < players; i++) {
+            centers[i] = BlockKeys.chunkKey(random.nextInt(playerArea * 2) - playerArea, random.nextInt(playerArea * 2) - playerArea);
+        }
+    }
+
+    @Benchmark
+    public int collectNear() {
+        nearby.clear();
+        spawners.collectNear(centers, players, radius, nearby);
+        return nearby.size();
+    }
+}
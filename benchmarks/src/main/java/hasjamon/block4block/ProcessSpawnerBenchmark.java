@@ -0,0 +1,59 @@
+package hasjamon.block4block;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.CreatureSpawner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// A single spawner: marker read, target range (with or without entity density scaling) and the
+// conditional write. The floor under every scan, reconcile and planned update.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessSpawnerBenchmark {
+
+    @Param({"false", "true"})
+    boolean densityScaling;
+
+    private final SpawnerPassStats stats = new SpawnerPassStats();
+    private SpawnerProcessor processor;
+    private CreatureSpawner spawner;
+    private int range = 64;
+
+    @Setup
+    public void setUp() {
+        UUID worldId = new UUID(0L, 1L);
+        EntityDensityTracker densityTracker = new EntityDensityTracker();
+        densityTracker.configure(densityScaling, 150, 600, 0.25);
+        processor = new SpawnerProcessor(new NamespacedKey("adaptiverangemobspawner", "player_placed"),
+                new NamespacedKey("adaptiverangemobspawner", "owner"), new NamespacedKey("adaptiverangemobspawner", "owner_team"),
+                densityTracker, new OwnerBudgets(), new ClusterThrottle(), (world, s, blockKey) -> false);
+        spawner = Stubs.spawner(Stubs.world(worldId, "world"), 8, 40, 8, true, range);
+    }
+
+    @Benchmark
+    public boolean processUnchanged() {
+        return processor.process(spawner, processor.isPlayerPlaced(spawner), processor.ownerOf(spawner), range, stats);
+    }
+
+    @Benchmark
+    public boolean processChanged() {
+        range = range == 64 ? 96 : 64;
+        return processor.process(spawner, processor.isPlayerPlaced(spawner), processor.ownerOf(spawner), range, stats);
+    }
+}
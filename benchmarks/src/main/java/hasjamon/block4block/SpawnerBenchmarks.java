@@ -0,0 +1,21 @@
+package hasjamon.block4block;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of benchmarks.jar: the usual JMH command line, always with the gc profiler attached so
+// every result reports allocation per operation next to the throughput
+public final class SpawnerBenchmarks {
+
+    private SpawnerBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package hasjamon.block4block;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// The stub calls ProcessSpawnerBenchmark's operations make, without the plugin's work between them.
+// Proxy dispatch allocates an argument array per call and boxes primitive arguments and results, so
+// subtract this benchmark's gc.alloc.rate.norm from the matching process benchmark to get the
+// plugin's own allocation. A chunk scan makes the same calls per spawner, plus its position and range
+// once more for the index.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StubBaselineBenchmark {
+
+    private final NamespacedKey playerPlacedKey = new NamespacedKey("adaptiverangemobspawner", "player_placed");
+    private final NamespacedKey ownerKey = new NamespacedKey("adaptiverangemobspawner", "owner");
+    private CreatureSpawner spawner;
+    private int range = 64;
+
+    @Setup
+    public void setUp() {
+        spawner = Stubs.spawner(Stubs.world(new UUID(0L, 1L), "world"), 8, 40, 8, true, range);
+    }
+
+    // processUnchanged: marker and owner, then the position and range reads of process and applyRange
+    @Benchmark
+    public void stubCallsUnchanged(Blackhole blackhole) {
+        readSpawner(blackhole);
+    }
+
+    // processChanged: the same reads, then the range write
+    @Benchmark
+    public void stubCallsChanged(Blackhole blackhole) {
+        range = range == 64 ? 96 : 64;
+        readSpawner(blackhole);
+        spawner.setRequiredPlayerRange(range);
+        blackhole.consume(spawner.update());
+    }
+
+    private void readSpawner(Blackhole blackhole) {
+        PersistentDataContainer pdc = spawner.getPersistentDataContainer();
+        blackhole.consume(pdc.has(playerPlacedKey, PersistentDataType.INTEGER));
+        blackhole.consume(spawner.getPersistentDataContainer().get(ownerKey, PersistentDataType.STRING));
+        blackhole.consume(spawner.getWorld().getUID());
+        blackhole.consume(spawner.getX());
+        blackhole.consume(spawner.getZ());
+        blackhole.consume(spawner.getX());
+        blackhole.consume(spawner.getY());
+        blackhole.consume(spawner.getZ());
+        blackhole.consume(spawner.getRequiredPlayerRange());
+    }
+}
@@ -0,0 +1,81 @@
+package hasjamon.block4block;
+
+import java.util.Locale;
+
+// Shape of the synthetic world and the limits a load test run is held to, from -Dloadtest.* system
+// properties (Maven passes them on to the tests). The defaults are a large survival server: 40k loaded
+// chunks, 3k spawners of which half sit in mob farms, 100 players.
+//
+//   loadtest.chunks                 loaded chunks, a square around the origin             40000
+//   loadtest.spawners               spawners among them                                   3000
+//   loadtest.farm-share             share of spawners in farm chunks of 8                 0.5
+//   loadtest.player-placed          share of spawners placed by players                   0.8
+//   loadtest.tile-entities          other tile entities per chunk, on average             12
+//   loadtest.players                players online                                        100
+//   loadtest.player-spread          "scattered" over the loaded area, or "clustered"      scattered
+//   loadtest.paper                  Paper's filtered tile entity lookup, else Spigot's    true
+//   loadtest.view-distance          chunk radius loaded around a teleported player        8
+//   loadtest.teleports-per-tick     players teleporting in the same tick during a storm   10
+//   loadtest.storm-ticks            ticks a chunk load storm lasts                        20
+//   loadtest.transitions            range changes driven per transition scenario          6
+//   loadtest.read-cost-micros       simulated cost of reading one spawner                 2
+//   loadtest.write-cost-micros      simulated cost of writing one spawner                 25
+//   loadtest.tick-budget-nanos      the plugin's tick-budget-nanos                        2000000
+//   loadtest.tick-overrun-millis    time a budgeted tick may take past the budget and     1.0
+//                                   the unit in progress (stub overhead, timer noise)
+//   loadtest.max-tick-millis        worst main-thread time of a chunk load storm tick     50
+//   loadtest.seed                   world generation seed                                 1
+record LoadTestSettings(int chunks, int spawners, double farmShare, double playerPlaced, int tileEntities,
+                        int players, boolean clusteredPlayers, boolean paper, int viewDistance, int teleportsPerTick,
+                        int stormTicks, int transitions, double readCostMicros, double writeCostMicros,
+                        long tickBudgetNanos, double tickOverrunMillis, double maxTickMillis, long seed) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.chunks", 40_000),
+                Integer.getInteger("loadtest.spawners", 3_000),
+                doubleProperty("loadtest.farm-share", 0.5),
+                doubleProperty("loadtest.player-placed", 0.8),
+                Integer.getInteger("loadtest.tile-entities", 12),
+                Integer.getInteger("loadtest.players", 100),
+                System.getProperty("loadtest.player-spread", "scattered").equalsIgnoreCase("clustered"),
+                Boolean.parseBoolean(System.getProperty("loadtest.paper", "true")),
+                Integer.getInteger("loadtest.view-distance", 8),
+                Integer.getInteger("loadtest.teleports-per-tick", 10),
+                Integer.getInteger("loadtest.storm-ticks", 20),
+                Integer.getInteger("loadtest.transitions", 6),
+                doubleProperty("loadtest.read-cost-micros", 2.0),
+                doubleProperty("loadtest.write-cost-micros", 25.0),
+                Long.getLong("loadtest.tick-budget-nanos", 2_000_000L),
+                doubleProperty("loadtest.tick-overrun-millis", 1.0),
+                doubleProperty("loadtest.max-tick-millis", 50.0),
+                Long.getLong("loadtest.seed", 1L));
+    }
+
+    // The same world, scaled down to warm up the JIT before anything is measured
+    LoadTestSettings warmup() {
+        return new LoadTestSettings(Math.min(chunks, 4_000), Math.min(spawners, 300), farmShare, playerPlaced,
+                tileEntities, Math.min(players, 10), clusteredPlayers, paper, viewDistance, teleportsPerTick,
+                Math.min(stormTicks, 5), Math.min(transitions, 2), readCostMicros, writeCostMicros, tickBudgetNanos,
+                tickOverrunMillis, maxTickMillis, seed + 1);
+    }
+
+    // Worst main-thread time of a tick the update scheduler's budget applies to. The scheduler finishes
+    // the unit it started when the budget runs out; the largest is a batch of planned spawners, each
+    // read and written (a chunk holds at most a farm of 8).
+    double budgetedTickMillis() {
+        double largestUnitMillis = SpawnerUpdater.APPLY_BATCH_SIZE * (readCostMicros + writeCostMicros) / 1000.0;
+        return tickBudgetNanos / 1_000_000.0 + largestUnitMillis + tickOverrunMillis;
+    }
+
+    String describe() {
+        return String.format(Locale.ROOT, "%d chunks, %d spawners (%.0f%% in farms, %.0f%% player placed), %d tile entities per chunk, "
+                        + "%d %s players, %s", chunks, spawners, farmShare * 100, playerPlaced * 100, tileEntities,
+                players, clusteredPlayers ? "clustered" : "scattered", paper ? "Paper" : "Spigot");
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+}
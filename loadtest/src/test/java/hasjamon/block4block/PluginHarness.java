@@ -0,0 +1,131 @@
+package hasjamon.block4block;
+
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+// The plugin's spawner components, wired the way AdaptiveRangeMobSpawner does on enable, on a
+// non-regionized server with the default config (eager range application, natural spawners reset to
+// vanilla, density, budgets and clusters off). The plugin itself can't be constructed without a
+// server's plugin class loader, so this stands in for its enable, monitor and chunk events only;
+// every scan, reconcile and range update runs through the plugin's own SpawnerUpdater.
+final class PluginHarness {
+
+    private static final int PLAYER_CHUNK_RADIUS = 5;
+
+    private final Object stateLock = new Object();
+    private final SpawnerIndex spawnerIndex = new SpawnerIndex();
+    private final SpawnerMetrics metrics = new SpawnerMetrics();
+    private final SpawnerUpdateScheduler updateScheduler;
+    private final SpawnerUpdater updater;
+    private final SpawnerPassTotals chunkLoadStats = new SpawnerPassTotals();
+    // Pass totals at the last reset
+    private final SpawnerPassTotals baseline = new SpawnerPassTotals();
+
+    private int currentSpawnerRange = 64;
+
+    PluginHarness(SpawnerExecutor executor, World world, LoadTestSettings settings) {
+        EntityDensityTracker densityTracker = new EntityDensityTracker();
+        OwnerBudgets ownerBudgets = new OwnerBudgets();
+        ClusterThrottle clusterThrottle = new ClusterThrottle();
+        // Throttles are off, so there is nothing for the scan hook to catch up on
+        SpawnerProcessor spawnerProcessor = new SpawnerProcessor(new NamespacedKey("adaptiverangemobspawner", "player_placed"),
+                new NamespacedKey("adaptiverangemobspawner", "owner"), new NamespacedKey("adaptiverangemobspawner", "owner_team"),
+                densityTracker, ownerBudgets, clusterThrottle, (worldId, spawner, blockKey) -> false);
+        spawnerProcessor.setPolicy(new SpawnerRangePolicy(false, false));
+        updateScheduler = new SpawnerUpdateScheduler(executor, metrics, settings.tickBudgetNanos());
+        updater = new SpawnerUpdater(stateLock, spawnerIndex, new ChunkStateCache(), spawnerProcessor, densityTracker,
+                ownerBudgets, clusterThrottle, executor, updateScheduler, metrics, new SpawnerUpdater.Worlds() {
+                    @Override
+                    public List<World> all() {
+                        return List.of(world);
+                    }
+
+                    @Override
+                    public World get(UUID worldId) {
+                        return world.getUID().equals(worldId) ? world : null;
+                    }
+                }, settings.paper(), Logger.getLogger("AdaptiveRangeMobSpawner"), () -> false);
+        updater.configure(Set.of(), true, PLAYER_CHUNK_RADIUS);
+    }
+
+    void setOnlyUpdateNearPlayers(boolean onlyUpdateNearPlayers) {
+        updater.configure(Set.of(), onlyUpdateNearPlayers, PLAYER_CHUNK_RADIUS);
+    }
+
+    int getCurrentRange() {
+        return currentSpawnerRange;
+    }
+
+    int indexedSpawners() {
+        synchronized (stateLock) {
+            return spawnerIndex.spawnerCount();
+        }
+    }
+
+    // Totals of the passes finished since the last reset, chunk loads included
+    SpawnerPassTotals totals() {
+        SpawnerPassTotals passes = metrics.passTotals();
+        SpawnerPassTotals totals = new SpawnerPassTotals();
+        totals.chunks.add(passes.chunks.sum() - baseline.chunks.sum() + chunkLoadStats.chunks.sum());
+        totals.spawners.add(passes.spawners.sum() - baseline.spawners.sum() + chunkLoadStats.spawners.sum());
+        totals.snapshots.add(passes.snapshots.sum() - baseline.snapshots.sum() + chunkLoadStats.snapshots.sum());
+        totals.snapshotsSkipped.add(passes.snapshotsSkipped.sum() - baseline.snapshotsSkipped.sum()
+                + chunkLoadStats.snapshotsSkipped.sum());
+        totals.written.add(passes.written.sum() - baseline.written.sum() + chunkLoadStats.written.sum());
+        totals.unchanged.add(passes.unchanged.sum() - baseline.unchanged.sum() + chunkLoadStats.unchanged.sum());
+        return totals;
+    }
+
+    // Only called between scenarios, while nothing is adding to the totals
+    void resetTotals() {
+        SpawnerPassTotals passes = metrics.passTotals();
+        for (SpawnerPassTotals totals : List.of(baseline, chunkLoadStats)) {
+            totals.chunks.reset();
+            totals.spawners.reset();
+            totals.snapshots.reset();
+            totals.snapshotsSkipped.reset();
+            totals.written.reset();
+            totals.unchanged.reset();
+        }
+        baseline.chunks.add(passes.chunks.sum());
+        baseline.spawners.add(passes.spawners.sum());
+        baseline.snapshots.add(passes.snapshots.sum());
+        baseline.snapshotsSkipped.add(passes.snapshotsSkipped.sum());
+        baseline.written.add(passes.written.sum());
+        baseline.unchanged.add(passes.unchanged.sum());
+    }
+
+    // scanLoadedChunks on enable, without a spawner registry
+    void scanLoadedChunks(List<Chunk> chunks) {
+        updateScheduler.submit(new UpdateJob<>(UpdateJob.Kind.STARTUP_SCAN, "startup scan", chunks,
+                (chunk, stats) -> updater.startupChunk(chunk, getCurrentRange(), null, stats)));
+    }
+
+    // The range change of adjustRange in eager mode
+    void changeRange(int newRange) {
+        currentSpawnerRange = newRange;
+        updater.advanceRangeGeneration();
+        updater.planRangeUpdate(newRange);
+    }
+
+    // The update command: every targeted spawner re-read at the current range
+    void forceUpdate() {
+        updater.advanceRangeGeneration();
+        updater.updateAllSpawners(getCurrentRange());
+    }
+
+    // onChunkLoad for a synchronous ChunkLoadEvent
+    void onChunkLoad(Chunk chunk) {
+        chunkLoadStats.record(stats -> updater.updateLoadedChunk(chunk, getCurrentRange(), stats));
+    }
+
+    void onChunkUnload(World world, int chunkX, int chunkZ) {
+        updater.forgetChunk(world, chunkX, chunkZ);
+    }
+}
@@ -0,0 +1,97 @@
+package hasjamon.block4block;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+
+// A single-threaded server clock around the plugin's LocalExecutor: timers and delayed tasks run in the
+// tick they are due, chunk and player tasks run in place, and async tasks run between ticks, standing in
+// for another thread that finishes before the next tick. Every tick's main-thread time is measured,
+// from the events fired into it to the last scheduled task, as CPU time of the test thread: a busy
+// build machine preempting the thread must not fail the limits, which are in milliseconds. GC pauses
+// aren't counted either, the heap is fixed and sized so the scenarios don't need one.
+final class SimulatedServer {
+
+    // Main-thread time per tick of one scenario
+    record TickStats(String scenario, int ticks, long worstNanos, long p99Nanos, long meanNanos, int worstTick) {
+
+        double worstMillis() {
+            return worstNanos / 1_000_000.0;
+        }
+
+        String describe() {
+            return String.format(Locale.ROOT, "%s: %d ticks, worst %.2f ms (tick %d), p99 %.2f ms, mean %.3f ms",
+                    scenario, ticks, worstNanos / 1_000_000.0, worstTick, p99Nanos / 1_000_000.0, meanNanos / 1_000_000.0);
+        }
+    }
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final LocalExecutor executor = new LocalExecutor();
+    private long[] durations = new long[1024];
+    private int measured;
+
+    // The executor to hand to the plugin
+    SpawnerExecutor executor() {
+        return executor;
+    }
+
+    // Run one tick: the events fired into it, then every task due. Returns its main-thread time.
+    long tick(Runnable events) {
+        long start = threads.getCurrentThreadCpuTime();
+        events.run();
+        executor.runDueTasks();
+        long elapsed = threads.getCurrentThreadCpuTime() - start;
+        record(elapsed);
+
+        executor.runAsyncTasks();
+        return elapsed;
+    }
+
+    // Tick without events until nothing is scheduled any more
+    void tickUntilIdle(int maxTicks) {
+        for (int i = 0; i < maxTicks && !isIdle(); i++) {
+            tick(() -> {
+            });
+        }
+        if (!isIdle()) {
+            throw new IllegalStateException("Still busy after " + maxTicks + " ticks");
+        }
+    }
+
+    boolean isIdle() {
+        return executor.isIdle();
+    }
+
+    // Forget the ticks measured so far
+    void resetStats() {
+        measured = 0;
+    }
+
+    TickStats stats(String scenario) {
+        if (measured == 0) {
+            return new TickStats(scenario, 0, 0, 0, 0, 0);
+        }
+        long worst = 0;
+        int worstTick = 0;
+        long total = 0;
+        for (int i = 0; i < measured; i++) {
+            total += durations[i];
+            if (durations[i] > worst) {
+                worst = durations[i];
+                worstTick = i + 1;
+            }
+        }
+        long[] sorted = Arrays.copyOf(durations, measured);
+        Arrays.sort(sorted);
+        long p99 = sorted[Math.min(measured - 1, (int) Math.ceil(measured * 0.99) - 1)];
+        return new TickStats(scenario, measured, worst, p99, total / measured, worstTick);
+    }
+
+    private void record(long nanos) {
+        if (measured == durations.length) {
+            durations = Arrays.copyOf(durations, measured << 1);
+        }
+        durations[measured++] = nanos;
+    }
+}
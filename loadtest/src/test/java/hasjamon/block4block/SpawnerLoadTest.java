@@ -0,0 +1,186 @@
+package hasjamon.block4block;
+
+import org.bukkit.Chunk;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the plugin's main-thread spawner paths, its own SpawnerUpdater wired by PluginHarness,
+// against a synthetic world and fails if any simulated tick takes longer than it may: scenarios run by
+// the update scheduler are held to the tick budget plus the unit in progress (budgetedTickMillis), the
+// chunk load storm, which the budget doesn't cover, to loadtest.max-tick-millis. Every scenario starts from a world whose loaded chunks were scanned at
+// startup; only the ticks of the scenario itself are measured. Everything runs on the test thread,
+// so a tick's time is the main-thread work the plugin would have added to it.
+class SpawnerLoadTest {
+
+    // Ranges alternated between by the transition scenarios
+    private static final int HIGH_RANGE = 64;
+    private static final int LOW_RANGE = 32;
+    private static final int MAX_TICKS = 1_000_000;
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+
+    private SimulatedServer server;
+    private SyntheticWorld world;
+    private PluginHarness plugin;
+
+    @BeforeAll
+    static void warmUp() {
+        // Compile the hot paths before anything is measured, on a smaller world of the same shape
+        LoadTestSettings warmup = SETTINGS.warmup();
+        SpawnerLoadTest test = new SpawnerLoadTest();
+        test.startServer(warmup);
+        test.transitions(warmup, false);
+        test.transitions(warmup, true);
+        test.plugin.forceUpdate();
+        test.server.tickUntilIdle(MAX_TICKS);
+        test.chunkLoadStorm(warmup);
+        // Then a startup scan and a range change at full size, whose index, caches and range plans grow
+        // past anything the small world reached
+        test.startServer(SETTINGS);
+        test.server.tick(() -> test.plugin.changeRange(LOW_RANGE));
+        test.server.tickUntilIdle(MAX_TICKS);
+        System.out.println("Load test world: " + SETTINGS.describe());
+    }
+
+    @Test
+    void startupScan() {
+        SimulatedServer.TickStats stats = startServer(SETTINGS);
+        assertEquals(world.loadedSpawners(), plugin.indexedSpawners(), "every loaded spawner is indexed");
+        assertWithinBudget(stats);
+    }
+
+    @Test
+    void rangeTransitionsOfAllSpawners() {
+        startServer(SETTINGS);
+        assertWithinBudget(transitions(SETTINGS, false));
+    }
+
+    @Test
+    void rangeTransitionsNearPlayers() {
+        startServer(SETTINGS);
+        assertWithinBudget(transitions(SETTINGS, true));
+    }
+
+    @Test
+    void forcedUpdateOfAllSpawners() {
+        startServer(SETTINGS);
+        plugin.setOnlyUpdateNearPlayers(false);
+        resetStats();
+        plugin.forceUpdate();
+        server.tickUntilIdle(MAX_TICKS);
+        assertWithinBudget(report("forced update"));
+    }
+
+    @Test
+    void chunkLoadStormFromTeleports() {
+        startServer(SETTINGS);
+        assertWithinLimit(chunkLoadStorm(SETTINGS));
+    }
+
+    // A fresh world and plugin, with every loaded chunk scanned the way the plugin does on enable
+    private SimulatedServer.TickStats startServer(LoadTestSettings settings) {
+        server = new SimulatedServer();
+        world = new SyntheticWorld(settings);
+        plugin = new PluginHarness(server.executor(), world.stub(), settings);
+        List<Chunk> chunks = world.loadArea();
+        world.placePlayers(new Random(settings.seed()));
+
+        plugin.scanLoadedChunks(chunks);
+        server.tickUntilIdle(MAX_TICKS);
+        return report("startup scan");
+    }
+
+    // Range changes back and forth, each applied completely before the next
+    private SimulatedServer.TickStats transitions(LoadTestSettings settings, boolean nearPlayers) {
+        plugin.setOnlyUpdateNearPlayers(nearPlayers);
+        resetStats();
+        for (int i = 0; i < settings.transitions(); i++) {
+            int range = plugin.getCurrentRange() == HIGH_RANGE ? LOW_RANGE : HIGH_RANGE;
+            server.tick(() -> plugin.changeRange(range));
+            server.tickUntilIdle(MAX_TICKS);
+        }
+        return report((nearPlayers ? "range transitions near players" : "range transitions of all spawners")
+                + " (" + settings.transitions() + ")");
+    }
+
+    // Players teleport to unloaded areas in bursts; each tick loads their view distance of chunks and
+    // unloads the chunks around where the same players were before
+    private SimulatedServer.TickStats chunkLoadStorm(LoadTestSettings settings) {
+        resetStats();
+        int side = settings.viewDistance() * 2 + 1;
+        int teleports = Math.min(settings.teleportsPerTick(), settings.players());
+        int[][] previous = new int[teleports][];
+        int loads = 0;
+        for (int tick = 0; tick < settings.stormTicks(); tick++) {
+            List<int[]> unloads = new ArrayList<>();
+            List<Chunk> loaded = new ArrayList<>();
+            for (int player = 0; player < teleports; player++) {
+                if (previous[player] != null) {
+                    unloads.add(previous[player]);
+                }
+                // Every destination is a fresh square east of the loaded area
+                int chunkX = world.radius() + side * (1 + tick * teleports + player);
+                int chunkZ = player * side;
+                world.movePlayer(player, chunkX, chunkZ);
+                previous[player] = new int[]{chunkX, chunkZ};
+                for (int dx = -settings.viewDistance(); dx <= settings.viewDistance(); dx++) {
+                    for (int dz = -settings.viewDistance(); dz <= settings.viewDistance(); dz++) {
+                        SyntheticWorld.SyntheticChunk chunk = world.load(chunkX + dx, chunkZ + dz);
+                        if (chunk != null) {
+                            loaded.add(chunk.stub());
+                        }
+                    }
+                }
+            }
+            loads += loaded.size();
+            server.tick(() -> {
+                for (int[] center : unloads) {
+                    for (int dx = -settings.viewDistance(); dx <= settings.viewDistance(); dx++) {
+                        for (int dz = -settings.viewDistance(); dz <= settings.viewDistance(); dz++) {
+                            if (world.unload(center[0] + dx, center[1] + dz)) {
+                                plugin.onChunkUnload(world.stub(), center[0] + dx, center[1] + dz);
+                            }
+                        }
+                    }
+                }
+                for (Chunk chunk : loaded) {
+                    plugin.onChunkLoad(chunk);
+                }
+            });
+        }
+        server.tickUntilIdle(MAX_TICKS);
+        return report("chunk load storm (" + loads + " loads, " + teleports + " teleports per tick)");
+    }
+
+    private void resetStats() {
+        server.resetStats();
+        plugin.resetTotals();
+    }
+
+    private SimulatedServer.TickStats report(String scenario) {
+        SimulatedServer.TickStats stats = server.stats(scenario);
+        System.out.println(stats.describe() + " - " + plugin.totals().summary());
+        return stats;
+    }
+
+    // Ticks of the update scheduler: the budget, the unit it started before running out, some overrun
+    private static void assertWithinBudget(SimulatedServer.TickStats stats) {
+        assertTrue(stats.worstMillis() <= SETTINGS.budgetedTickMillis(), () -> String.format(Locale.ROOT,
+                "%s exceeds the %.2f ms tick budget plus one unit (%s)", stats.describe(), SETTINGS.budgetedTickMillis(),
+                SETTINGS.describe()));
+    }
+
+    // Ticks of work that isn't budgeted, like chunk load events
+    private static void assertWithinLimit(SimulatedServer.TickStats stats) {
+        assertTrue(stats.worstMillis() <= SETTINGS.maxTickMillis(), () -> String.format(Locale.ROOT,
+                "%s exceeds the %.1f ms tick limit (%s)", stats.describe(), SETTINGS.maxTickMillis(), SETTINGS.describe()));
+    }
+}
@@ -0,0 +1,245 @@
+package hasjamon.block4block;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.block.TileState;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+// A generated world on a stubbed server. Chunk contents are a function of the seed and the chunk's
+// position, so a chunk unloaded and loaded again comes back the same (minus the ranges written to
+// it, like a fresh chunk from disk would). Spawners sit alone or in farm chunks of 8, every chunk
+// holds a random number of other tile entities around the configured average, and players stand
+// either spread over the loaded area or around spawn.
+//
+// Built on the plugin's shared Stubs: only the calls the plugin makes are answered and anything else throws.
+// Reading and writing a spawner cost a configured amount of busy time, standing in for the tile
+// entity access and block update of a real server; without it the stubs would make every path look free.
+final class SyntheticWorld {
+
+    // A loaded chunk and its spawners by block key
+    static final class SyntheticChunk {
+        private final Chunk stub;
+        private final LongObjectHashMap<CreatureSpawner> spawners = new LongObjectHashMap<>();
+        private final List<CreatureSpawner> spawnerList = new ArrayList<>();
+        private final int otherTileEntities;
+
+        @SuppressWarnings("unchecked")
+        private SyntheticChunk(SyntheticWorld world, int x, int z, int otherTileEntities) {
+            this.otherTileEntities = otherTileEntities;
+            this.stub = Stubs.proxy(Chunk.class, (proxy, method, args) -> switch (method.getName()) {
+                case "getX" -> x;
+                case "getZ" -> z;
+                case "getWorld" -> world.stub;
+                case "isLoaded" -> world.loaded.get(BlockKeys.chunkKey(x, z)) == this;
+                case "getTileEntities" -> args == null ? world.snapshots(this) : world.liveSpawners(this, (Predicate<? super Block>) args[0]);
+                default -> Stubs.common(proxy, method, args);
+            });
+        }
+
+        Chunk stub() {
+            return stub;
+        }
+
+        int spawnerCount() {
+            return spawnerList.size();
+        }
+    }
+
+    private final LoadTestSettings settings;
+    private final UUID id = new UUID(0L, 1L);
+    private final World stub;
+    private final LongObjectHashMap<SyntheticChunk> loaded = new LongObjectHashMap<>();
+    private final Block otherBlock;
+    private final BlockState otherSnapshot;
+    private final double farmChance;
+    private final double singleChance;
+    private final int radius;
+    private long[] players = new long[0];
+
+    SyntheticWorld(LoadTestSettings settings) {
+        this.settings = settings;
+        this.radius = (int) Math.ceil(Math.sqrt(settings.chunks()) / 2.0);
+        int area = (radius * 2) * (radius * 2);
+        this.farmChance = settings.spawners() * settings.farmShare() / 8.0 / area;
+        this.singleChance = settings.spawners() * (1.0 - settings.farmShare()) / area;
+        this.stub = Stubs.proxy(World.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getUID" -> id;
+            case "getName" -> "world";
+            case "getPlayers" -> players();
+            case "isChunkLoaded" -> loaded.containsKey(BlockKeys.chunkKey((Integer) args[0], (Integer) args[1]));
+            case "getBlockAt" -> blockAt((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+            default -> Stubs.common(proxy, method, args);
+        });
+        this.otherBlock = Stubs.proxy(Block.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getType" -> Material.CHEST;
+            default -> Stubs.common(proxy, method, args);
+        });
+        this.otherSnapshot = Stubs.proxy(TileState.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getType" -> Material.CHEST;
+            default -> Stubs.common(proxy, method, args);
+        });
+    }
+
+    World stub() {
+        return stub;
+    }
+
+    // Chunk radius of the loaded square around the origin
+    int radius() {
+        return radius;
+    }
+
+    // Load every chunk of the configured area, without any events; the server had them before the plugin
+    List<Chunk> loadArea() {
+        List<Chunk> chunks = new ArrayList<>(radius * radius * 4);
+        for (int x = -radius; x < radius; x++) {
+            for (int z = -radius; z < radius; z++) {
+                chunks.add(load(x, z).stub());
+            }
+        }
+        return chunks;
+    }
+
+    // Null if the chunk was already loaded
+    SyntheticChunk load(int chunkX, int chunkZ) {
+        long key = BlockKeys.chunkKey(chunkX, chunkZ);
+        if (loaded.containsKey(key)) {
+            return null;
+        }
+        SyntheticChunk chunk = generate(chunkX, chunkZ);
+        loaded.put(key, chunk);
+        return chunk;
+    }
+
+    boolean unload(int chunkX, int chunkZ) {
+        return loaded.remove(BlockKeys.chunkKey(chunkX, chunkZ)) != null;
+    }
+
+    int loadedSpawners() {
+        int count = 0;
+        for (int slot = 0; slot < loaded.capacity(); slot++) {
+            SyntheticChunk chunk = loaded.valueAt(slot);
+            if (chunk != null) {
+                count += chunk.spawnerCount();
+            }
+        }
+        return count;
+    }
+
+    // Place the players, around spawn or anywhere in the loaded area
+    void placePlayers(Random random) {
+        int spread = settings.clusteredPlayers() ? Math.min(radius, 16) : radius;
+        players = new long[settings.players()];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = BlockKeys.chunkKey(random.nextInt(spread * 2) - spread, random.nextInt(spread * 2) - spread);
+        }
+    }
+
+    long[] playerChunks() {
+        return players;
+    }
+
+    // The players as the server would list them, standing in the middle of their chunks
+    private List<Player> players() {
+        List<Player> stubs = new ArrayList<>(players.length);
+        for (long chunkKey : players) {
+            Location location = new Location(stub, BlockKeys.chunkX(chunkKey) * 16 + 8, 64, BlockKeys.chunkZ(chunkKey) * 16 + 8);
+            stubs.add(Stubs.proxy(Player.class, (proxy, method, args) -> switch (method.getName()) {
+                case "getLocation" -> location;
+                default -> Stubs.common(proxy, method, args);
+            }));
+        }
+        return stubs;
+    }
+
+    void movePlayer(int player, int chunkX, int chunkZ) {
+        players[player] = BlockKeys.chunkKey(chunkX, chunkZ);
+    }
+
+    private SyntheticChunk generate(int chunkX, int chunkZ) {
+        Random random = new Random(settings.seed() * 0x9E3779B97F4A7C15L ^ BlockKeys.chunkKey(chunkX, chunkZ));
+        int others = settings.tileEntities() > 0 ? random.nextInt(settings.tileEntities() * 2 + 1) : 0;
+        SyntheticChunk chunk = new SyntheticChunk(this, chunkX, chunkZ, others);
+
+        double roll = random.nextDouble();
+        int spawners = roll < farmChance ? 8 : roll < farmChance + singleChance ? 1 : 0;
+        for (int i = 0; i < spawners; i++) {
+            // Farm spawners stand two blocks apart in a 2x2x2 block
+            int x = (chunkX << 4) + 4 + (i & 1) * 2;
+            int y = 40 + ((i >> 2) & 1) * 2;
+            int z = (chunkZ << 4) + 4 + ((i >> 1) & 1) * 2;
+            boolean playerPlaced = random.nextDouble() < settings.playerPlaced();
+            String owner = playerPlaced ? new UUID(0L, random.nextInt(Math.max(1, settings.players()))).toString() : null;
+            CreatureSpawner spawner = Stubs.spawner(stub, x, y, z, playerPlaced, owner, SpawnerRangePolicy.VANILLA_SPAWNER_RANGE,
+                    () -> spend(settings.writeCostMicros()));
+            chunk.spawners.put(BlockKeys.blockKey(x, y, z), spawner);
+            chunk.spawnerList.add(spawner);
+        }
+        return chunk;
+    }
+
+    private Block blockAt(int x, int y, int z) {
+        SyntheticChunk chunk = loaded.get(BlockKeys.chunkKey(x >> 4, z >> 4));
+        CreatureSpawner spawner = chunk != null ? chunk.spawners.get(BlockKeys.blockKey(x, y, z)) : null;
+        return Stubs.proxy(Block.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getType" -> spawner != null ? Material.SPAWNER : Material.AIR;
+            case "getState" -> {
+                spend(settings.readCostMicros());
+                yield spawner;
+            }
+            case "getX" -> x;
+            case "getY" -> y;
+            case "getZ" -> z;
+            case "getWorld" -> stub;
+            default -> Stubs.common(proxy, method, args);
+        });
+    }
+
+    // Paper: only the tile entities the predicate accepts, read live
+    private Collection<BlockState> liveSpawners(SyntheticChunk chunk, Predicate<? super Block> filter) {
+        for (int i = 0; i < chunk.otherTileEntities; i++) {
+            filter.test(otherBlock);
+        }
+        List<BlockState> states = new ArrayList<>(chunk.spawnerList.size());
+        for (CreatureSpawner spawner : chunk.spawnerList) {
+            spend(settings.readCostMicros());
+            states.add(spawner);
+        }
+        return states;
+    }
+
+    // Spigot: a snapshot of every tile entity
+    private BlockState[] snapshots(SyntheticChunk chunk) {
+        BlockState[] states = new BlockState[chunk.otherTileEntities + chunk.spawnerList.size()];
+        Arrays.fill(states, 0, chunk.otherTileEntities, otherSnapshot);
+        for (int i = 0; i < chunk.spawnerList.size(); i++) {
+            states[chunk.otherTileEntities + i] = chunk.spawnerList.get(i);
+        }
+        spend(settings.readCostMicros() * states.length);
+        return states;
+    }
+
+    // Busy time standing in for work the stubs don't do
+    private static void spend(double micros) {
+        if (micros <= 0.0) {
+            return;
+        }
+        long end = System.nanoTime() + (long) (micros * 1000.0);
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package hasjamon.block4block;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+// Spawners the simulator applies ranges to: either the spawners.bin a server saved on shutdown,
+// or a synthetic layout. Ranges are mutable, they follow the simulated updates.
+final class SpawnerLayout {
+
+    private final UUID[] worldIds;
+    private final long[] blockKeys;
+    private final byte[] flags;
+    private final short[] ranges;
+    private final String description;
+
+    private SpawnerLayout(UUID[] worldIds, long[] blockKeys, byte[] flags, short[] ranges, String description) {
+        this.worldIds = worldIds;
+        this.blockKeys = blockKeys;
+        this.flags = flags;
+        this.ranges = ranges;
+        this.description = description;
+    }
+
+    static SpawnerLayout fromRegistry(Path file) throws IOException {
+        SpawnerRegistryFile registry = SpawnerRegistryFile.read(file);
+        int size = registry.spawnerCount();
+        UUID[] worldIds = new UUID[size];
+        long[] blockKeys = new long[size];
+        byte[] flags = new byte[size];
+        short[] ranges = new short[size];
+        int index = 0;
+        for (Map.Entry<UUID, LongObjectHashMap<SpawnerRegistryFile.ChunkEntry>> world : registry.worlds().entrySet()) {
+            LongObjectHashMap<SpawnerRegistryFile.ChunkEntry> chunks = world.getValue();
+            for (int slot = 0; slot < chunks.capacity(); slot++) {
+                SpawnerRegistryFile.ChunkEntry entry = chunks.valueAt(slot);
+                if (entry == null) {
+                    continue;
+                }
+                for (int i = 0; i < entry.size(); i++) {
+                    worldIds[index] = world.getKey();
+                    blockKeys[index] = entry.blockKeys()[i];
+                    flags[index] = entry.flags()[i];
+                    ranges[index] = entry.ranges()[i];
+                    index++;
+                }
+            }
+        }
+        return new SpawnerLayout(worldIds, blockKeys, flags, ranges,
+                size + " spawners in " + registry.chunkCount() + " chunks from " + file.getFileName());
+    }
+
+    // count spawners scattered over a square of chunks, a playerPlacedFraction of them player placed
+    static SpawnerLayout synthetic(int count, double playerPlacedFraction, long seed) {
+        Random random = new Random(seed);
+        UUID worldId = new UUID(0L, seed);
+        int radius = Math.max(1, (int) Math.sqrt(count));
+        UUID[] worldIds = new UUID[count];
+        long[] blockKeys = new long[count];
+        byte[] flags = new byte[count];
+        short[] ranges = new short[count];
+        for (int i = 0; i < count; i++) {
+            worldIds[i] = worldId;
+            blockKeys[i] = BlockKeys.blockKey(random.nextInt(radius * 32) - radius * 16,
+                    random.nextInt(100) - 40, random.nextInt(radius * 32) - radius * 16);
+            flags[i] = random.nextDouble() < playerPlacedFraction ? SpawnerIndex.FLAG_PLAYER_PLACED : 0;
+            ranges[i] = SpawnerRangePolicy.VANILLA_SPAWNER_RANGE;
+        }
+        return new SpawnerLayout(worldIds, blockKeys, flags, ranges,
+                count + " synthetic spawners, " + Math.round(playerPlacedFraction * 100) + "% player placed");
+    }
+
+    int size() {
+        return blockKeys.length;
+    }
+
+    String description() {
+        return description;
+    }
+
+    // Fresh copy, so every simulated configuration starts from the same ranges
+    SpawnerLayout copy() {
+        return new SpawnerLayout(worldIds, blockKeys, flags, ranges.clone(), description);
+    }
+
+    SpawnerSnapshot snapshot() {
+        SpawnerSnapshot.Builder builder = new SpawnerSnapshot.Builder(size());
+        for (int i = 0; i < size(); i++) {
+            builder.add(worldIds[i], blockKeys[i], flags[i], ranges[i], EntityDensityTracker.FACTOR_STEPS,
+                    EntityDensityTracker.FACTOR_STEPS, EntityDensityTracker.FACTOR_STEPS);
+        }
+        return builder.build();
+    }
+
+    // Spawner writes the plan needed; planned entries line up with layout order
+    int apply(RangeUpdatePlan plan) {
+        int next = 0;
+        for (int i = 0; i < size() && next < plan.size(); i++) {
+            if (blockKeys[i] == plan.blockKey(next) && worldIds[i].equals(plan.worldId(next))) {
+                ranges[i] = (short) plan.range(next);
+                next++;
+            }
+        }
+        return plan.size();
+    }
+}
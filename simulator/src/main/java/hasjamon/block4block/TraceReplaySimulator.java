@@ -0,0 +1,219 @@
+package hasjamon.block4block;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+// Replays a recorded TickTrace through the plugin's range decision (tick sensor signal, load
+// forecast, controller and governor) for one or more configurations, and plans every range change
+// against a spawner layout the way an eager update does. Prints per configuration how often the
+// range changed, how many spawner writes that caused, how long the server ran below its high range,
+// and what the updates would cost on the main thread.
+//
+//   java hasjamon.block4block.TraceReplaySimulator --trace trace.csv
+//       [--config a.yml --config b.yml] [--layout spawners.bin | --spawners 2000 --player-placed 0.8]
+//       [--read-cost-micros 2] [--write-cost-micros 25]
+//
+// Without --config the plugin's default config.yml is used. Players aren't simulated, so every
+// spawner counts as near a player (an upper bound for only-update-near-players), and lazy range
+// application is costed like eager.
+public final class TraceReplaySimulator {
+
+    // One configuration's outcome
+    record Result(String name, int flips, long writes, long startupWrites, long ticks, long ticksBelowHigh,
+                  long ticksAtLow, double costMillis, int worstUpdateTicks, Map<Integer, Long> ticksAtRange) {
+    }
+
+    private TraceReplaySimulator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path trace = null;
+        List<Path> configs = new ArrayList<>();
+        Path layoutFile = null;
+        int spawners = 1000;
+        double playerPlaced = 1.0;
+        double readCostMicros = 2.0;
+        double writeCostMicros = 25.0;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--trace" -> trace = Path.of(require(args[i], value));
+                case "--config" -> configs.add(Path.of(require(args[i], value)));
+                case "--layout" -> layoutFile = Path.of(require(args[i], value));
+                case "--spawners" -> spawners = Integer.parseInt(require(args[i], value));
+                case "--player-placed" -> playerPlaced = Double.parseDouble(require(args[i], value));
+                case "--read-cost-micros" -> readCostMicros = Double.parseDouble(require(args[i], value));
+                case "--write-cost-micros" -> writeCostMicros = Double.parseDouble(require(args[i], value));
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            i++;
+        }
+        if (trace == null) {
+            throw new IllegalArgumentException("--trace is required");
+        }
+
+        List<TickTrace.Sample> samples = TickTrace.read(trace);
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException(trace + " contains no samples");
+        }
+        SpawnerLayout layout = layoutFile != null ? SpawnerLayout.fromRegistry(layoutFile)
+                : SpawnerLayout.synthetic(spawners, playerPlaced, 1L);
+        System.out.println("Trace: " + trace.getFileName() + ", " + samples.size() + " samples over "
+                + samples.get(samples.size() - 1).tick() + " ticks" + (samples.get(0).hasMspt() ? "" : " (TPS only)"));
+        System.out.println("Layout: " + layout.description());
+
+        List<Result> results = new ArrayList<>();
+        if (configs.isEmpty()) {
+            results.add(simulate("default config.yml", defaultConfig(), samples, layout.copy(), readCostMicros, writeCostMicros));
+        }
+        for (Path config : configs) {
+            results.add(simulate(config.getFileName().toString(), YamlConfiguration.loadConfiguration(config.toFile()),
+                    samples, layout.copy(), readCostMicros, writeCostMicros));
+        }
+        for (Result result : results) {
+            print(result);
+        }
+        if (results.size() > 1) {
+            printComparison(results);
+        }
+    }
+
+    static Result simulate(String name, YamlConfiguration config, List<TickTrace.Sample> samples,
+                           SpawnerLayout layout, double readCostMicros, double writeCostMicros) {
+        Logger logger = Logger.getLogger(TraceReplaySimulator.class.getSimpleName());
+        // Read the way the plugin reads it; a TPS-only trace has no tick times to forecast from
+        boolean hasMspt = samples.get(0).hasMspt();
+        PluginSettings settings = PluginSettings.load(config, new PluginSettings.Capabilities(hasMspt, false, false), logger);
+        RangeGovernor governor = RangeControllers.createGovernor(settings.rangeController(), logger);
+        SpawnerRangePolicy policy = settings.rangePolicy();
+        int rangeHigh = settings.spawnerRangeHigh();
+        int rangeLow = settings.spawnerRangeLow();
+        int interval = settings.updateIntervalTicks();
+        long tickBudgetNanos = settings.tickBudgetNanos();
+
+        // Same sensor and forecaster setup as the plugin
+        MsptRingBuffer buffer = new MsptRingBuffer(1200);
+        PluginSettings.TickSensorSettings sensor = settings.tickSensor();
+        int shortWindow = Math.max(1, Math.min(sensor.shortWindowTicks(), buffer.capacity()));
+        LoadForecaster forecaster = null;
+        PluginSettings.ForecastSettings forecast = settings.forecast();
+        if (forecast.enabled()) {
+            forecaster = new LoadForecaster(buffer);
+            forecaster.configure(forecast.windowTicks(), forecast.horizonSeconds(), forecast.confidenceSigmas());
+        }
+
+        // The startup pass brings every spawner to the initial range; reported apart from the trace
+        int range = settings.initialSpawnerRange();
+        long startupWrites = layout.apply(RangeUpdatePlan.compute(layout.snapshot(), policy, range, 0));
+
+        int flips = 0;
+        long writes = 0;
+        long ticksBelowHigh = 0;
+        long ticksAtLow = 0;
+        double costNanos = 0.0;
+        int worstUpdateTicks = 0;
+        Map<Integer, Long> ticksAtRange = new TreeMap<>();
+        long previousTick = samples.get(0).tick() - 1;
+        long nextDecision = previousTick + interval;
+
+        for (TickTrace.Sample sample : samples) {
+            long elapsed = sample.tick() - previousTick;
+            previousTick = sample.tick();
+            ticksAtRange.merge(range, elapsed, Long::sum);
+            if (range < rangeHigh) {
+                ticksBelowHigh += elapsed;
+            }
+            if (range <= rangeLow) {
+                ticksAtLow += elapsed;
+            }
+            if (sample.hasMspt()) {
+                buffer.record(sample.mspt());
+            }
+            if (sample.tick() < nextDecision) {
+                continue;
+            }
+            nextDecision += interval * ((sample.tick() - nextDecision) / interval + 1);
+
+            double tps = TickSensor.controlTps(sensor.signal(), sample.tps(), buffer, shortWindow);
+            if (forecaster != null) {
+                tps = LoadForecaster.decisionTps(tps, forecaster.forecast());
+            }
+            // The trace's own clock, so dwell times behave as they would have on the server
+            int next = governor.nextRange(tps, range, sample.tick() * 50L);
+            if (next == range) {
+                continue;
+            }
+            range = next;
+            flips++;
+            RangeUpdatePlan plan = RangeUpdatePlan.compute(layout.snapshot(), policy, range, flips);
+            int written = layout.apply(plan);
+            writes += written;
+            double updateNanos = (plan.examined() * readCostMicros + written * writeCostMicros) * 1000.0;
+            costNanos += updateNanos;
+            worstUpdateTicks = Math.max(worstUpdateTicks, (int) Math.ceil(updateNanos / tickBudgetNanos));
+        }
+
+        long ticks = samples.get(samples.size() - 1).tick() - samples.get(0).tick() + 1;
+        return new Result(name, flips, writes, startupWrites, ticks, ticksBelowHigh, ticksAtLow,
+                costNanos / 1_000_000.0, worstUpdateTicks, ticksAtRange);
+    }
+
+    private static YamlConfiguration defaultConfig() throws IOException {
+        try (InputStream in = TraceReplaySimulator.class.getClassLoader().getResourceAsStream("config.yml")) {
+            if (in == null) {
+                throw new IOException("config.yml not found on the classpath");
+            }
+            return YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String require(String option, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return value;
+    }
+
+    private static void print(Result result) {
+        System.out.println();
+        System.out.println("== " + result.name());
+        System.out.println("Range changes:     " + result.flips()
+                + String.format(Locale.ROOT, " (%.1f per hour)", result.flips() * 72_000.0 / result.ticks()));
+        System.out.println("Spawner writes:    " + result.writes() + " (startup pass: " + result.startupWrites() + ")");
+        System.out.println("Below high range:  " + percent(result.ticksBelowHigh(), result.ticks()));
+        System.out.println("At low range:      " + percent(result.ticksAtLow(), result.ticks()));
+        System.out.println(String.format(Locale.ROOT, "Update cost:       %.1f ms total, worst update spans %d ticks at the tick budget",
+                result.costMillis(), result.worstUpdateTicks()));
+        StringBuilder histogram = new StringBuilder("Time at range:    ");
+        for (Map.Entry<Integer, Long> entry : result.ticksAtRange().entrySet()) {
+            histogram.append(' ').append(entry.getKey()).append('=').append(percent(entry.getValue(), result.ticks()));
+        }
+        System.out.println(histogram);
+    }
+
+    private static void printComparison(List<Result> results) {
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-28s %8s %10s %10s %10s %12s", "config", "changes", "writes", "below-high", "at-low", "cost-ms"));
+        for (Result result : results) {
+            System.out.println(String.format(Locale.ROOT, "%-28s %8d %10d %10s %10s %12.1f", result.name(), result.flips(),
+                    result.writes(), percent(result.ticksBelowHigh(), result.ticks()),
+                    percent(result.ticksAtLow(), result.ticks()), result.costMillis()));
+        }
+    }
+
+    private static String percent(long part, long whole) {
+        return String.format(Locale.ROOT, "%.1f%%", whole == 0 ? 0.0 : part * 100.0 / whole);
+    }
+}
@@ -2,6 +2,7 @@ package hasjamon.block4block;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
@@ -12,53 +13,166 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.entity.SpawnerSpawnEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scoreboard.Team;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.logging.Level;
 
 public class AdaptiveRangeMobSpawner extends JavaPlugin implements Listener {
 
-    private int initialSpawnerRange;
-    private int spawnerRangeHigh;
-    private int spawnerRangeLow;
-    private double tpsThresholdLow;
-    private double tpsThresholdHigh;
-    private int updateIntervalTicks;
-    private boolean affectNaturallyGenerated;
-    private boolean updatePreexistingSpawners;
-    private int chunksPerTick;
+    // Settings from config.yml, replaced as a whole on reload
+    private volatile PluginSettings settings;
+    private volatile boolean debugMode;
     private int currentSpawnerRange;
-    private boolean debugMode;
-    private Set<String> disabledWorlds;
-    private int playerChunkRadius;
-    private boolean onlyUpdateNearPlayers;
+
+    // Decides the spawner range from TPS and limits how often and how far it changes
+    private RangeGovernor rangeGovernor;
+
+    // Reads markers and applies ranges to individual spawners
+    private SpawnerProcessor spawnerProcessor;
 
     // Key for marking spawners as player-placed
     private static final String PLAYER_PLACED_KEY = "player_placed";
 
+    // Keys for the UUID and scoreboard team of the player who placed a spawner
+    private static final String OWNER_KEY = "owner";
+    private static final String OWNER_TEAM_KEY = "owner_team";
+
+    // Key for the original delay/nearby/count values of a throttled spawner
+    private static final String THROTTLE_ORIGINAL_KEY = "throttle_original";
+
+    // Spawner registry in the data folder, written on disable and read on the next enable
+    private static final String REGISTRY_FILE = "spawners.bin";
+
     // Cached NamespacedKey for better performance
     private org.bukkit.NamespacedKey playerPlacedKey;
 
     // Flag to track if we're running on Paper
     private boolean isPaper;
 
-    // Cache recently processed chunks to avoid duplicate updates
-    private final Set<Long> recentlyProcessedChunks = new HashSet<>();
+    // Paper's AsyncChunkLoadEvent, if this server has it
+    private Class<?> asyncChunkLoadEventClass;
+
+    // Server load measurement, bound to the best available source at enable
+    private TickSensor tickSensor;
+
+    // Tick time trend, to shrink ranges before TPS drops
+    private LoadForecaster loadForecaster;
+
+    // GC, heap and CPU signals combined with TPS, null while disabled
+    private LoadSignals loadSignals;
+
+    // Range generation last applied to each loaded chunk, to avoid duplicate updates
+    private final ChunkStateCache chunkStates = new ChunkStateCache();
+
+    // Known spawner positions, so range changes don't have to rescan every chunk's tile entities
+    private final SpawnerIndex spawnerIndex = new SpawnerIndex();
+
+    // Guards the spawner index and chunk states, which region threads share on regionized servers.
+    // Only structural changes and lookups take it; a chunk's entries are touched by its owning thread.
+    private final Object stateLock = new Object();
+
+    // Main thread or regionized schedulers, chosen at enable
+    private SpawnerExecutor executor;
+
+    // Per-region ranges, only on regionized servers
+    private RegionRangeTracker regionRanges;
+
+    // Living entities per 4x4-chunk cell, to shrink spawner ranges where mobs pile up
+    private final EntityDensityTracker densityTracker = new EntityDensityTracker();
+    // PaperEntityListener while entity-density is enabled; typed as Listener so Spigot never loads the Paper events
+    private Listener entityListener;
+
+    // Recent spawns per spawner, to throttle the busiest ones first under load
+    private final SpawnerActivityTracker activityTracker = new SpawnerActivityTracker();
+
+    // How throttled spawners are slowed down, rebuilt on config load
+    private SpawnerThrottle spawnerThrottle;
+
+    // Whether the server was overloaded at the last check (throttle hysteresis)
+    private boolean throttling;
+
+    // Spawner count and activation area per owner, and the range factors of owners over budget
+    private final OwnerBudgets ownerBudgets = new OwnerBudgets();
+
+    // Whether owner budgets were enforced at the last check (hysteresis)
+    private boolean enforcingBudgets;
+    // Last queued owner budget update; budgets are re-evaluated once it is done
+    private UpdateJob<SpawnerChunkRef> budgetUpdate;
+
+    // Limits of dense spawner clusters, decided from the clusters the spawner index tracks
+    private final ClusterThrottle clusterThrottle = new ClusterThrottle();
+
+    // Whether clusters were throttled at the last check (hysteresis)
+    private boolean throttlingClusters;
+
+    // Spawner work done applying and restoring throttles since enable
+    private final SpawnerPassTotals throttleStats = new SpawnerPassTotals();
+
+    // Spreads startup scans and range updates across ticks under a time budget
+    private SpawnerUpdateScheduler updateScheduler;
+
+    // Scans, reconciles and updates spawner chunks, keeping the index and chunk stamps in step
+    private SpawnerUpdater spawnerUpdater;
+
+    // Records load traces for the offline simulator on request
+    private TraceRecorder traceRecorder;
+
+    // Spawner work done by chunk loads since enable
+    private final SpawnerPassTotals chunkLoadStats = new SpawnerPassTotals();
+
+    // Range generation each online player's surroundings were last reconciled to, and the monitor
+    // pass in which that happened (lazy mode)
+    private record Reconciled(int generation, long pass) {
+    }
+    private final Map<UUID, Reconciled> reconciledGenerations = new ConcurrentHashMap<>();
+
+    // Monitor intervals run since enable; players reconciled longer ago than lazy-idle-intervals count as idle
+    private volatile long monitorPasses;
+
+    // Spawner work done by lazy reconciliation since enable
+    private final SpawnerPassTotals lazyStats = new SpawnerPassTotals();
+
+    // Spawner work dispatched to regions since enable
+    private final SpawnerPassTotals regionStats = new SpawnerPassTotals();
+
+    // Counters and timings for the metrics command and the Prometheus file
+    private final SpawnerMetrics metrics = new SpawnerMetrics();
+
+    // Writes the Prometheus file periodically, null while disabled
+    private SpawnerExecutor.Task metricsExport;
+    private SpawnerExecutor.Task rangeMonitor;
 
     @Override
     public void onEnable() {
         // Initialize the cached key
         playerPlacedKey = new org.bukkit.NamespacedKey(this, PLAYER_PLACED_KEY);
+        spawnerProcessor = new SpawnerProcessor(playerPlacedKey, new org.bukkit.NamespacedKey(this, OWNER_KEY),
+                new org.bukkit.NamespacedKey(this, OWNER_TEAM_KEY), densityTracker, ownerBudgets, clusterThrottle,
+                this::catchUpThrottle);
 
         // Current range tracking
         currentSpawnerRange = -1;
@@ -70,23 +184,32 @@ public class AdaptiveRangeMobSpawner extends JavaPlugin implements Listener {
         } else {
             getLogger().info("Running on Spigot/Bukkit - using compatibility mode");
         }
+        asyncChunkLoadEventClass = isPaper ? findClass("io.papermc.paper.event.world.AsyncChunkLoadEvent") : null;
+        tickSensor = TickSensor.create(this, isPaper, 1200);
+        getLogger().info("Measuring server load via " + tickSensor.getSource().description());
+        loadForecaster = new LoadForecaster(tickSensor.getBuffer());
+
+        // Regionized servers (Folia) reject the Bukkit scheduler and tick each region on its own thread
+        if (isPaper && RegionSpawnerExecutor.isRegionizedServer()) {
+            executor = new RegionSpawnerExecutor(this);
+            regionRanges = RegionRangeTracker.create(getLogger(), tickSensor::getControlTps);
+            getLogger().info("Regionized server detected - spawner ranges follow each region's TPS"
+                    + (regionRanges.hasRegionTps() ? "" : " (unavailable, using server TPS)"));
+        } else {
+            executor = new BukkitSpawnerExecutor(this);
+        }
+        updateScheduler = new SpawnerUpdateScheduler(executor, metrics, 2_000_000L);
+        spawnerUpdater = new SpawnerUpdater(stateLock, spawnerIndex, chunkStates, spawnerProcessor, densityTracker,
+                ownerBudgets, clusterThrottle, executor, updateScheduler, metrics, SpawnerUpdater.Worlds.BUKKIT, isPaper,
+                getLogger(), () -> debugMode);
+        registerMetrics();
+        traceRecorder = new TraceRecorder(tickSensor, executor, getLogger());
 
         loadConfig();
         Bukkit.getPluginManager().registerEvents(this, this);
 
         // Set initial current range
-        currentSpawnerRange = initialSpawnerRange;
-
-        // Schedule cache cleanup
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                recentlyProcessedChunks.clear();
-                if (debugMode) {
-                    getLogger().info("Cleared chunk processing cache");
-                }
-            }
-        }.runTaskTimer(this, 1200L, 1200L);  // Run every minute
+        currentSpawnerRange = settings.initialSpawnerRange();
 
         // Update spawners in already loaded chunks at startup - spread across ticks
         updateChunksOnStartup();
@@ -94,12 +217,49 @@ public class AdaptiveRangeMobSpawner extends JavaPlugin implements Listener {
         // Start TPS monitoring and spawner adjustment scheduler
         startTPSMonitoring();
 
-        getLogger().info("Adaptive Range Mob Spawner enabled. Initial spawner range: " + initialSpawnerRange + " blocks.");
-        getLogger().info("TPS thresholds: Low=" + tpsThresholdLow + ", High=" + tpsThresholdHigh);
-        getLogger().info("Spawner ranges: Low=" + spawnerRangeLow + ", High=" + spawnerRangeHigh);
-        getLogger().info("Affect naturally generated spawners: " + affectNaturallyGenerated);
-        getLogger().info("Update preexisting spawners: " + updatePreexistingSpawners);
-        getLogger().info("Only update spawners near players: " + onlyUpdateNearPlayers);
+        getLogger().info("Adaptive Range Mob Spawner enabled. Initial spawner range: " + settings.initialSpawnerRange() + " blocks.");
+        getLogger().info("TPS thresholds: Low=" + settings.tpsThresholdLow() + ", High=" + settings.tpsThresholdHigh());
+        getLogger().info("Spawner ranges: Low=" + settings.spawnerRangeLow() + ", High=" + settings.spawnerRangeHigh());
+        getLogger().info("Affect naturally generated spawners: " + settings.affectNaturallyGenerated());
+        getLogger().info("Update preexisting spawners: " + settings.updatePreexistingSpawners());
+        getLogger().info("Only update spawners near players: " + settings.onlyUpdateNearPlayers());
+    }
+
+    @Override
+    public void onDisable() {
+        // Give throttled spawners their original settings back while the plugin can still do it.
+        // Regions can't be reached synchronously here; their spawners keep the stored originals
+        // and are restored by the next scan of their chunk (the registry flags them, so startup
+        // scans their chunks instead of reconciling them).
+        if (executor != null && !executor.isRegionized()) {
+            throttling = false;
+            for (SpawnerActivityTracker.Entry entry : activityTracker.select(false, 0.0, 0.0, System.currentTimeMillis()).restore()) {
+                updateThrottle(entry, false);
+            }
+        }
+        // Switched-off cluster members would otherwise keep range 0 if the plugin is removed
+        if (executor != null && !executor.isRegionized() && clusterThrottle.isThrottling()) {
+            SpawnerPassStats stats = new SpawnerPassStats();
+            for (SpawnerChunkRef target : publishClusterLimits(clusterThrottle.newLimits())) {
+                spawnerUpdater.updateIndexedSpawners(target.world(), target.chunk(), getCurrentRange(), stats);
+            }
+        }
+        // Null if enabling failed before the config was loaded
+        if (settings != null && settings.persistRegistry() && executor != null) {
+            saveSpawnerRegistry();
+        }
+        if (updateScheduler != null) {
+            updateScheduler.cancelAll();
+        }
+        if (traceRecorder != null) {
+            traceRecorder.stop();
+        }
+        if (metricsExport != null) {
+            metricsExport.cancel();
+        }
+        if (loadSignals != null) {
+            loadSignals.close();
+        }
     }
 
     // Check if we're running on Paper
@@ -119,351 +279,859 @@ public class AdaptiveRangeMobSpawner extends JavaPlugin implements Listener {
         }
     }
 
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
     private void loadConfig() {
         saveDefaultConfig();
         reloadConfig();
         FileConfiguration config = getConfig();
 
-        // Set the initial activation range for spawners (practical max is 128 due to vanilla limitations)
-        initialSpawnerRange = config.getInt("initial-spawner-range", 64);
-        spawnerRangeHigh = config.getInt("spawner-range-high", 128);
-        spawnerRangeLow = config.getInt("spawner-range-low", 16);
-        tpsThresholdLow = config.getDouble("tps-threshold-low", 15.0);
-        tpsThresholdHigh = config.getDouble("tps-threshold-high", 18.0);
-        updateIntervalTicks = config.getInt("update-interval-ticks", 200);
-        affectNaturallyGenerated = config.getBoolean("affect-naturally-generated", false);
-        updatePreexistingSpawners = config.getBoolean("update-preexisting-spawners", false);
-        chunksPerTick = config.getInt("chunks-per-tick", 5);
+        PluginSettings previous = settings;
+        PluginSettings settings = PluginSettings.load(config, new PluginSettings.Capabilities(
+                tickSensor.getSource() == TickSensor.Source.PAPER && regionRanges == null,
+                regionRanges == null, isPaper), getLogger());
         debugMode = config.getBoolean("debug-mode", false);
-        onlyUpdateNearPlayers = config.getBoolean("only-update-near-players", true);
-        playerChunkRadius = config.getInt("player-chunk-radius", 5);
 
-        // Load disabled worlds
-        disabledWorlds = new HashSet<>(config.getStringList("disabled-worlds"));
+        // Published as a whole, readers on other threads see either the old or the new settings
+        this.settings = settings;
+        spawnerProcessor.setPolicy(settings.rangePolicy());
+        configureComponents(previous, settings);
 
         // Create default config sections if they don't exist
-        if (!config.contains("chunks-per-tick")) {
-            config.set("chunks-per-tick", chunksPerTick);
+        if (!config.contains("tick-budget-nanos")) {
+            config.set("tick-budget-nanos", settings.tickBudgetNanos());
+            saveConfig();
+        }
+        if (!config.contains("debug-mode")) {
             config.set("debug-mode", debugMode);
-            config.set("only-update-near-players", onlyUpdateNearPlayers);
-            config.set("player-chunk-radius", playerChunkRadius);
+            config.set("only-update-near-players", settings.onlyUpdateNearPlayers());
+            config.set("player-chunk-radius", settings.playerChunkRadius());
             config.set("disabled-worlds", new ArrayList<String>());
             saveConfig();
         }
     }
 
+    // Hand every component its part of the settings; `previous` is null on enable. Components whose
+    // settings didn't change keep their state, in particular the range governor its dwell and history.
+    private void configureComponents(PluginSettings previous, PluginSettings settings) {
+        PluginSettings.TickSensorSettings sensor = settings.tickSensor();
+        tickSensor.configure(sensor.signal(), sensor.shortWindowTicks(), sensor.longWindowTicks());
+        if (previous == null || !previous.metrics().equals(settings.metrics())) {
+            scheduleMetricsExport(settings.metrics());
+        }
+
+        PluginSettings.ForecastSettings forecast = settings.forecast();
+        loadForecaster.configure(forecast.windowTicks(), forecast.horizonSeconds(), forecast.confidenceSigmas());
+
+        PluginSettings.LoadSignalSettings signals = settings.loadSignals();
+        if (!signals.enabled() && loadSignals != null) {
+            loadSignals.close();
+            loadSignals = null;
+        } else if (signals.enabled()) {
+            if (loadSignals == null) {
+                loadSignals = LoadSignals.create(getLogger());
+            }
+            loadSignals.configure(signals.tpsFloor(), signals.tpsWeight(), signals.allocationWeight(),
+                    signals.youngGcWeight(), signals.heapWeight(), signals.cpuWeight(),
+                    signals.allocationHighMbPerSecond(), signals.youngGcHighPercent(),
+                    signals.heapLowPercent(), signals.heapHighPercent(),
+                    signals.ignoreMajorGc(), signals.ignoreOtherProcesses());
+        }
+
+        RangeControllers.Settings controller = settings.rangeController();
+        if (previous == null || !previous.rangeController().equals(controller)) {
+            rangeGovernor = RangeControllers.createGovernor(controller, getLogger());
+            if (regionRanges != null) {
+                // Every region section gets its own governor (controllers may keep state), warnings were logged above
+                regionRanges.setGovernorFactory(() -> RangeControllers.createGovernor(controller, null));
+            }
+        }
+
+        updateScheduler.setBudgetNanos(settings.tickBudgetNanos());
+        spawnerUpdater.configure(settings.disabledWorlds(), settings.onlyUpdateNearPlayers(), settings.playerChunkRadius());
+
+        PluginSettings.DensitySettings density = settings.density();
+        densityTracker.configure(density.enabled(), density.softLimit(), density.hardLimit(), density.minRangeFactor());
+        // Entity adds and removes are only listened to while density scaling is on; turning it off
+        // forgets the counts, since nothing keeps them up to date until it is turned back on
+        if (density.enabled() && entityListener == null) {
+            entityListener = new PaperEntityListener(densityTracker);
+            Bukkit.getPluginManager().registerEvents(entityListener, this);
+        } else if (!density.enabled() && entityListener != null) {
+            HandlerList.unregisterAll(entityListener);
+            entityListener = null;
+            densityTracker.forgetEntities();
+        }
+
+        PluginSettings.OwnerBudgetSettings budget = settings.ownerBudget();
+        ownerBudgets.configure(budget.enabled(), budget.groupByTeam(), budget.budgetSpawners(), budget.minRangeFactor());
+
+        PluginSettings.ClusterSettings clusters = settings.clusters();
+        clusterThrottle.configure(clusters.enabled(), clusters.mode(), clusters.minSize(), clusters.activeSpawners());
+        synchronized (stateLock) {
+            spawnerIndex.setClusterRadius(clusters.radius());
+        }
+
+        PluginSettings.ThrottleSettings throttle = settings.throttle();
+        activityTracker.setHalfLifeSeconds(throttle.halfLifeSeconds());
+        spawnerThrottle = new SpawnerThrottle(new org.bukkit.NamespacedKey(this, THROTTLE_ORIGINAL_KEY),
+                throttle.delayMultiplier(), throttle.maxNearbyEntities(), throttle.spawnCount());
+    }
+
     // Spread chunk updates across multiple ticks to reduce startup lag
     private void updateChunksOnStartup() {
-        new BukkitRunnable() {
-            private final Chunk[] chunks = Bukkit.getWorlds().stream()
-                    .filter(world -> !disabledWorlds.contains(world.getName()))
-                    .flatMap(world -> Arrays.stream(world.getLoadedChunks()))
-                    .toArray(Chunk[]::new);
-            private int index = 0;
+        executor.runGlobalLater(this::scanLoadedChunks, 20L); // Start after 1 second to let server finish loading
+    }
 
-            @Override
-            public void run() {
-                for (int i = 0; i < chunksPerTick && index < chunks.length; i++, index++) {
-                    updateSpawnersInChunk(chunks[index], initialSpawnerRange);
+    // Queue every loaded chunk for a scan, on the budgeted scheduler or on the owning regions
+    private void scanLoadedChunks() {
+        SpawnerRegistryFile registry = loadSpawnerRegistry();
+        if (executor.isRegionized()) {
+            // Each region scans its own chunks
+            for (World world : Bukkit.getWorlds()) {
+                if (settings.isDisabled(world.getName())) {
+                    continue;
                 }
-                if (index >= chunks.length) {
-                    cancel(); // Stop task when all chunks are processed
-                    getLogger().info("All spawners updated on startup (" + chunks.length + " chunks processed).");
+                for (Chunk chunk : world.getLoadedChunks()) {
+                    executor.runAtChunk(world, chunk.getX(), chunk.getZ(), () -> regionStats.record(stats ->
+                            spawnerUpdater.startupChunk(chunk, getRangeAt(world, chunk.getX(), chunk.getZ()), registry, stats)));
                 }
             }
-        }.runTaskTimer(this, 20L, 1L); // Run every tick, but start after 1 second to let server finish loading
+            return;
+        }
+
+        List<Chunk> chunks = Bukkit.getWorlds().stream()
+                .filter(world -> !settings.isDisabled(world.getName()))
+                .flatMap(world -> Arrays.stream(world.getLoadedChunks()))
+                .collect(Collectors.toList());
+
+        if (registry != null) {
+            int known = 0;
+            for (Chunk chunk : chunks) {
+                if (registry.get(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ()) != null) {
+                    known++;
+                }
+            }
+            getLogger().info(known + " of " + chunks.size() + " loaded chunks are known from the spawner registry, scanning the rest");
+        }
+
+        // Use the range at the time each chunk is reached, TPS may change during the scan
+        UpdateJob<Chunk> job = new UpdateJob<>(UpdateJob.Kind.STARTUP_SCAN, "startup scan", chunks,
+                (chunk, stats) -> spawnerUpdater.startupChunk(chunk, getCurrentRange(), registry, stats));
+        job.onFinish(finished -> {
+            getLogger().info("All spawners updated on startup (" + finished.total() +
+                    " chunks processed, " + finished.elapsedNanos() / 1_000_000L + " ms of tick time).");
+            if (debugMode) {
+                logDebug("Startup scan: " + finished.stats().summary());
+            }
+        });
+        updateScheduler.submit(job);
     }
 
-    private void startTPSMonitoring() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                double currentTPS = getTPS();
-                int newRange;
-
-                if (currentTPS <= tpsThresholdLow) {
-                    newRange = spawnerRangeLow;
-                    logDebug("TPS below threshold (" + currentTPS + "). Setting spawner range to " + newRange);
-                } else if (currentTPS >= tpsThresholdHigh) {
-                    newRange = spawnerRangeHigh;
-                    logDebug("TPS above threshold (" + currentTPS + "). Setting spawner range to " + newRange);
-                } else {
-                    // TPS is between thresholds, maintain current range
-                    return;
+    // The registry saved on the last disable, or null for a full rescan. The file is consumed, so a
+    // crash later on can't leave an outdated registry behind for the next startup.
+    private SpawnerRegistryFile loadSpawnerRegistry() {
+        Path file = getDataFolder().toPath().resolve(REGISTRY_FILE);
+        if (!settings.persistRegistry() || !Files.exists(file)) {
+            return null;
+        }
+        try {
+            SpawnerRegistryFile registry = SpawnerRegistryFile.read(file);
+            getLogger().info("Loaded spawner registry: " + registry.spawnerCount() + " spawners in " + registry.chunkCount() + " known chunks");
+            return registry;
+        } catch (IOException e) {
+            getLogger().warning("Ignoring spawner registry (" + e.getMessage() + "), scanning all loaded chunks instead");
+            return null;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                getLogger().warning("Unable to delete " + REGISTRY_FILE + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Save the spawners of every processed chunk, including the chunks known to have none
+    private void saveSpawnerRegistry() {
+        Map<UUID, LongObjectHashMap<SpawnerRegistryFile.ChunkEntry>> worlds = new HashMap<>();
+        int spawners = 0;
+        synchronized (stateLock) {
+            for (UUID worldId : chunkStates.worldIds()) {
+                LongIntHashMap processed = chunkStates.chunks(worldId);
+                World world = Bukkit.getWorld(worldId);
+                SpawnerIndex.WorldSpawners indexed = world != null ? spawnerIndex.getWorld(world) : null;
+                LongObjectHashMap<SpawnerRegistryFile.ChunkEntry> chunks = new LongObjectHashMap<>(processed.size());
+                for (int slot = 0; slot < processed.capacity(); slot++) {
+                    if (!processed.isUsed(slot)) {
+                        continue;
+                    }
+                    long chunkKey = processed.keyAt(slot);
+                    SpawnerIndex.SpawnerChunk spawnerChunk = indexed != null ? indexed.getChunk(chunkKey) : null;
+                    if (spawnerChunk == null) {
+                        chunks.put(chunkKey, SpawnerRegistryFile.ChunkEntry.EMPTY);
+                        continue;
+                    }
+                    int size = spawnerChunk.size();
+                    SpawnerRegistryFile.ChunkEntry entry = SpawnerRegistryFile.ChunkEntry.ofSize(size);
+                    for (int i = 0; i < size; i++) {
+                        entry.blockKeys()[i] = spawnerChunk.blockKey(i);
+                        entry.flags()[i] = spawnerChunk.flags(i);
+                        entry.ranges()[i] = (short) spawnerChunk.range(i);
+                        entry.owners()[i] = ownerBudgets.nameOf(spawnerChunk.owner(i));
+                    }
+                    chunks.put(chunkKey, entry);
+                    spawners += size;
                 }
+                worlds.put(worldId, chunks);
+            }
+        }
+
+        try {
+            Files.createDirectories(getDataFolder().toPath());
+            SpawnerRegistryFile.write(getDataFolder().toPath().resolve(REGISTRY_FILE), worlds);
+            if (debugMode) {
+                logDebug("Saved spawner registry with " + spawners + " spawners");
+            }
+        } catch (IOException e) {
+            getLogger().warning("Unable to save spawner registry: " + e.getMessage());
+        }
+    }
 
-                // Skip if range hasn't changed
-                if (newRange == currentSpawnerRange) {
-                    logDebug("Spawner range already at " + newRange + ", skipping update");
-                    return;
+    private void startTPSMonitoring() {
+        if (rangeMonitor != null) {
+            rangeMonitor.cancel();
+        }
+        rangeMonitor = executor.runGlobalTimer(this::adjustRange, settings.updateIntervalTicks(), settings.updateIntervalTicks());
+    }
+
+    private void registerMetrics() {
+        metrics.addPassSource("chunk_load", chunkLoadStats);
+        metrics.addPassSource("lazy", lazyStats);
+        metrics.addPassSource("region", regionStats);
+        metrics.addPassSource("throttle", throttleStats);
+        metrics.addGauge("spawner_range", "Global spawner range currently applied", () -> currentSpawnerRange);
+        metrics.addGauge("tps", "Server TPS", tickSensor::getTps);
+        if (tickSensor.getSource() == TickSensor.Source.PAPER) {
+            metrics.addGauge("mspt_p95", "95th percentile tick time over the short window, in milliseconds",
+                    () -> tickSensor.shortWindow().p95());
+        }
+        metrics.addGauge("indexed_spawners", "Spawners in loaded chunks known to the plugin", () -> {
+            synchronized (stateLock) {
+                return spawnerIndex.spawnerCount();
+            }
+        });
+        metrics.addGauge("throttled_spawners", "Spawners currently throttled", activityTracker::throttledCount);
+        metrics.addGauge("owners_over_budget", "Spawner owners whose range is currently shrunk by their activation budget", () -> {
+            int shrunk = 0;
+            for (OwnerBudgets.Usage usage : ownerBudgets.usage()) {
+                if (usage.factorSteps() < EntityDensityTracker.FACTOR_STEPS) {
+                    shrunk++;
                 }
+            }
+            return shrunk;
+        });
+        metrics.addGauge("cluster_limited_spawners", "Spawners currently limited by their cluster's throttle",
+                clusterThrottle::throttledSpawners);
+        metrics.addGauge("load_score", "Combined load score of the last range decision, 0 while load signals are off", () -> {
+            LoadSignals signals = loadSignals;
+            return signals != null ? signals.getLastReading().score() : 0.0;
+        });
+    }
 
-                currentSpawnerRange = newRange;
+    // Formatting and writing happen off the main thread; the timer only hands the work over
+    private void scheduleMetricsExport(PluginSettings.MetricsSettings settings) {
+        if (metricsExport != null) {
+            metricsExport.cancel();
+            metricsExport = null;
+        }
+        String fileName = settings.prometheusFile();
+        if (fileName == null || fileName.isBlank()) {
+            return;
+        }
+        Path file = getDataFolder().toPath().resolve(fileName);
+        long interval = settings.writeIntervalSeconds() * 20L;
+        metricsExport = executor.runGlobalTimer(() -> executor.runAsync(() -> {
+            try {
+                Files.createDirectories(file.getParent());
+                metrics.writePrometheus(file);
+            } catch (IOException e) {
+                getLogger().warning("Unable to write metrics to " + file + ": " + e.getMessage());
+            }
+        }), interval, interval);
+    }
+
+    // Runs every update interval on the main thread (the global region on regionized servers)
+    private void adjustRange() {
+        monitorPasses++;
+        if (regionRanges != null) {
+            adjustRegionRanges();
+            if (settings.lazyRangeApplication()) {
+                reconcileIdlePlayers();
+            }
+            applyDensityChanges();
+            governOwnerBudgets(regionRanges.lowestTps());
+            governClusters(regionRanges.lowestTps());
+            governSpawnerActivity();
+            return;
+        }
 
-                // Update spawners in chunks based on configuration
-                updateAllSpawners(newRange);
+        double currentTPS = tickSensor.getControlTps();
+        metrics.tps.record(currentTPS);
+        if (settings.forecast().enabled()) {
+            // Act on where load is heading if the trend is significant; once it is stable again the
+            // measured TPS takes over and ranges are restored
+            LoadForecaster.Forecast forecast = loadForecaster.forecast();
+            if (debugMode) {
+                logDebug("Load forecast (" + (int) loadForecaster.getHorizonSeconds() + "s): " + forecast.describe());
             }
-        }.runTaskTimer(this, updateIntervalTicks, updateIntervalTicks);
+            currentTPS = LoadForecaster.decisionTps(currentTPS, forecast);
+        }
+        if (loadSignals != null) {
+            LoadSignals.Reading reading = loadSignals.sample(currentTPS, System.currentTimeMillis());
+            if (debugMode) {
+                logDebug("Load signals: " + reading.describe());
+            }
+            currentTPS = reading.decisionTps();
+        }
+        int previousRange = getCurrentRange();
+        int newRange = rangeGovernor.nextRange(currentTPS, previousRange, System.currentTimeMillis());
+
+        // Skip if the (quantized, rate-limited) range hasn't changed
+        if (newRange == previousRange) {
+            if (debugMode) {
+                logDebug("TPS " + String.format("%.2f", currentTPS) + ", spawner range stays at " + newRange);
+            }
+        } else {
+            if (debugMode) {
+                logDebug("TPS " + String.format("%.2f", currentTPS) + ". Changing spawner range from " + previousRange + " to " + newRange);
+            }
+            metrics.rangeTransitions.increment();
+            currentSpawnerRange = newRange;
+            spawnerUpdater.advanceRangeGeneration();
+
+            // Update spawners in chunks based on configuration; in lazy mode the new
+            // generation is all that's needed, spawners catch up as players approach them
+            if (!settings.lazyRangeApplication()) {
+                spawnerUpdater.planRangeUpdate(newRange);
+            }
+        }
+
+        if (settings.lazyRangeApplication()) {
+            reconcileIdlePlayers();
+        }
+        applyDensityChanges();
+        governOwnerBudgets(currentTPS);
+        governClusters(currentTPS);
+        governSpawnerActivity();
     }
 
-    private void updateAllSpawners(int newRange) {
-        if (onlyUpdateNearPlayers) {
-            // Only update chunks near players
-            Set<Long> processedChunkKeys = new HashSet<>();
+    // Regionized servers: every region section follows its own TPS. Spawner chunks of sections whose
+    // range changed are updated on the owning region's thread, so regions apply updates in parallel.
+    private void adjustRegionRanges() {
+        long now = System.currentTimeMillis();
+        metrics.tps.record(regionRanges.lowestTps());
+        int pass = regionRanges.beginPass();
+        List<SpawnerChunkRef> changed = new ArrayList<>();
+        for (SpawnerChunkRef target : spawnerUpdater.collectTargetChunks()) {
+            int chunkX = BlockKeys.chunkX(target.chunk().chunkKey());
+            int chunkZ = BlockKeys.chunkZ(target.chunk().chunkKey());
+            if (regionRanges.evaluate(target.world(), chunkX, chunkZ, getCurrentRange(), now).changedIn(pass)) {
+                changed.add(target);
+            }
+        }
+        if (debugMode) {
+            logDebug("Region ranges: " + regionRanges.summary() + ", " + changed.size() + " spawner chunks in changed sections");
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        // Chunks of unchanged sections are re-stamped whenever they are next touched, which writes nothing
+        spawnerUpdater.advanceRangeGeneration();
+        if (!settings.lazyRangeApplication()) {
+            dispatchToRegions(changed);
+        }
+    }
 
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                World world = player.getWorld();
+    // Re-apply ranges to the spawner chunks of cells whose entity density moved their range factor.
+    // Their stamps are dropped so they are processed even though the range generation didn't change.
+    private void applyDensityChanges() {
+        List<EntityDensityTracker.Cell> cells = densityTracker.drainChanged();
+        if (cells.isEmpty()) {
+            return;
+        }
 
-                // Skip disabled worlds
-                if (disabledWorlds.contains(world.getName())) {
+        List<SpawnerChunkRef> targets = new ArrayList<>();
+        int cellSize = 1 << EntityDensityTracker.CELL_SHIFT;
+        synchronized (stateLock) {
+            for (EntityDensityTracker.Cell cell : cells) {
+                World world = Bukkit.getWorld(cell.worldId());
+                if (world == null || settings.isDisabled(world.getName())) {
                     continue;
                 }
-
-                Chunk centerChunk = player.getLocation().getChunk();
-
-                for (int dx = -playerChunkRadius; dx <= playerChunkRadius; dx++) {
-                    for (int dz = -playerChunkRadius; dz <= playerChunkRadius; dz++) {
-                        // Skip chunks outside circular radius
-                        if (dx*dx + dz*dz > playerChunkRadius*playerChunkRadius) {
-                            continue;
+                SpawnerIndex.WorldSpawners spawners = spawnerIndex.getWorld(world);
+                if (spawners == null) {
+                    continue;
+                }
+                for (int dx = 0; dx < cellSize; dx++) {
+                    for (int dz = 0; dz < cellSize; dz++) {
+                        int chunkX = (cell.cellX() << EntityDensityTracker.CELL_SHIFT) + dx;
+                        int chunkZ = (cell.cellZ() << EntityDensityTracker.CELL_SHIFT) + dz;
+                        SpawnerIndex.SpawnerChunk spawnerChunk = spawners.getChunk(BlockKeys.chunkKey(chunkX, chunkZ));
+                        if (spawnerChunk != null) {
+                            chunkStates.evict(world, chunkX, chunkZ);
+                            targets.add(new SpawnerChunkRef(world, spawnerChunk));
                         }
+                    }
+                }
+            }
+        }
+        if (debugMode) {
+            logDebug("Entity density changed in " + cells.size() + " cells, " + targets.size() + " spawner chunks affected");
+        }
+        reapplyChunks(UpdateJob.Kind.DENSITY_UPDATE, "density update", targets);
+    }
 
-                        int x = centerChunk.getX() + dx;
-                        int z = centerChunk.getZ() + dz;
-
-                        // Create a unique key for this chunk to avoid processing duplicates
-                        long chunkKey = (((long)world.hashCode()) << 32) | ((x & 0xFFFFFFFFL) << 16) | (z & 0xFFFFFFFFL);
+    // Tally every owner's spawners and, while the server is loaded, shrink the ranges of owners over
+    // their activation budget. Spawner chunks of owners whose factor changed are re-applied.
+    private void governOwnerBudgets(double tps) {
+        if (!ownerBudgets.isEnabled() && !ownerBudgets.isShrinking()) {
+            enforcingBudgets = false;
+            return;
+        }
+        // Once enforcing, keep going until TPS is back above the recovery threshold
+        enforcingBudgets = ownerBudgets.isEnabled() && tps < (enforcingBudgets ? settings.ownerBudget().tpsRecover() : settings.ownerBudget().tpsBelow());
+        // Demand is tallied from the ranges in the index, so wait until the last factors are applied
+        if (budgetUpdate != null && !budgetUpdate.isDone()) {
+            return;
+        }
 
-                        if (processedChunkKeys.add(chunkKey)) {
-                            if (world.isChunkLoaded(x, z)) {
-                                Chunk chunk = world.getChunkAt(x, z);
-                                updateSpawnersInChunk(chunk, newRange);
-                            }
+        OwnerBudgets.Tally tally = ownerBudgets.newTally();
+        synchronized (stateLock) {
+            for (SpawnerIndex.WorldSpawners spawners : spawnerIndex.worlds()) {
+                LongObjectHashMap<SpawnerIndex.SpawnerChunk> chunks = spawners.chunks();
+                for (int slot = 0; slot < chunks.capacity(); slot++) {
+                    SpawnerIndex.SpawnerChunk spawnerChunk = chunks.valueAt(slot);
+                    if (spawnerChunk != null) {
+                        for (int i = 0; i < spawnerChunk.size(); i++) {
+                            tally.add(spawnerChunk.owner(i), spawnerChunk.range(i));
                         }
                     }
                 }
             }
+        }
+        BitSet changed = ownerBudgets.update(tally, getCurrentRange(), enforcingBudgets);
+        if (changed.isEmpty()) {
+            return;
+        }
 
-            logDebug("Updated spawners in " + processedChunkKeys.size() + " chunks near players");
-        } else {
-            // Update all loaded chunks
-            int count = 0;
-            for (World world : Bukkit.getWorlds()) {
-                if (disabledWorlds.contains(world.getName())) {
+        List<SpawnerChunkRef> targets = new ArrayList<>();
+        synchronized (stateLock) {
+            for (SpawnerIndex.WorldSpawners spawners : spawnerIndex.worlds()) {
+                World world = Bukkit.getWorld(spawners.worldId());
+                if (world == null || settings.isDisabled(world.getName())) {
                     continue;
                 }
+                LongObjectHashMap<SpawnerIndex.SpawnerChunk> chunks = spawners.chunks();
+                for (int slot = 0; slot < chunks.capacity(); slot++) {
+                    SpawnerIndex.SpawnerChunk spawnerChunk = chunks.valueAt(slot);
+                    if (spawnerChunk == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < spawnerChunk.size(); i++) {
+                        if (changed.get(spawnerChunk.owner(i))) {
+                            int chunkX = BlockKeys.chunkX(spawnerChunk.chunkKey());
+                            int chunkZ = BlockKeys.chunkZ(spawnerChunk.chunkKey());
+                            chunkStates.evict(world, chunkX, chunkZ);
+                            targets.add(new SpawnerChunkRef(world, spawnerChunk));
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        if (debugMode) {
+            logDebug("TPS " + String.format("%.2f", tps) + ": budget factor of " + changed.cardinality() + " owners changed ("
+                    + ownerBudgets.summary() + "), " + targets.size() + " spawner chunks affected");
+        }
+        budgetUpdate = reapplyChunks(UpdateJob.Kind.BUDGET_UPDATE, "owner budget update", targets);
+    }
 
-                for (Chunk chunk : world.getLoadedChunks()) {
-                    updateSpawnersInChunk(chunk, newRange);
-                    count++;
+    // While the server is loaded, limit dense spawner clusters as a whole. Only chunks holding
+    // spawners whose limit changed are re-applied, so a steady throttle writes nothing.
+    private void governClusters(double tps) {
+        // Free the nodes of removed spawners whether or not the clusters are read this interval
+        synchronized (stateLock) {
+            for (SpawnerIndex.WorldSpawners spawners : spawnerIndex.worlds()) {
+                SpawnerClusters clusters = spawners.clusters();
+                if (clusters != null) {
+                    clusters.settle();
                 }
             }
-            logDebug("Updated spawners in all " + count + " loaded chunks");
         }
+        if (!clusterThrottle.isEnabled() && !clusterThrottle.isThrottling()) {
+            throttlingClusters = false;
+            return;
+        }
+        // Once throttling, keep going until TPS is back above the recovery threshold
+        throttlingClusters = clusterThrottle.isEnabled() && tps < (throttlingClusters ? settings.clusters().tpsRecover() : settings.clusters().tpsBelow());
+
+        ClusterThrottle.Limits limits = clusterThrottle.newLimits();
+        if (throttlingClusters) {
+            synchronized (stateLock) {
+                for (SpawnerIndex.WorldSpawners spawners : spawnerIndex.worlds()) {
+                    SpawnerClusters clusters = spawners.clusters();
+                    if (clusters != null) {
+                        clusters.forEachCluster(clusterThrottle.getMinSize(),
+                                (blockKeys, size) -> clusterThrottle.limit(spawners.worldId(), blockKeys, size, limits));
+                    }
+                }
+            }
+        }
+        List<SpawnerChunkRef> targets = publishClusterLimits(limits);
+        if (debugMode && !targets.isEmpty()) {
+            logDebug("TPS " + String.format("%.2f", tps) + ": " + clusterThrottle.summary() + ", "
+                    + targets.size() + " spawner chunks affected");
+        }
+        reapplyChunks(UpdateJob.Kind.CLUSTER_UPDATE, "cluster throttle update", targets);
     }
 
-    // Get server TPS (Ticks Per Second)
-    private double getTPS() {
-        if (isPaper) {
-            try {
-                // Use Paper's getTPS method (available in modern Paper versions)
-                Method getTpsMethod = Bukkit.getServer().getClass().getMethod("getTPS");
-                double[] tps = (double[]) getTpsMethod.invoke(Bukkit.getServer());
-                return tps[0]; // Get the 1-minute TPS average
-            } catch (Exception e) {
-                logDebug("Failed to get TPS via Paper's getTPS method: " + e.getMessage());
+    // Publish new cluster limits; returns the spawner chunks whose limits changed, with their stamps dropped
+    private List<SpawnerChunkRef> publishClusterLimits(ClusterThrottle.Limits limits) {
+        List<SpawnerChunkRef> targets = new ArrayList<>();
+        synchronized (stateLock) {
+            for (Map.Entry<UUID, LongIntHashMap> changed : clusterThrottle.publish(limits).entrySet()) {
+                World world = Bukkit.getWorld(changed.getKey());
+                SpawnerIndex.WorldSpawners spawners = world != null ? spawnerIndex.getWorld(world) : null;
+                if (spawners == null || settings.isDisabled(world.getName())) {
+                    continue;
+                }
+                LongIntHashMap chunkKeys = changed.getValue();
+                for (int slot = 0; slot < chunkKeys.capacity(); slot++) {
+                    SpawnerIndex.SpawnerChunk spawnerChunk = chunkKeys.isUsed(slot) ? spawners.getChunk(chunkKeys.keyAt(slot)) : null;
+                    if (spawnerChunk != null) {
+                        chunkStates.evict(world, BlockKeys.chunkX(spawnerChunk.chunkKey()), BlockKeys.chunkZ(spawnerChunk.chunkKey()));
+                        targets.add(new SpawnerChunkRef(world, spawnerChunk));
+                    }
+                }
             }
+        }
+        return targets;
+    }
 
-            try {
-                // Try Paper's getTickTimes method as fallback
-                Method getTickTimesMethod = Bukkit.getServer().getClass().getMethod("getTickTimes");
-                double[] tickTimes = (double[]) getTickTimesMethod.invoke(Bukkit.getServer());
+    // After a reload, bring only the spawners the changed settings affect in line, instead of
+    // rescanning everything. Settings read at each decision (range bounds, thresholds, throttles,
+    // budgets, tick budget) simply take effect at the next one. Returns what was re-applied.
+    private List<String> applySettingsChanges(PluginSettings previous, PluginSettings current) {
+        List<String> applied = new ArrayList<>();
+        if (previous.updateIntervalTicks() != current.updateIntervalTicks()) {
+            startTPSMonitoring();
+            applied.add("update interval now " + current.updateIntervalTicks() + " ticks");
+        }
+
+        // Spawners of newly disabled worlds go back to the vanilla range before the world is forgotten;
+        // newly enabled worlds get their loaded chunks scanned
+        List<Chunk> enabledChunks = new ArrayList<>();
+        for (World world : Bukkit.getWorlds()) {
+            boolean disabled = current.isDisabled(world.getName());
+            if (disabled == previous.isDisabled(world.getName())) {
+                continue;
+            }
+            if (disabled) {
+                applied.add(world.getName() + " disabled (" + resetDisabledWorld(world) + " chunks reset to the vanilla range)");
+            } else {
+                Collections.addAll(enabledChunks, world.getLoadedChunks());
+                applied.add(world.getName() + " enabled (" + world.getLoadedChunks().length + " chunks to scan)");
+            }
+        }
+        scanChunks(enabledChunks);
+
+        // Player-placed spawners get the range whatever the policy says, only natural ones can change
+        if (!previous.rangePolicy().equals(current.rangePolicy())) {
+            List<SpawnerChunkRef> targets = collectSpawnerChunks(false);
+            applied.add(targets.size() + " chunks with natural spawners re-applied");
+            reapplyChunks(UpdateJob.Kind.SETTINGS_UPDATE, "natural spawner update", targets);
+        }
 
-                // Calculate average MSPT from recent ticks
-                double mspt = Arrays.stream(tickTimes)
-                        .limit(100) // Use last 100 ticks
-                        .average()
-                        .orElse(50.0);
+        // The index holds owner ids of the old grouping; re-reading the owners keeps budgets from
+        // being tallied under a mix of player and team owners
+        if (previous.ownerBudget().groupByTeam() != current.ownerBudget().groupByTeam()) {
+            List<SpawnerChunkRef> targets = collectSpawnerChunks(true);
+            applied.add("owners regrouped by " + (current.ownerBudget().groupByTeam() ? "team" : "player")
+                    + " (" + targets.size() + " chunks with player-placed spawners re-read)");
+            reapplyChunks(UpdateJob.Kind.SETTINGS_UPDATE, "owner regrouping", targets);
+        }
 
-                // Convert MSPT to TPS (capped at 20)
-                return Math.min(20.0, 1000.0 / Math.max(mspt, 1.0));
-            } catch (Exception e) {
-                logDebug("Failed to get TPS via Paper's getTickTimes method: " + e.getMessage());
+        // Switching to eager application, or widening the chunks it covers, leaves spawners behind
+        // the current range; chunks that already have the current generation are skipped
+        boolean catchUp = !current.lazyRangeApplication() && (previous.lazyRangeApplication()
+                || previous.onlyUpdateNearPlayers() != current.onlyUpdateNearPlayers()
+                || previous.playerChunkRadius() != current.playerChunkRadius());
+        if (catchUp) {
+            // A new generation, or chunks stamped by the superseded plan would be skipped
+            spawnerUpdater.advanceRangeGeneration();
+            if (regionRanges != null) {
+                dispatchToRegions(spawnerUpdater.collectTargetChunks());
+            } else {
+                spawnerUpdater.planRangeUpdate(getCurrentRange());
             }
+            applied.add("range application caught up");
         }
 
-        // Fall back to reflection method for Spigot servers
-        try {
-            Object serverInstance = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
+        if (debugMode) {
+            logDebug("Config reloaded: " + (applied.isEmpty() ? "no spawners affected" : String.join(", ", applied)));
+        }
+        return applied;
+    }
 
-            // Try "recentTps" field first (older versions)
-            try {
-                Field tpsField = serverInstance.getClass().getField("recentTps");
-                double[] tps = (double[]) tpsField.get(serverInstance);
-                return tps[0];
-            } catch (NoSuchFieldException e) {
-                // Try alternative field names or methods for newer versions
-                try {
-                    Method getTpsMethod = serverInstance.getClass().getMethod("getTPS");
-                    double[] tps = (double[]) getTpsMethod.invoke(serverInstance);
-                    return tps[0];
-                } catch (Exception ex) {
-                    logDebug("Could not find TPS method in server instance");
+    // Forget a world that was just disabled, after queueing its loaded spawner chunks to get the vanilla
+    // range and their original settings back. Returns the number of chunks queued.
+    private int resetDisabledWorld(World world) {
+        List<SpawnerChunkRef> targets = new ArrayList<>();
+        synchronized (stateLock) {
+            SpawnerIndex.WorldSpawners spawners = spawnerIndex.getWorld(world);
+            if (spawners != null) {
+                LongObjectHashMap<SpawnerIndex.SpawnerChunk> chunks = spawners.chunks();
+                for (int slot = 0; slot < chunks.capacity(); slot++) {
+                    SpawnerIndex.SpawnerChunk spawnerChunk = chunks.valueAt(slot);
+                    if (spawnerChunk != null) {
+                        targets.add(new SpawnerChunkRef(world, spawnerChunk));
+                    }
                 }
             }
-        } catch (Exception ex) {
-            getLogger().warning("Failed to get server TPS: " + ex.getMessage());
+            spawnerIndex.removeWorld(world);
+            chunkStates.evictWorld(world);
+        }
+        if (targets.isEmpty()) {
+            return 0;
         }
 
-        // If all methods fail, return 20.0 as default
-        getLogger().warning("Unable to retrieve server TPS - defaulting to 20.0. Plugin may not adjust spawner ranges correctly.");
-        return 20.0;
+        if (executor.isRegionized()) {
+            for (SpawnerChunkRef target : targets) {
+                executor.runAtChunk(world, BlockKeys.chunkX(target.chunk().chunkKey()), BlockKeys.chunkZ(target.chunk().chunkKey()),
+                        () -> regionStats.record(stats -> resetChunk(target, stats)));
+            }
+            return targets.size();
+        }
+        UpdateJob<SpawnerChunkRef> job = new UpdateJob<>(UpdateJob.Kind.SETTINGS_UPDATE, "disabled world reset", targets,
+                this::resetChunk);
+        if (debugMode) {
+            job.onFinish(finished -> logDebug("Finished disabled world reset: " + finished.stats().summary()));
+        }
+        updateScheduler.submit(job);
+        return targets.size();
     }
 
-    // Update all spawners in a chunk with the given range
-    private void updateSpawnersInChunk(Chunk chunk, int range) {
-        // Skip if chunk is in a disabled world
-        if (disabledWorlds.contains(chunk.getWorld().getName())) {
+    // Vanilla range and original throttle settings for the managed spawners of a chunk that is no longer indexed
+    private void resetChunk(SpawnerChunkRef target, SpawnerPassStats stats) {
+        World world = target.world();
+        SpawnerIndex.SpawnerChunk spawnerChunk = target.chunk();
+        if (!world.isChunkLoaded(BlockKeys.chunkX(spawnerChunk.chunkKey()), BlockKeys.chunkZ(spawnerChunk.chunkKey()))) {
             return;
         }
+        stats.chunks++;
+        SpawnerRangePolicy policy = spawnerProcessor.getPolicy();
+        for (int i = 0; i < spawnerChunk.size(); i++) {
+            long blockKey = spawnerChunk.blockKey(i);
+            Block block = world.getBlockAt(BlockKeys.blockX(blockKey), BlockKeys.blockY(blockKey), BlockKeys.blockZ(blockKey));
+            if (block.getType() != Material.SPAWNER) {
+                continue;
+            }
+            CreatureSpawner spawner = spawnerUpdater.readSpawner(block, stats);
+            if (spawner == null) {
+                continue;
+            }
+            stats.spawners++;
+            if (spawnerThrottle.restore(spawner)) {
+                throttleStats.written.increment();
+            }
+            if (policy.targetRange(spawnerProcessor.isPlayerPlaced(spawner), SpawnerRangePolicy.VANILLA_SPAWNER_RANGE)
+                    != SpawnerRangePolicy.UNMANAGED) {
+                spawnerProcessor.applyRange(spawner, SpawnerRangePolicy.VANILLA_SPAWNER_RANGE, stats);
+            }
+        }
+    }
 
-        // Create a unique key for this chunk
-        long chunkKey = (((long)chunk.getWorld().hashCode()) << 32) | ((chunk.getX() & 0xFFFFFFFFL) << 16) | (chunk.getZ() & 0xFFFFFFFFL);
-
-        // Skip if recently processed to avoid unnecessary work
-        if (recentlyProcessedChunks.contains(chunkKey)) {
+    // Scan already loaded chunks, on the budgeted scheduler or on the owning regions
+    private void scanChunks(List<Chunk> chunks) {
+        if (chunks.isEmpty()) {
             return;
         }
+        if (executor.isRegionized()) {
+            for (Chunk chunk : chunks) {
+                World world = chunk.getWorld();
+                executor.runAtChunk(world, chunk.getX(), chunk.getZ(), () -> regionStats.record(stats ->
+                        spawnerUpdater.updateLoadedChunk(chunk, getRangeAt(world, chunk.getX(), chunk.getZ()), stats)));
+            }
+            return;
+        }
+        UpdateJob<Chunk> job = new UpdateJob<>(UpdateJob.Kind.SETTINGS_UPDATE, "enabled world scan", chunks,
+                (chunk, stats) -> spawnerUpdater.updateLoadedChunk(chunk, getCurrentRange(), stats));
+        if (debugMode) {
+            job.onFinish(finished -> logDebug("Finished enabled world scan: " + finished.stats().summary()));
+        }
+        updateScheduler.submit(job);
+    }
 
-        recentlyProcessedChunks.add(chunkKey);
-
-        if (isPaper) {
-            // Paper-specific async chunk loading if needed
-            CompletableFuture<Chunk> futureChunk = CompletableFuture.completedFuture(chunk);
-
-            // If the chunk isn't loaded, load it asynchronously (Paper API)
-            if (!chunk.isLoaded()) {
-                try {
-                    Method getChunkAtAsyncMethod = chunk.getWorld().getClass().getMethod("getChunkAtAsync", int.class, int.class);
-                    //noinspection unchecked
-                    futureChunk = (CompletableFuture<Chunk>) getChunkAtAsyncMethod.invoke(chunk.getWorld(), chunk.getX(), chunk.getZ());
-                } catch (Exception e) {
-                    logDebug("Failed to use Paper's async chunk loading: " + e.getMessage());
-                }
-            }
-
-            // Process the chunk when it's available
-            futureChunk.thenAccept(loadedChunk -> {
-                if (loadedChunk != null && loadedChunk.isLoaded()) {
-                    // We need to run on the main thread for block state updates
-                    Bukkit.getScheduler().runTask(this, () -> {
-                        int count = 0;
-                        for (BlockState blockState : loadedChunk.getTileEntities()) {
-                            if (blockState.getType() == Material.SPAWNER) {
-                                if (processSpawner(blockState.getBlock(), range)) {
-                                    count++;
-                                }
-                            }
-                        }
-                        if (count > 0 && debugMode) {
-                            getLogger().info("Updated " + count + " spawners in chunk " +
-                                    loadedChunk.getWorld().getName() + " [" + loadedChunk.getX() + "," + loadedChunk.getZ() + "]");
-                        }
-                    });
+    // Indexed chunks holding spawners that were (or weren't) placed by players, with their stamps dropped
+    private List<SpawnerChunkRef> collectSpawnerChunks(boolean playerPlaced) {
+        List<SpawnerChunkRef> targets = new ArrayList<>();
+        synchronized (stateLock) {
+            for (World world : Bukkit.getWorlds()) {
+                SpawnerIndex.WorldSpawners spawners = spawnerIndex.getWorld(world);
+                if (spawners == null || settings.isDisabled(world.getName())) {
+                    continue;
                 }
-            });
-        } else {
-            // Standard Bukkit/Spigot approach
-            int count = 0;
-            for (BlockState blockState : chunk.getTileEntities()) {
-                if (blockState.getType() == Material.SPAWNER) {
-                    if (processSpawner(blockState.getBlock(), range)) {
-                        count++;
+                LongObjectHashMap<SpawnerIndex.SpawnerChunk> chunks = spawners.chunks();
+                for (int slot = 0; slot < chunks.capacity(); slot++) {
+                    SpawnerIndex.SpawnerChunk spawnerChunk = chunks.valueAt(slot);
+                    if (spawnerChunk == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < spawnerChunk.size(); i++) {
+                        if (spawnerChunk.isPlayerPlaced(i) == playerPlaced) {
+                            chunkStates.evict(world, BlockKeys.chunkX(spawnerChunk.chunkKey()), BlockKeys.chunkZ(spawnerChunk.chunkKey()));
+                            targets.add(new SpawnerChunkRef(world, spawnerChunk));
+                            break;
+                        }
                     }
                 }
             }
-
-            if (count > 0 && debugMode) {
-                getLogger().info("Updated " + count + " spawners in chunk " +
-                        chunk.getWorld().getName() + " [" + chunk.getX() + "," + chunk.getZ() + "]");
-            }
         }
+        return targets;
     }
 
-    // Process individual spawner - extracted to avoid duplicate code
-    // Returns true if spawner was updated
-    private boolean processSpawner(Block block, int range) {
-        // Check if this is a player-placed spawner or if we should update it
-        boolean shouldUpdate = isPlayerPlacedOrUpdateable(block);
-
-        if (shouldUpdate) {
-            updateSpawnerRange(block, range);
-            return true;
-        } else if (!affectNaturallyGenerated) {
-            // If not a player-placed spawner and we shouldn't affect naturally generated ones,
-            // reset to vanilla range (16)
-            updateSpawnerRange(block, 16);
-            return true;
+    // Re-apply the current range to the spawners of the given chunks, whose stamps were dropped
+    // Returns the queued job, or null if nothing was queued (no targets, or dispatched to regions)
+    private UpdateJob<SpawnerChunkRef> reapplyChunks(UpdateJob.Kind kind, String name, List<SpawnerChunkRef> targets) {
+        if (targets.isEmpty()) {
+            return null;
         }
 
-        return false;
+        if (regionRanges != null) {
+            dispatchToRegions(targets);
+            return null;
+        }
+        UpdateJob<SpawnerChunkRef> job = new UpdateJob<>(kind, name, targets,
+                (target, stats) -> spawnerUpdater.updateIndexedSpawners(target.world(), target.chunk(), getCurrentRange(), stats));
+        if (debugMode) {
+            job.onFinish(finished -> logDebug("Finished " + name + ": " + finished.stats().summary()));
+        }
+        updateScheduler.submit(job);
+        return job;
     }
 
-    // Check if a spawner is player-placed or if we should update it based on config
-    private boolean isPlayerPlacedOrUpdateable(Block block) {
-        // Get the block's PersistentDataContainer from its BlockState
-        BlockState state = block.getState();
-        if (state instanceof CreatureSpawner) {
-            CreatureSpawner spawner = (CreatureSpawner) state;
-            PersistentDataContainer pdc = spawner.getPersistentDataContainer();
+    // Throttle the busiest spawners while the server is overloaded, restore them once it recovers
+    private void governSpawnerActivity() {
+        double tps = regionRanges != null ? regionRanges.lowestTps() : tickSensor.getControlTps();
+        // Once throttling, keep going until TPS is back above the recovery threshold
+        throttling = settings.throttle().enabled() && tps < (throttling ? settings.throttle().tpsRecover() : settings.throttle().tpsBelow());
 
-            // Check if the spawner has our player-placed marker using cached key
-            if (pdc.has(playerPlacedKey, PersistentDataType.INTEGER)) {
-                return true;
+        SpawnerActivityTracker.Selection selection = activityTracker.select(throttling, settings.throttle().topPercent(),
+                settings.throttle().minSpawnsPerMinute(), System.currentTimeMillis());
+        for (SpawnerActivityTracker.Entry entry : selection.restore()) {
+            updateThrottle(entry, false);
+        }
+        for (SpawnerActivityTracker.Entry entry : selection.throttle()) {
+            updateThrottle(entry, true);
+        }
+        if (debugMode && (!selection.throttle().isEmpty() || !selection.restore().isEmpty())) {
+            logDebug("TPS " + String.format("%.2f", tps) + ": throttling " + selection.throttle().size()
+                    + " more spawners, restoring " + selection.restore().size());
+        }
+    }
+
+    // Apply or lift the throttle on one spawner, on the thread owning its chunk. Spawners in
+    // unloaded chunks are throttled or restored when the chunk is next scanned.
+    private void updateThrottle(SpawnerActivityTracker.Entry entry, boolean throttle) {
+        World world = Bukkit.getWorld(entry.worldId());
+        if (world == null || (throttle && settings.isDisabled(world.getName()))) {
+            return;
+        }
+        int x = BlockKeys.blockX(entry.blockKey());
+        int y = BlockKeys.blockY(entry.blockKey());
+        int z = BlockKeys.blockZ(entry.blockKey());
+        executor.runAtChunk(world, x >> 4, z >> 4, () -> {
+            if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+                return;
+            }
+            Block block = world.getBlockAt(x, y, z);
+            if (block.getType() != Material.SPAWNER) {
+                return;
+            }
+            SpawnerPassStats stats = new SpawnerPassStats();
+            CreatureSpawner spawner = spawnerUpdater.readSpawner(block, stats);
+            if (spawner != null && (throttle ? spawnerThrottle.apply(spawner) : spawnerThrottle.restore(spawner))) {
+                stats.written++;
+                // Saved with the registry, so a restart scans this chunk instead of reconciling it
+                synchronized (stateLock) {
+                    spawnerIndex.recordThrottled(world, entry.blockKey(), throttle);
+                }
             }
+            throttleStats.add(stats);
+        });
+    }
 
-            // If updatePreexistingSpawners is true, we'll treat all spawners as updateable
-            return updatePreexistingSpawners;
+    // Update spawner chunks on their owning regions, each with its region's current range
+    private void dispatchToRegions(List<SpawnerChunkRef> targets) {
+        for (SpawnerChunkRef target : targets) {
+            World world = target.world();
+            int chunkX = BlockKeys.chunkX(target.chunk().chunkKey());
+            int chunkZ = BlockKeys.chunkZ(target.chunk().chunkKey());
+            executor.runAtChunk(world, chunkX, chunkZ, () -> regionStats.record(stats ->
+                    spawnerUpdater.updateIndexedSpawners(world, target.chunk(), getRangeAt(world, chunkX, chunkZ), stats)));
         }
-        return false;
+    }
+
+    // Catch up on throttle changes selected while the spawner's chunk was unloaded or the plugin was
+    // down: apply throttles that started and lift the ones that ended. Returns whether it's throttled now.
+    private boolean catchUpThrottle(UUID worldId, CreatureSpawner spawner, long blockKey) {
+        boolean selected = activityTracker.isThrottled(worldId, blockKey);
+        if (selected != spawnerThrottle.isThrottled(spawner)
+                && (selected ? spawnerThrottle.apply(spawner) : spawnerThrottle.restore(spawner))) {
+            throttleStats.written.increment();
+        }
+        return selected;
     }
 
     // Update spawner when a chunk is loaded
     @EventHandler
     public void onChunkLoad(ChunkLoadEvent event) {
         // Skip if in a disabled world
-        if (disabledWorlds.contains(event.getWorld().getName())) {
+        if (settings.isDisabled(event.getWorld().getName())) {
             return;
         }
 
-        // Use current range or initial range if current not set yet
-        int range = currentSpawnerRange >= 0 ? currentSpawnerRange : initialSpawnerRange;
+        // Use current range or initial range if current not set yet (the region's range on regionized servers)
+        Chunk chunk = event.getChunk();
+        int range = getRangeAt(event.getWorld(), chunk.getX(), chunk.getZ());
 
         // For Paper servers, consider using AsyncChunkLoadEvent instead
-        if (isPaper) {
-            try {
-                // Dynamically check if we can use Paper's AsyncChunkLoadEvent
-                Class<?> asyncEventClass = Class.forName("io.papermc.paper.event.world.AsyncChunkLoadEvent");
-                if (asyncEventClass.isInstance(event)) {
-                    // This is an async event, schedule spawner updates on the main thread
-                    Bukkit.getScheduler().runTask(this, () -> updateSpawnersInChunk(event.getChunk(), range));
-                    return;
-                }
-            } catch (ClassNotFoundException ignored) {
-                // Paper's AsyncChunkLoadEvent not available, continue with normal handling
-            }
+        // (class resolved once in onEnable, null if this server doesn't have it)
+        if (asyncChunkLoadEventClass != null && asyncChunkLoadEventClass.isInstance(event)) {
+            // This is an async event, schedule spawner updates on the thread owning the chunk
+            executor.runAtChunk(event.getWorld(), chunk.getX(), chunk.getZ(),
+                    () -> chunkLoadStats.record(stats -> spawnerUpdater.updateLoadedChunk(chunk, range, stats)));
+            return;
         }
 
-        // Normal handling for Bukkit/Spigot or older Paper versions
-        updateSpawnersInChunk(event.getChunk(), range);
+        // Normal handling: the chunk is loaded and we're on the main thread, so scan it right away
+        chunkLoadStats.record(stats -> spawnerUpdater.updateLoadedChunk(chunk, range, stats));
     }
 
-    // Update spawner when a player places one and mark it as player-placed
-    @EventHandler
+    // Update spawner when a player places one and mark it as player-placed. Runs after protection
+    // plugins, so a cancelled placement never reaches the index or an owner's budget.
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onSpawnerPlace(BlockPlaceEvent event) {
         if (event.getBlock().getType() == Material.SPAWNER) {
             // Skip if in a disabled world
-            if (disabledWorlds.contains(event.getBlock().getWorld().getName())) {
+            if (settings.isDisabled(event.getBlock().getWorld().getName())) {
                 return;
             }
 
@@ -474,16 +1142,25 @@ public class AdaptiveRangeMobSpawner extends JavaPlugin implements Listener {
             if (state instanceof CreatureSpawner) {
                 CreatureSpawner spawner = (CreatureSpawner) state;
 
-                // Store a marker in the PersistentDataContainer using cached key
+                // Store a marker and the placer in the PersistentDataContainer using cached keys
+                Player player = event.getPlayer();
+                Team team = Bukkit.getScoreboardManager().getMainScoreboard().getEntryTeam(player.getName());
                 PersistentDataContainer pdc = spawner.getPersistentDataContainer();
                 pdc.set(playerPlacedKey, PersistentDataType.INTEGER, 1);
+                spawnerProcessor.setOwner(spawner, player.getUniqueId(), team != null ? team.getName() : null);
+                int owner = spawnerProcessor.ownerOf(spawner);
+
+                // Use current range or initial range if current not set yet, and set it on the
+                // same state so a single update() writes everything
+                int range = densityTracker.scale(block.getWorld().getUID(), block.getX() >> 4, block.getZ() >> 4,
+                        getRangeAt(block.getWorld(), block.getX() >> 4, block.getZ() >> 4));
+                range = EntityDensityTracker.scale(range, ownerBudgets.factorSteps(owner));
+                spawner.setRequiredPlayerRange(range);
                 spawner.update();
 
-                // Use current range or initial range if current not set yet
-                int range = currentSpawnerRange >= 0 ? currentSpawnerRange : initialSpawnerRange;
-
-                // Now update the range
-                updateSpawnerRange(block, range);
+                synchronized (stateLock) {
+                    spawnerIndex.add(block.getWorld(), block.getX(), block.getY(), block.getZ(), SpawnerIndex.FLAG_PLAYER_PLACED, range, owner);
+                }
 
                 if (debugMode) {
                     getLogger().info("Player " + event.getPlayer().getName() +
@@ -495,19 +1172,202 @@ public class AdaptiveRangeMobSpawner extends JavaPlugin implements Listener {
         }
     }
 
-    // Helper method to update a spawner's required player range
-    private void updateSpawnerRange(Block block, int range) {
+    // Count spawns per spawner for throttling and the top command
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSpawnerSpawn(SpawnerSpawnEvent event) {
+        CreatureSpawner spawner = event.getSpawner();
+        if (spawner == null || settings.isDisabled(spawner.getWorld().getName())) {
+            return;
+        }
+        activityTracker.recordSpawn(spawner.getWorld().getUID(),
+                BlockKeys.blockKey(spawner.getX(), spawner.getY(), spawner.getZ()), System.currentTimeMillis());
+    }
+
+    // Lazy mode: bring spawners up to date when a player crosses into a new chunk
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        if (!settings.lazyRangeApplication()) {
+            return;
+        }
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null || ((from.getBlockX() >> 4) == (to.getBlockX() >> 4)
+                && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)
+                && from.getWorld() == to.getWorld())) {
+            return;
+        }
+        reconcileAround(event.getPlayer(), to);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        if (settings.lazyRangeApplication() && event.getTo() != null) {
+            reconcileAround(event.getPlayer(), event.getTo());
+        }
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        if (settings.lazyRangeApplication()) {
+            reconcileAround(event.getPlayer(), event.getPlayer().getLocation());
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        reconciledGenerations.remove(event.getPlayer().getUniqueId());
+    }
+
+    // Players standing still never cross a chunk boundary, so catch up the ones that haven't for
+    // lazy-idle-intervals monitor intervals. Moving players catch up by themselves, so a range change
+    // costs nothing up front; the idle ones go through the budgeted scheduler (their own regions on
+    // regionized servers) instead of all at once.
+    private void reconcileIdlePlayers() {
+        long pass = monitorPasses;
+        int generation = spawnerUpdater.rangeGeneration();
+        List<SpawnerChunkRef> targets = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Reconciled reconciled = reconciledGenerations.get(player.getUniqueId());
+            if (reconciled != null && (reconciled.generation() == generation
+                    || pass - reconciled.pass() < settings.lazyIdleIntervals())) {
+                continue;
+            }
+            if (executor.isRegionized()) {
+                executor.runForPlayer(player, () -> reconcileAround(player, player.getLocation()));
+                continue;
+            }
+            reconciledGenerations.put(player.getUniqueId(), new Reconciled(generation, pass));
+            collectAround(player.getLocation(), targets);
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+        // Chunks near several players are queued once per player; updateIndexedSpawners skips repeats
+        UpdateJob<SpawnerChunkRef> job = new UpdateJob<>(UpdateJob.Kind.LAZY_CATCH_UP, "idle player catch-up", targets,
+                (target, stats) -> spawnerUpdater.updateIndexedSpawners(target.world(), target.chunk(), getCurrentRange(), stats));
+        job.onFinish(finished -> {
+            lazyStats.add(finished.stats());
+            if (debugMode) {
+                logDebug("Finished idle player catch-up: " + finished.stats().summary());
+            }
+        });
+        updateScheduler.submit(job);
+    }
+
+    // Indexed spawner chunks within the activation radius of a location
+    private void collectAround(Location location, List<SpawnerChunkRef> targets) {
+        World world = location.getWorld();
+        if (world == null || settings.isDisabled(world.getName())) {
+            return;
+        }
+        List<SpawnerIndex.SpawnerChunk> nearby = new ArrayList<>();
+        synchronized (stateLock) {
+            SpawnerIndex.WorldSpawners spawners = spawnerIndex.getWorld(world);
+            if (spawners == null) {
+                return;
+            }
+            long[] center = {BlockKeys.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4)};
+            spawners.collectNear(center, 1, settings.lazyActivationRadius(), nearby);
+        }
+        for (SpawnerIndex.SpawnerChunk spawnerChunk : nearby) {
+            targets.add(new SpawnerChunkRef(world, spawnerChunk));
+        }
+    }
+
+    // Apply the current range to indexed spawner chunks within the activation radius of a location.
+    // Chunks already stamped with the current generation are skipped by updateIndexedSpawners.
+    private void reconcileAround(Player player, Location location) {
+        reconciledGenerations.put(player.getUniqueId(), new Reconciled(spawnerUpdater.rangeGeneration(), monitorPasses));
+
+        // Collected under the lock, then processed on this thread, which owns the player's surroundings
+        List<SpawnerChunkRef> nearby = new ArrayList<>();
+        collectAround(location, nearby);
+        SpawnerPassStats stats = new SpawnerPassStats();
+        for (SpawnerChunkRef target : nearby) {
+            World world = target.world();
+            int range = getRangeAt(world, BlockKeys.chunkX(target.chunk().chunkKey()), BlockKeys.chunkZ(target.chunk().chunkKey()));
+            spawnerUpdater.updateIndexedSpawners(world, target.chunk(), range, stats);
+        }
+        lazyStats.add(stats);
+    }
+
+    // Drop broken spawners from the index
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSpawnerBreak(BlockBreakEvent event) {
+        Block block = event.getBlock();
         if (block.getType() == Material.SPAWNER) {
-            CreatureSpawner spawner = (CreatureSpawner) block.getState();
+            synchronized (stateLock) {
+                spawnerIndex.remove(block.getWorld(), block.getX(), block.getY(), block.getZ());
+            }
+        }
+    }
 
-            // Only update if the range is different
-            if (spawner.getRequiredPlayerRange() != range) {
-                spawner.setRequiredPlayerRange(range);
-                spawner.update();
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        removeExplodedSpawners(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        removeExplodedSpawners(event.blockList());
+    }
+
+    private void removeExplodedSpawners(List<Block> blocks) {
+        for (Block block : blocks) {
+            if (block.getType() == Material.SPAWNER) {
+                synchronized (stateLock) {
+                    spawnerIndex.remove(block.getWorld(), block.getX(), block.getY(), block.getZ());
+                }
             }
         }
     }
 
+    // Forget unloaded chunks; they are rescanned when they load again
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        spawnerUpdater.forgetChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        synchronized (stateLock) {
+            spawnerIndex.removeWorld(event.getWorld());
+            chunkStates.evictWorld(event.getWorld());
+        }
+        if (regionRanges != null) {
+            regionRanges.removeWorld(event.getWorld().getUID());
+        }
+        densityTracker.removeWorld(event.getWorld().getUID());
+        activityTracker.removeWorld(event.getWorld().getUID());
+    }
+
+    // Use current range or initial range if current not set yet
+    private int getCurrentRange() {
+        return currentSpawnerRange >= 0 ? currentSpawnerRange : settings.initialSpawnerRange();
+    }
+
+    // Range for spawners in a chunk: its region section's range on regionized servers
+    private int getRangeAt(World world, int chunkX, int chunkZ) {
+        if (regionRanges != null) {
+            return regionRanges.rangeAt(world.getUID(), chunkX, chunkZ, getCurrentRange());
+        }
+        return getCurrentRange();
+    }
+
+    // Player name for UUID owners, if the server knows it
+    private static String describeOwner(String owner) {
+        if (owner.startsWith(OwnerBudgets.TEAM_PREFIX)) {
+            return "team " + owner.substring(OwnerBudgets.TEAM_PREFIX.length());
+        }
+        try {
+            String name = Bukkit.getOfflinePlayer(UUID.fromString(owner)).getName();
+            return name != null ? name : owner;
+        } catch (IllegalArgumentException e) {
+            return owner;
+        }
+    }
+
     // Helper method for debug logging
     private void logDebug(String message) {
         if (debugMode) {
@@ -527,17 +1387,76 @@ public class AdaptiveRangeMobSpawner extends JavaPlugin implements Listener {
             if (args.length == 0) {
                 // Show status
                 sender.sendMessage("§e===== Adaptive Range Mob Spawner Status =====");
-                sender.sendMessage("§7Current TPS: §f" + String.format("%.2f", getTPS()));
+                sender.sendMessage("§7Current TPS: §f" + String.format("%.2f", tickSensor.getTps()) +
+                        " §7(controller input: §f" + String.format("%.2f", tickSensor.getControlTps()) + "§7)");
+                if (tickSensor.getBuffer().count() > 0) {
+                    MsptRingBuffer.Stats recent = tickSensor.shortWindow();
+                    MsptRingBuffer.Stats longer = tickSensor.longWindow();
+                    sender.sendMessage("§7MSPT (" + tickSensor.getShortWindowTicks() + " ticks): §f" + String.format("p50=%.1f p95=%.1f max=%.1f", recent.p50(), recent.p95(), recent.max()));
+                    sender.sendMessage("§7MSPT (" + tickSensor.getLongWindowTicks() + " ticks): §f" + String.format("p50=%.1f p95=%.1f max=%.1f", longer.p50(), longer.p95(), longer.max()));
+                }
+                if (loadSignals != null) {
+                    sender.sendMessage("§7Load Signals: §f" + loadSignals.getLastReading().describe());
+                }
+                if (settings.forecast().enabled()) {
+                    sender.sendMessage("§7Load Forecast (" + (int) loadForecaster.getHorizonSeconds() + "s): §f" + loadForecaster.forecast().describe());
+                }
                 sender.sendMessage("§7Current Spawner Range: §f" + currentSpawnerRange);
-                sender.sendMessage("§7TPS Thresholds: §flow=" + tpsThresholdLow + ", high=" + tpsThresholdHigh);
-                sender.sendMessage("§7Spawner Ranges: §flow=" + spawnerRangeLow + ", high=" + spawnerRangeHigh);
+                sender.sendMessage("§7TPS Thresholds: §flow=" + settings.tpsThresholdLow() + ", high=" + settings.tpsThresholdHigh());
+                sender.sendMessage("§7Spawner Ranges: §flow=" + settings.spawnerRangeLow() + ", high=" + settings.spawnerRangeHigh());
+                sender.sendMessage("§7Range Controller: §f" + rangeGovernor.getController().name() +
+                        (rangeGovernor.remainingDwellMillis(System.currentTimeMillis()) > 0 ? " (holding)" : ""));
+                int indexedSpawners;
+                int indexedChunks;
+                synchronized (stateLock) {
+                    indexedSpawners = spawnerIndex.spawnerCount();
+                    indexedChunks = spawnerIndex.chunkCount();
+                }
+                sender.sendMessage("§7Indexed Spawners: §f" + indexedSpawners + " in " + indexedChunks + " chunks");
+                if (regionRanges != null) {
+                    sender.sendMessage("§7Region Ranges: §f" + regionRanges.summary());
+                    sender.sendMessage("§7Region Updates: §f" + regionStats.summary());
+                } else {
+                    sender.sendMessage("§7Update Queue: §f" + updateScheduler.describeProgress());
+                }
+                UpdateJob<?> lastPass = updateScheduler.getLastFinished();
+                if (lastPass != null) {
+                    sender.sendMessage("§7Last Pass (" + lastPass.description() + "): §f" + lastPass.stats().summary());
+                }
+                sender.sendMessage("§7Chunk Loads: §f" + chunkLoadStats.summary());
+                if (isPaper) {
+                    sender.sendMessage("§7Entity Density: §f" + densityTracker.summary());
+                }
+                sender.sendMessage("§7Spawner Throttle: §f" + (settings.throttle().enabled()
+                        ? activityTracker.throttledCount() + " of " + activityTracker.size() + " active spawners throttled"
+                        + (throttling ? " (overloaded)" : "") + " - " + throttleStats.summary()
+                        : "disabled (" + activityTracker.size() + " active spawners tracked)"));
+                sender.sendMessage("§7Spawner Clusters: §f" + (clusterThrottle.isEnabled()
+                        ? clusterThrottle.summary() + (throttlingClusters ? " (overloaded)" : "")
+                        : "disabled"));
+                sender.sendMessage("§7Owner Budgets: §f" + (ownerBudgets.isEnabled()
+                        ? ownerBudgets.summary() + (enforcingBudgets ? " (enforcing)" : "")
+                        : "disabled"));
                 sender.sendMessage("§7Debug Mode: §f" + (debugMode ? "Enabled" : "Disabled"));
-                sender.sendMessage("§7Updating Near Players Only: §f" + (onlyUpdateNearPlayers ? "Yes" : "No"));
+                if (traceRecorder.isRecording()) {
+                    sender.sendMessage("§7Trace Recording: §f" + traceRecorder.getFile().getFileName() + " (" + traceRecorder.getRecordedTicks() + " ticks)");
+                }
+                sender.sendMessage("§7Updating Near Players Only: §f" + (settings.onlyUpdateNearPlayers() ? "Yes" : "No"));
+                sender.sendMessage("§7Range Application: §f" + (settings.lazyRangeApplication()
+                        ? "lazy (within " + settings.lazyActivationRadius() + " chunks of players) - " + lazyStats.summary()
+                        : "eager"));
                 return true;
             } else if (args[0].equalsIgnoreCase("reload")) {
+                PluginSettings previous = settings;
                 reloadConfig();
                 loadConfig();
-                sender.sendMessage("§aAdaptive Range Mob Spawner config reloaded!");
+                PluginSettings current = settings;
+                // Work out what the change affects on the global thread, which owns the index walks
+                executor.runGlobalLater(() -> {
+                    List<String> applied = applySettingsChanges(previous, current);
+                    sender.sendMessage("§aAdaptive Range Mob Spawner config reloaded!"
+                            + (applied.isEmpty() ? "" : " §7" + String.join(", ", applied)));
+                }, 0L);
                 return true;
             } else if (args[0].equalsIgnoreCase("debug")) {
                 debugMode = !debugMode;
@@ -545,19 +1464,124 @@ public class AdaptiveRangeMobSpawner extends JavaPlugin implements Listener {
                 saveConfig();
                 sender.sendMessage("§aDebug mode " + (debugMode ? "enabled" : "disabled"));
                 return true;
+            } else if (args[0].equalsIgnoreCase("top")) {
+                int limit = 10;
+                if (args.length > 1) {
+                    try {
+                        limit = Math.max(1, Math.min(50, Integer.parseInt(args[1])));
+                    } catch (NumberFormatException e) {
+                        sender.sendMessage("§cUsage: /adaptivespawner top [count]");
+                        return true;
+                    }
+                }
+
+                List<SpawnerActivityTracker.Entry> top = activityTracker.top(limit, System.currentTimeMillis());
+                sender.sendMessage("§e===== Most Active Spawners =====");
+                if (top.isEmpty()) {
+                    sender.sendMessage("§7No spawner activity recorded yet.");
+                }
+                for (int i = 0; i < top.size(); i++) {
+                    SpawnerActivityTracker.Entry entry = top.get(i);
+                    World world = Bukkit.getWorld(entry.worldId());
+                    long blockKey = entry.blockKey();
+                    sender.sendMessage("§7#" + (i + 1) + " §f" + (world != null ? world.getName() : entry.worldId()) +
+                            " [" + BlockKeys.blockX(blockKey) + "," + BlockKeys.blockY(blockKey) + "," + BlockKeys.blockZ(blockKey) + "]" +
+                            " §7" + String.format("%.1f", entry.spawnsPerMinute()) + " spawns/min, " + entry.totalSpawns() + " total" +
+                            (entry.throttled() ? " §c(throttled)" : ""));
+                }
+                return true;
+            } else if (args[0].equalsIgnoreCase("owners")) {
+                int limit = 10;
+                if (args.length > 1) {
+                    try {
+                        limit = Math.max(1, Math.min(50, Integer.parseInt(args[1])));
+                    } catch (NumberFormatException e) {
+                        sender.sendMessage("§cUsage: /adaptivespawner owners [count]");
+                        return true;
+                    }
+                }
+
+                // Tallied every update interval while budgets are enabled
+                List<OwnerBudgets.Usage> owners = ownerBudgets.usage();
+                sender.sendMessage("§e===== Largest Spawner Owners =====");
+                if (owners.isEmpty()) {
+                    sender.sendMessage(ownerBudgets.isEnabled() ? "§7No owned spawners indexed yet." : "§7Owner budgets are disabled.");
+                }
+                for (int i = 0; i < Math.min(limit, owners.size()); i++) {
+                    OwnerBudgets.Usage usage = owners.get(i);
+                    int steps = usage.factorSteps();
+                    sender.sendMessage("§7#" + (i + 1) + " §f" + describeOwner(usage.name()) + " §7" + usage.spawners()
+                            + " spawners, activation area " + usage.area()
+                            + (steps < EntityDensityTracker.FACTOR_STEPS
+                            ? " §c(range x" + String.format("%.2f", (double) steps / EntityDensityTracker.FACTOR_STEPS) + ")" : ""));
+                }
+                return true;
+            } else if (args[0].equalsIgnoreCase("metrics")) {
+                sender.sendMessage("§e===== Adaptive Range Mob Spawner Metrics =====");
+                for (String line : metrics.describe()) {
+                    sender.sendMessage(line);
+                }
+                return true;
+            } else if (args[0].equalsIgnoreCase("trace")) {
+                if (args.length > 1 && args[1].equalsIgnoreCase("stop")) {
+                    if (!traceRecorder.isRecording()) {
+                        sender.sendMessage("§cNo trace is being recorded.");
+                        return true;
+                    }
+                    Path file = traceRecorder.getFile();
+                    traceRecorder.stop();
+                    sender.sendMessage("§aTrace saved to " + getDataFolder().toPath().relativize(file));
+                    return true;
+                }
+                if (args.length < 2 || !args[1].equalsIgnoreCase("start")) {
+                    sender.sendMessage("§cUsage: /adaptivespawner trace <start [seconds]|stop>");
+                    return true;
+                }
+                int seconds = 0;
+                if (args.length > 2) {
+                    try {
+                        seconds = Math.max(1, Integer.parseInt(args[2]));
+                    } catch (NumberFormatException e) {
+                        sender.sendMessage("§cUsage: /adaptivespawner trace start [seconds]");
+                        return true;
+                    }
+                }
+                if (traceRecorder.isRecording()) {
+                    sender.sendMessage("§cAlready recording to " + traceRecorder.getFile().getFileName());
+                    return true;
+                }
+
+                Path file = getDataFolder().toPath().resolve("traces")
+                        .resolve("trace-" + new java.text.SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+                try {
+                    traceRecorder.start(file, seconds);
+                } catch (IOException e) {
+                    getLogger().log(Level.WARNING, "Failed to start trace recording", e);
+                    sender.sendMessage("§cCould not create " + file.getFileName() + ": " + e.getMessage());
+                    return true;
+                }
+                sender.sendMessage("§aRecording " + (tickSensor.getSource() == TickSensor.Source.PAPER ? "tick times" : "TPS")
+                        + " to " + getDataFolder().toPath().relativize(file)
+                        + (seconds > 0 ? " for " + seconds + " seconds" : " until /adaptivespawner trace stop"));
+                return true;
             } else if (args[0].equalsIgnoreCase("update")) {
                 // Force an update of all spawners
-                int range = currentSpawnerRange >= 0 ? currentSpawnerRange : initialSpawnerRange;
+                int range = getCurrentRange();
                 sender.sendMessage("§aForcing update of all spawners to range: " + range);
+                spawnerUpdater.advanceRangeGeneration();
+
+                if (regionRanges != null) {
+                    // Each region applies its own range to its own chunks
+                    List<SpawnerChunkRef> targets = spawnerUpdater.collectTargetChunks();
+                    dispatchToRegions(targets);
+                    sender.sendMessage("§aSpawner update dispatched to the regions owning " + targets.size() + " chunks.");
+                    return true;
+                }
 
-                // Run slightly delayed to avoid blocking command response
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        updateAllSpawners(range);
-                        sender.sendMessage("§aSpawner update complete.");
-                    }
-                }.runTaskLater(this, 5L);
+                // Queued on the budgeted scheduler, so this never blocks the command response
+                spawnerUpdater.updateAllSpawners(range).onFinish(job -> sender.sendMessage(job.isSuperseded()
+                        ? "§eSpawner update superseded by a newer range change."
+                        : "§aSpawner update complete (" + job.total() + " chunks)."));
                 return true;
             }
         }
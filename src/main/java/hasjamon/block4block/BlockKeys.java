@@ -0,0 +1,43 @@
+package hasjamon.block4block;
+
+// Packs chunk and block coordinates into primitive longs so they can be used as map keys without boxing
+final class BlockKeys {
+
+    private BlockKeys() {
+    }
+
+    // Same layout as Paper's Chunk#getChunkKey(): x in the low 32 bits, z in the high 32 bits
+    static long chunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    static int chunkX(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    static int chunkZ(long chunkKey) {
+        return (int) (chunkKey >>> 32);
+    }
+
+    // 26 bits for x and z (+/- 33 million blocks), 12 bits for y (-2048..2047)
+    static long blockKey(int x, int y, int z) {
+        return (((long) x & 0x3FFFFFFL) << 38) | (((long) z & 0x3FFFFFFL) << 12) | ((long) y & 0xFFFL);
+    }
+
+    static int blockX(long blockKey) {
+        return (int) (blockKey >> 38);
+    }
+
+    static int blockY(long blockKey) {
+        return (int) (blockKey << 52 >> 52);
+    }
+
+    static int blockZ(long blockKey) {
+        return (int) (blockKey << 26 >> 38);
+    }
+
+    // Chunk key of the chunk containing the given block key
+    static long chunkKeyOfBlock(long blockKey) {
+        return chunkKey(blockX(blockKey) >> 4, blockZ(blockKey) >> 4);
+    }
+}
@@ -0,0 +1,61 @@
+package hasjamon.block4block;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+// Single main thread: every chunk and player is owned by it
+final class BukkitSpawnerExecutor implements SpawnerExecutor {
+
+    private final JavaPlugin plugin;
+
+    BukkitSpawnerExecutor(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return false;
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return bukkitTask::cancel;
+    }
+
+    @Override
+    public void runGlobalLater(Runnable task, long delayTicks) {
+        Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getScheduler().cancelTasks(plugin);
+    }
+
+    private void runOnMainThread(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+}
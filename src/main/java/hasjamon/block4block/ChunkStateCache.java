@@ -0,0 +1,64 @@
+package hasjamon.block4block;
+
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Remembers which range generation was last applied to each loaded chunk, keyed by world and
+// 64-bit chunk key. A chunk only needs work when the current generation is newer than the one
+// recorded for it; entries are dropped when the chunk unloads.
+// Must be accessed under the plugin's state lock, like SpawnerIndex.
+final class ChunkStateCache {
+
+    // Returned for chunks that were never processed; generations start at 1
+    static final int NONE = 0;
+
+    private final Map<UUID, LongIntHashMap> worlds = new HashMap<>();
+
+    // Record that the chunk is being brought up to `generation`.
+    // Returns false if it already reflects that generation and can be skipped.
+    boolean markApplied(World world, int chunkX, int chunkZ, int generation) {
+        LongIntHashMap chunks = worlds.computeIfAbsent(world.getUID(), id -> new LongIntHashMap(256));
+        return chunks.put(BlockKeys.chunkKey(chunkX, chunkZ), generation, NONE) != generation;
+    }
+
+    int getGeneration(World world, int chunkX, int chunkZ) {
+        LongIntHashMap chunks = worlds.get(world.getUID());
+        return chunks == null ? NONE : chunks.get(BlockKeys.chunkKey(chunkX, chunkZ), NONE);
+    }
+
+    void evict(World world, int chunkX, int chunkZ) {
+        LongIntHashMap chunks = worlds.get(world.getUID());
+        if (chunks != null) {
+            chunks.remove(BlockKeys.chunkKey(chunkX, chunkZ), NONE);
+        }
+    }
+
+    // Worlds with processed chunks, and their chunk key -> generation maps (for saving the registry)
+    Set<UUID> worldIds() {
+        return worlds.keySet();
+    }
+
+    LongIntHashMap chunks(UUID worldId) {
+        return worlds.get(worldId);
+    }
+
+    void evictWorld(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    void clear() {
+        worlds.clear();
+    }
+
+    int size() {
+        int size = 0;
+        for (LongIntHashMap chunks : worlds.values()) {
+            size += chunks.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,143 @@
+package hasjamon.block4block;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Throttles spawner clusters (see SpawnerClusters) as a whole while the server is under load. Mob
+// farms pack many spawners within a few blocks, so shortening each one's range barely changes how
+// many of them a player at the farm activates. Instead, clusters of at least `min-size` spawners
+// either keep only `active-spawners` of them running (the rest get range 0, which no player can be
+// within) or share a range that makes the whole cluster activate the area of `active-spawners`
+// spawners. Either way only the members of the throttled clusters are ever written.
+//
+// Decisions are published as an immutable per-world map from block key to range factor, so scans on
+// any thread and the async planner read them without locking.
+final class ClusterThrottle {
+
+    // Range factor of a spawner switched off by active-limit mode
+    static final int INACTIVE = 0;
+
+    enum Mode {
+        // Keep the first `active-spawners` of a cluster (by position) at full range, switch off the rest
+        ACTIVE_LIMIT,
+        // Shrink every member so the cluster activates the area of `active-spawners` spawners
+        SHARED_RANGE;
+
+        static Mode parse(String value) {
+            return value != null && value.equalsIgnoreCase("shared-range") ? SHARED_RANGE : ACTIVE_LIMIT;
+        }
+    }
+
+    // Throttled spawners of one pass, in the form they are published in
+    static final class Limits {
+        private final Map<UUID, LongIntHashMap> worlds = new HashMap<>();
+        private int clusters;
+        private int spawners;
+    }
+
+    private boolean enabled;
+    private Mode mode = Mode.ACTIVE_LIMIT;
+    private int minSize = 4;
+    private int activeSpawners = 2;
+
+    // Range factor per throttled spawner, in 1/EntityDensityTracker.FACTOR_STEPS units
+    private volatile Map<UUID, LongIntHashMap> limits = Map.of();
+    private volatile int throttledClusters;
+    private volatile int throttledSpawners;
+
+    void configure(boolean enabled, Mode mode, int minSize, int activeSpawners) {
+        this.enabled = enabled;
+        this.mode = mode;
+        this.activeSpawners = Math.max(1, activeSpawners);
+        this.minSize = Math.max(this.activeSpawners + 1, minSize);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    int getMinSize() {
+        return minSize;
+    }
+
+    boolean isThrottling() {
+        return throttledSpawners > 0;
+    }
+
+    int throttledSpawners() {
+        return throttledSpawners;
+    }
+
+    // Range factor of a spawner; full range unless its cluster is throttled
+    int factorSteps(UUID worldId, long blockKey) {
+        LongIntHashMap world = limits.get(worldId);
+        return world == null ? EntityDensityTracker.FACTOR_STEPS : world.get(blockKey, EntityDensityTracker.FACTOR_STEPS);
+    }
+
+    static int scale(int range, int factorSteps) {
+        return factorSteps == INACTIVE ? 0 : EntityDensityTracker.scale(range, factorSteps);
+    }
+
+    // Record the throttle of one cluster of at least min-size spawners into `limits`
+    void limit(UUID worldId, long[] blockKeys, int size, Limits limits) {
+        LongIntHashMap world = limits.worlds.computeIfAbsent(worldId, id -> new LongIntHashMap());
+        if (mode == Mode.SHARED_RANGE) {
+            int steps = Math.max(1, (int) (Math.sqrt((double) activeSpawners / size) * EntityDensityTracker.FACTOR_STEPS));
+            for (int i = 0; i < size; i++) {
+                world.put(blockKeys[i], steps, 0);
+            }
+        } else {
+            // Members come in list order, which changes as the cluster changes; position order is stable
+            Arrays.sort(blockKeys, 0, size);
+            for (int i = activeSpawners; i < size; i++) {
+                world.put(blockKeys[i], INACTIVE, 0);
+            }
+        }
+        limits.clusters++;
+        limits.spawners += mode == Mode.SHARED_RANGE ? size : size - activeSpawners;
+    }
+
+    Limits newLimits() {
+        return new Limits();
+    }
+
+    // Publish the limits of a pass and return the chunk keys (per world) holding spawners whose
+    // factor changed, including spawners that are no longer throttled
+    Map<UUID, LongIntHashMap> publish(Limits next) {
+        Map<UUID, LongIntHashMap> previous = limits;
+        Map<UUID, LongIntHashMap> changed = new HashMap<>();
+        diff(next.worlds, previous, changed);
+        diff(previous, next.worlds, changed);
+        limits = next.worlds;
+        throttledClusters = next.clusters;
+        throttledSpawners = next.spawners;
+        return changed;
+    }
+
+    // Chunks of spawners in `from` whose factor differs in `to`
+    private static void diff(Map<UUID, LongIntHashMap> from, Map<UUID, LongIntHashMap> to, Map<UUID, LongIntHashMap> changed) {
+        for (Map.Entry<UUID, LongIntHashMap> world : from.entrySet()) {
+            LongIntHashMap entries = world.getValue();
+            LongIntHashMap other = to.get(world.getKey());
+            for (int slot = 0; slot < entries.capacity(); slot++) {
+                if (!entries.isUsed(slot)) {
+                    continue;
+                }
+                long blockKey = entries.keyAt(slot);
+                int before = other != null ? other.get(blockKey, EntityDensityTracker.FACTOR_STEPS) : EntityDensityTracker.FACTOR_STEPS;
+                if (before != entries.valueAt(slot)) {
+                    changed.computeIfAbsent(world.getKey(), id -> new LongIntHashMap())
+                            .put(BlockKeys.chunkKeyOfBlock(blockKey), 1, 0);
+                }
+            }
+        }
+    }
+
+    String summary() {
+        return throttledClusters + " clusters throttled, " + throttledSpawners + " spawners limited ("
+                + (mode == Mode.SHARED_RANGE ? "shared range" : "active limit") + " of " + activeSpawners
+                + ", clusters of " + minSize + "+)";
+    }
+}
@@ -0,0 +1,212 @@
+package hasjamon.block4block;
+
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Living-entity counts per 4x4-chunk cell, kept incrementally from entity add/remove events instead
+// of polling getEntities(). An entity stays counted in the cell it was added in until it is removed;
+// mobs that wander are recounted whenever their chunk reloads, and the entities that matter here,
+// mobs packed into a farm, don't go anywhere.
+// The count maps to a range factor in eighths, so small fluctuations don't rewrite spawners.
+// Synchronized: on regionized servers entities are reported from several region threads.
+final class EntityDensityTracker {
+
+    static final int CELL_SHIFT = 2;
+
+    // Range factors are expressed in 1/FACTOR_STEPS units; FACTOR_STEPS means full range
+    static final int FACTOR_STEPS = 8;
+
+    // A cell whose range factor changed since the last drain
+    record Cell(UUID worldId, int cellX, int cellZ, int factorSteps) {
+    }
+
+    private final Map<UUID, WorldDensity> worlds = new HashMap<>();
+    private boolean enabled;
+    private int softLimit = 150;
+    private int hardLimit = 600;
+    private int minFactorSteps = 2;
+
+    synchronized void configure(boolean enabled, int softLimit, int hardLimit, double minFactor) {
+        this.enabled = enabled;
+        this.softLimit = Math.max(0, softLimit);
+        this.hardLimit = Math.max(this.softLimit + 1, hardLimit);
+        this.minFactorSteps = Math.max(1, Math.min(FACTOR_STEPS, (int) Math.round(minFactor * FACTOR_STEPS)));
+    }
+
+    synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    synchronized void add(World world, int entityId, int chunkX, int chunkZ) {
+        WorldDensity density = worlds.computeIfAbsent(world.getUID(), id -> new WorldDensity());
+        density.remove(entityId);
+        density.add(entityId, BlockKeys.chunkKey(chunkX >> CELL_SHIFT, chunkZ >> CELL_SHIFT));
+    }
+
+    synchronized void remove(World world, int entityId) {
+        WorldDensity density = worlds.get(world.getUID());
+        if (density != null) {
+            density.remove(entityId);
+        }
+    }
+
+    synchronized void removeWorld(UUID worldId) {
+        worlds.remove(worldId);
+    }
+
+    // Drop every entity count, for when entities stop being reported and the counts would go stale.
+    // Cells keep their applied factor until the next drain reports them back at full range.
+    synchronized void forgetEntities() {
+        for (WorldDensity density : worlds.values()) {
+            density.entityCells.clear();
+            Arrays.fill(density.counts, 0, density.highWater, 0);
+        }
+    }
+
+    // Range factor for spawners in a chunk, in 1/FACTOR_STEPS units
+    synchronized int factorStepsAt(UUID worldId, int chunkX, int chunkZ) {
+        if (!enabled) {
+            return FACTOR_STEPS;
+        }
+        WorldDensity density = worlds.get(worldId);
+        if (density == null) {
+            return FACTOR_STEPS;
+        }
+        int id = density.cellIds.get(BlockKeys.chunkKey(chunkX >> CELL_SHIFT, chunkZ >> CELL_SHIFT), -1);
+        return id < 0 ? FACTOR_STEPS : factorSteps(density.counts[id]);
+    }
+
+    // Range scaled down by the density around the chunk
+    int scale(UUID worldId, int chunkX, int chunkZ, int range) {
+        return scale(range, factorStepsAt(worldId, chunkX, chunkZ));
+    }
+
+    static int scale(int range, int factorSteps) {
+        if (factorSteps >= FACTOR_STEPS) {
+            return range;
+        }
+        return Math.max(1, (range * factorSteps + FACTOR_STEPS / 2) / FACTOR_STEPS);
+    }
+
+    // Cells whose range factor moved since the last call; emptied cells are released here
+    synchronized List<Cell> drainChanged() {
+        List<Cell> changed = new ArrayList<>();
+        for (Map.Entry<UUID, WorldDensity> entry : worlds.entrySet()) {
+            WorldDensity density = entry.getValue();
+            for (int id = 0; id < density.highWater; id++) {
+                byte applied = density.appliedSteps[id];
+                if (applied == WorldDensity.FREE) {
+                    continue;
+                }
+                int steps = enabled ? factorSteps(density.counts[id]) : FACTOR_STEPS;
+                long cellKey = density.cellKeys[id];
+                if (steps != applied) {
+                    density.appliedSteps[id] = (byte) steps;
+                    changed.add(new Cell(entry.getKey(), BlockKeys.chunkX(cellKey), BlockKeys.chunkZ(cellKey), steps));
+                }
+                if (density.counts[id] == 0 && steps == FACTOR_STEPS) {
+                    density.release(id);
+                }
+            }
+        }
+        return changed;
+    }
+
+    // Tracked entities, the densest cell and the number of throttled cells, for the status command
+    synchronized String summary() {
+        int entities = 0;
+        int cells = 0;
+        int throttled = 0;
+        int densest = 0;
+        for (WorldDensity density : worlds.values()) {
+            entities += density.entityCells.size();
+            for (int id = 0; id < density.highWater; id++) {
+                if (density.appliedSteps[id] == WorldDensity.FREE) {
+                    continue;
+                }
+                cells++;
+                densest = Math.max(densest, density.counts[id]);
+                if (density.appliedSteps[id] < FACTOR_STEPS) {
+                    throttled++;
+                }
+            }
+        }
+        return entities + " living entities in " + cells + " cells, densest " + densest
+                + (enabled ? ", " + throttled + " cells throttled" : " (range scaling disabled)");
+    }
+
+    private int factorSteps(int count) {
+        if (count <= softLimit) {
+            return FACTOR_STEPS;
+        }
+        if (count >= hardLimit) {
+            return minFactorSteps;
+        }
+        int span = FACTOR_STEPS - minFactorSteps;
+        return FACTOR_STEPS - (int) Math.round((double) span * (count - softLimit) / (hardLimit - softLimit));
+    }
+
+    // Cells get dense ids so an entity only needs an int to find its cell again
+    private static final class WorldDensity {
+        static final byte FREE = -1;
+
+        final LongIntHashMap cellIds = new LongIntHashMap(64);
+        final LongIntHashMap entityCells = new LongIntHashMap(1024);
+        long[] cellKeys = new long[64];
+        int[] counts = new int[64];
+        byte[] appliedSteps = new byte[64];
+        int[] freeIds = new int[16];
+        int freeCount;
+        int highWater;
+
+        void add(int entityId, long cellKey) {
+            int id = cellIds.get(cellKey, -1);
+            if (id < 0) {
+                id = allocate(cellKey);
+            }
+            counts[id]++;
+            entityCells.put(entityId, id, -1);
+        }
+
+        void remove(int entityId) {
+            int id = entityCells.remove(entityId, -1);
+            if (id >= 0) {
+                counts[id]--;
+            }
+        }
+
+        private int allocate(long cellKey) {
+            int id;
+            if (freeCount > 0) {
+                id = freeIds[--freeCount];
+            } else {
+                if (highWater == cellKeys.length) {
+                    cellKeys = Arrays.copyOf(cellKeys, highWater << 1);
+                    counts = Arrays.copyOf(counts, highWater << 1);
+                    appliedSteps = Arrays.copyOf(appliedSteps, highWater << 1);
+                }
+                id = highWater++;
+            }
+            cellKeys[id] = cellKey;
+            counts[id] = 0;
+            appliedSteps[id] = FACTOR_STEPS;
+            cellIds.put(cellKey, id, -1);
+            return id;
+        }
+
+        void release(int id) {
+            cellIds.remove(cellKeys[id], -1);
+            appliedSteps[id] = FREE;
+            if (freeCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeCount << 1);
+            }
+            freeIds[freeCount++] = id;
+        }
+    }
+}
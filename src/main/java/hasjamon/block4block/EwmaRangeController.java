@@ -0,0 +1,42 @@
+package hasjamon.block4block;
+
+// Smooths TPS with an exponential moving average and scales the range linearly between
+// rangeLow (at tpsLow and below) and rangeHigh (at tpsHigh and above)
+final class EwmaRangeController implements RangeController {
+
+    private final int rangeLow;
+    private final int rangeHigh;
+    private final double tpsLow;
+    private final double tpsHigh;
+    private final double alpha;
+    private double smoothedTps = Double.NaN;
+
+    EwmaRangeController(int rangeLow, int rangeHigh, double tpsLow, double tpsHigh, double alpha) {
+        if (tpsHigh <= tpsLow) {
+            throw new IllegalArgumentException("tps-threshold-high must be above tps-threshold-low");
+        }
+        this.rangeLow = rangeLow;
+        this.rangeHigh = rangeHigh;
+        this.tpsLow = tpsLow;
+        this.tpsHigh = tpsHigh;
+        this.alpha = Math.min(1.0, Math.max(0.01, alpha));
+    }
+
+    @Override
+    public int desiredRange(double tps, int currentRange) {
+        smoothedTps = Double.isNaN(smoothedTps) ? tps : smoothedTps + alpha * (tps - smoothedTps);
+
+        double position = (smoothedTps - tpsLow) / (tpsHigh - tpsLow);
+        position = Math.min(1.0, Math.max(0.0, position));
+        return (int) Math.round(rangeLow + position * (rangeHigh - rangeLow));
+    }
+
+    double getSmoothedTps() {
+        return smoothedTps;
+    }
+
+    @Override
+    public String name() {
+        return "ewma (alpha=" + alpha + ")";
+    }
+}
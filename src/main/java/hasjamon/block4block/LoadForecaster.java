@@ -0,0 +1,116 @@
+package hasjamon.block4block;
+
+// Forecasts tick time a short horizon ahead from the recent MSPT trend, so ranges can shrink before
+// TPS actually drops. Recent ticks are averaged into one-second buckets, which also flattens single
+// GC spikes, and fitted with ordinary least squares. A trend only counts when it is significant:
+// the slope must stay positive at the configured number of standard errors, and the forecast used is
+// the lower confidence bound at the horizon, so noise alone never shrinks ranges.
+final class LoadForecaster {
+
+    // Ticks averaged into one regression point
+    private static final int BUCKET_TICKS = 20;
+
+    // Fewer points than this give no forecast
+    private static final int MIN_BUCKETS = 5;
+
+    record Forecast(double currentMspt, double slopePerSecond, double predictedMspt, boolean rising) {
+
+        static final Forecast NONE = new Forecast(0.0, 0.0, 0.0, false);
+
+        double predictedTps() {
+            return MsptRingBuffer.Stats.toTps(predictedMspt);
+        }
+
+        String describe() {
+            if (this == NONE) {
+                return "not enough samples";
+            }
+            return String.format("%.1f mspt, trend %+.2f mspt/s", currentMspt, slopePerSecond)
+                    + (rising ? String.format(", forecast %.1f mspt (%.2f TPS)", predictedMspt, predictedTps()) : ", stable");
+        }
+    }
+
+    private final MsptRingBuffer buffer;
+    private int windowTicks = 600;
+    private double horizonSeconds = 30.0;
+    private double confidenceSigmas = 2.0;
+    private double[] samples;
+
+    LoadForecaster(MsptRingBuffer buffer) {
+        this.buffer = buffer;
+        this.samples = new double[windowTicks];
+    }
+
+    void configure(int windowTicks, double horizonSeconds, double confidenceSigmas) {
+        this.windowTicks = Math.max(BUCKET_TICKS * MIN_BUCKETS, Math.min(windowTicks, buffer.capacity()));
+        this.horizonSeconds = Math.max(1.0, horizonSeconds);
+        this.confidenceSigmas = Math.max(0.0, confidenceSigmas);
+        if (samples.length != this.windowTicks) {
+            samples = new double[this.windowTicks];
+        }
+    }
+
+    double getHorizonSeconds() {
+        return horizonSeconds;
+    }
+
+    // TPS the range decision uses: the forecast while load is significantly rising, else the measurement
+    static double decisionTps(double controlTps, Forecast forecast) {
+        return forecast.rising() ? Math.min(controlTps, forecast.predictedTps()) : controlTps;
+    }
+
+    // Monitor thread only, the sample array is reused
+    Forecast forecast() {
+        int n = buffer.copyRecent(windowTicks, samples);
+        int buckets = n / BUCKET_TICKS;
+        if (buckets < MIN_BUCKETS) {
+            return Forecast.NONE;
+        }
+
+        // x = bucket index in seconds, y = bucket mean MSPT; skip the oldest partial bucket
+        int offset = n - buckets * BUCKET_TICKS;
+        double sumX = 0.0;
+        double sumY = 0.0;
+        double[] means = new double[buckets];
+        for (int b = 0; b < buckets; b++) {
+            double sum = 0.0;
+            int start = offset + b * BUCKET_TICKS;
+            for (int i = start; i < start + BUCKET_TICKS; i++) {
+                sum += samples[i];
+            }
+            means[b] = sum / BUCKET_TICKS;
+            sumX += b;
+            sumY += means[b];
+        }
+        double meanX = sumX / buckets;
+        double meanY = sumY / buckets;
+
+        double sxx = 0.0;
+        double sxy = 0.0;
+        for (int b = 0; b < buckets; b++) {
+            double dx = b - meanX;
+            sxx += dx * dx;
+            sxy += dx * (means[b] - meanY);
+        }
+        double slope = sxy / sxx;
+        double intercept = meanY - slope * meanX;
+
+        double residuals = 0.0;
+        for (int b = 0; b < buckets; b++) {
+            double error = means[b] - (intercept + slope * b);
+            residuals += error * error;
+        }
+        double sigma = Math.sqrt(residuals / (buckets - 2));
+        double slopeError = sigma / Math.sqrt(sxx);
+
+        double current = intercept + slope * (buckets - 1);
+        double x = buckets - 1 + horizonSeconds;
+        double predicted = intercept + slope * x;
+        // Confidence bound of the fitted trend at the horizon (not of a single tick)
+        double predictedError = sigma * Math.sqrt(1.0 / buckets + (x - meanX) * (x - meanX) / sxx);
+        double lower = predicted - confidenceSigmas * predictedError;
+
+        boolean rising = slope - confidenceSigmas * slopeError > 0.0 && lower > current;
+        return new Forecast(current, slope, rising ? lower : current, rising);
+    }
+}
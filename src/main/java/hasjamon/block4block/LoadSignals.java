@@ -0,0 +1,236 @@
+package hasjamon.block4block;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+// Combines TPS with JVM signals into one load score, so ranges react to load spawners cause and
+// ignore load they can't fix. GC notifications give young and major pause time and the allocation
+// rate (heap used before a collection minus after the previous one); heap occupancy after the last
+// collection and process / system CPU load are sampled when the score is computed.
+//
+// Entity-driven load shows up as allocation pressure, young GC time and our own CPU use, and adds to
+// the score. Major GC pauses and CPU used by other processes instead reduce the TPS deficit that
+// counts, since smaller spawner ranges don't make them go away. The score is the weighted sum of the
+// signals (each 0..1), capped at 1, and is mapped back to a TPS for the range controller: with only
+// the TPS weight set, the controller sees exactly the measured TPS.
+final class LoadSignals {
+
+    // Reading of every signal over the last sample window
+    record Reading(double score, double tpsLoad, double allocationLoad, double youngGcLoad, double heapLoad,
+                   double cpuLoad, double majorGcPercent, double externalCpuPercent, double decisionTps) {
+
+        static final Reading NONE = new Reading(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 20.0);
+
+        String describe() {
+            return String.format(Locale.ROOT, "score %.2f (tps %.2f, allocation %.2f, young GC %.2f, heap %.2f, cpu %.2f)",
+                    score, tpsLoad, allocationLoad, youngGcLoad, heapLoad, cpuLoad)
+                    + String.format(Locale.ROOT, ", ignored: major GC %.1f%%, other processes %.0f%% CPU",
+                    majorGcPercent, externalCpuPercent)
+                    + String.format(Locale.ROOT, " -> %.2f TPS", decisionTps);
+        }
+    }
+
+    // System CPU load from which other processes are considered to slow the server down
+    private static final double SATURATED_CPU = 0.9;
+
+    private final com.sun.management.OperatingSystemMXBean os;
+    private final Set<String> heapPools = new HashSet<>();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener listener = this::onGcNotification;
+
+    // Accumulated by the JMX notification thread, drained by sample()
+    private long youngPauseMillis;
+    private long majorPauseMillis;
+    private long allocatedBytes;
+    private long lastUsedAfterGc = -1;
+    private double heapAfterGc = -1.0;
+
+    private double tpsFloor = 10.0;
+    private double tpsWeight = 1.0;
+    private double allocationWeight;
+    private double youngGcWeight;
+    private double heapWeight;
+    private double cpuWeight;
+    private double allocationHighBytesPerSecond = 1500.0 * 1024 * 1024;
+    private double youngGcHighFraction = 0.1;
+    private double heapLow = 0.6;
+    private double heapHigh = 0.9;
+    private boolean ignoreMajorGc = true;
+    private boolean ignoreExternalCpu = true;
+
+    private long lastSampleMillis = System.currentTimeMillis();
+    private volatile Reading lastReading = Reading.NONE;
+
+    private LoadSignals(com.sun.management.OperatingSystemMXBean os) {
+        this.os = os;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+    }
+
+    // Subscribes to the GC notifications of every collector that emits them
+    static LoadSignals create(Logger logger) {
+        LoadSignals signals = new LoadSignals(
+                ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os ? os : null);
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(signals.listener, null, null);
+                signals.emitters.add(emitter);
+            }
+        }
+        if (signals.emitters.isEmpty()) {
+            logger.warning("This JVM sends no GC notifications, load signals only use heap and CPU");
+        }
+        return signals;
+    }
+
+    void configure(double tpsFloor, double tpsWeight, double allocationWeight, double youngGcWeight, double heapWeight,
+                   double cpuWeight, double allocationHighMbPerSecond, double youngGcHighPercent,
+                   double heapLowPercent, double heapHighPercent, boolean ignoreMajorGc, boolean ignoreExternalCpu) {
+        this.tpsFloor = Math.max(0.0, Math.min(19.0, tpsFloor));
+        this.tpsWeight = Math.max(0.0, tpsWeight);
+        this.allocationWeight = Math.max(0.0, allocationWeight);
+        this.youngGcWeight = Math.max(0.0, youngGcWeight);
+        this.heapWeight = Math.max(0.0, heapWeight);
+        this.cpuWeight = Math.max(0.0, cpuWeight);
+        this.allocationHighBytesPerSecond = Math.max(1.0, allocationHighMbPerSecond) * 1024 * 1024;
+        this.youngGcHighFraction = Math.max(0.1, youngGcHighPercent) / 100.0;
+        this.heapLow = Math.max(0.0, Math.min(99.0, heapLowPercent)) / 100.0;
+        this.heapHigh = Math.max(this.heapLow * 100.0 + 1.0, heapHighPercent) / 100.0;
+        this.ignoreMajorGc = ignoreMajorGc;
+        this.ignoreExternalCpu = ignoreExternalCpu;
+    }
+
+    Reading getLastReading() {
+        return lastReading;
+    }
+
+    // Monitor thread: drain the GC counters of the window since the last call and score it
+    Reading sample(double tps, long nowMillis) {
+        long youngPause;
+        long majorPause;
+        long allocated;
+        double heap;
+        synchronized (this) {
+            youngPause = youngPauseMillis;
+            majorPause = majorPauseMillis;
+            allocated = allocatedBytes;
+            heap = heapAfterGc;
+            youngPauseMillis = 0;
+            majorPauseMillis = 0;
+            allocatedBytes = 0;
+        }
+        double windowMillis = Math.max(1.0, nowMillis - lastSampleMillis);
+        lastSampleMillis = nowMillis;
+
+        // Take the time lost to major pauses out of the TPS deficit, the ticks would have run without them
+        double majorFraction = Math.min(0.95, majorPause / windowMillis);
+        double adjustedTps = tps;
+        if (ignoreMajorGc && majorFraction > 0.0) {
+            adjustedTps = Math.min(20.0, tps / (1.0 - majorFraction));
+        }
+
+        // On a saturated host, the share of the CPU used by other processes doesn't count either
+        double processCpu = os != null ? os.getProcessCpuLoad() : -1.0;
+        double systemCpu = os != null ? os.getCpuLoad() : -1.0;
+        double externalCpu = processCpu >= 0.0 && systemCpu >= 0.0 ? Math.max(0.0, systemCpu - processCpu) : 0.0;
+        if (ignoreExternalCpu && systemCpu >= SATURATED_CPU && externalCpu > 0.0) {
+            adjustedTps = 20.0 - (20.0 - adjustedTps) * (1.0 - externalCpu / systemCpu);
+        }
+
+        double tpsLoad = clamp((20.0 - adjustedTps) / (20.0 - tpsFloor));
+        double allocationLoad = clamp(allocated * 1000.0 / windowMillis / allocationHighBytesPerSecond);
+        double youngGcLoad = clamp(youngPause / windowMillis / youngGcHighFraction);
+        if (heap < 0.0) {
+            // No collection seen yet; current usage includes garbage, but is better than nothing
+            MemoryUsage usage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+            heap = usage.getMax() > 0 ? (double) usage.getUsed() / usage.getMax() : 0.0;
+        }
+        double heapLoad = clamp((heap - heapLow) / (heapHigh - heapLow));
+        double cpuLoad = clamp(processCpu);
+
+        double score = clamp(tpsWeight * tpsLoad + allocationWeight * allocationLoad + youngGcWeight * youngGcLoad
+                + heapWeight * heapLoad + cpuWeight * cpuLoad);
+        Reading reading = new Reading(score, tpsLoad, allocationLoad, youngGcLoad, heapLoad, cpuLoad,
+                majorFraction * 100.0, externalCpu * 100.0, 20.0 - score * (20.0 - tpsFloor));
+        lastReading = reading;
+        return reading;
+    }
+
+    void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException ignored) {
+                // Already gone
+            }
+        }
+        emitters.clear();
+    }
+
+    private void onGcNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+        long usedBefore = heapUsed(gcInfo.getMemoryUsageBeforeGc());
+        long usedAfter = heapUsed(gcInfo.getMemoryUsageAfterGc());
+        long max = Runtime.getRuntime().maxMemory();
+
+        synchronized (this) {
+            if (lastUsedAfterGc >= 0) {
+                allocatedBytes += Math.max(0L, usedBefore - lastUsedAfterGc);
+            }
+            lastUsedAfterGc = usedAfter;
+            if (max > 0 && max != Long.MAX_VALUE) {
+                heapAfterGc = (double) usedAfter / max;
+            }
+            // Concurrent cycles (ZGC, Shenandoah, G1's marking) run beside the server and aren't pauses
+            String action = info.getGcAction();
+            if (info.getGcName().contains("Cycles") || !action.contains("minor") && !action.contains("major")) {
+                return;
+            }
+            if (action.contains("major")) {
+                majorPauseMillis += gcInfo.getDuration();
+            } else {
+                youngPauseMillis += gcInfo.getDuration();
+            }
+        }
+    }
+
+    // The notification covers every memory pool, metaspace and code cache included
+    private long heapUsed(Map<String, MemoryUsage> pools) {
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> pool : pools.entrySet()) {
+            if (heapPools.contains(pool.getKey())) {
+                used += pool.getValue().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static double clamp(double value) {
+        return Double.isNaN(value) ? 0.0 : Math.max(0.0, Math.min(1.0, value));
+    }
+}
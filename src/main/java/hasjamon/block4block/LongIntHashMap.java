@@ -0,0 +1,175 @@
+package hasjamon.block4block;
+
+import java.util.Arrays;
+
+// Open-addressing hash map from primitive long keys to int values (linear probing,
+// backward-shift deletion). Not thread-safe.
+final class LongIntHashMap {
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    LongIntHashMap() {
+        this(16);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        allocate(LongObjectHashMap.tableSizeFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int get(long key, int missingValue) {
+        int slot = LongObjectHashMap.mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    boolean containsKey(long key) {
+        int slot = LongObjectHashMap.mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    // Returns the previous value, or missingValue if the key was absent
+    int put(long key, int value, int missingValue) {
+        int slot = LongObjectHashMap.mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return missingValue;
+    }
+
+    // Adds delta to the value (starting from 0 if absent) and returns the new value
+    int addTo(long key, int delta) {
+        int slot = LongObjectHashMap.mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    // Returns the removed value, or missingValue if the key was absent
+    int remove(long key, int missingValue) {
+        int slot = LongObjectHashMap.mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                shiftKeys(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    // Raw slot access for allocation-free iteration; the map must not be modified meanwhile
+    int capacity() {
+        return keys.length;
+    }
+
+    boolean isUsed(int slot) {
+        return used[slot];
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    private void shiftKeys(int slot) {
+        int last;
+        while (true) {
+            last = slot;
+            slot = (slot + 1) & mask;
+            while (true) {
+                if (!used[slot]) {
+                    used[last] = false;
+                    return;
+                }
+                int ideal = LongObjectHashMap.mix(keys[slot]) & mask;
+                if (last <= slot ? (last >= ideal || ideal > slot) : (last >= ideal && ideal > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = keys[slot];
+            values[last] = values[slot];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = LongObjectHashMap.mix(oldKeys[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * 0.75f);
+    }
+}
@@ -0,0 +1,159 @@
+package hasjamon.block4block;
+
+import java.util.Arrays;
+
+// Open-addressing hash map from primitive long keys to objects (linear probing, backward-shift deletion).
+// Values must be non-null; a null value marks an empty slot. Not thread-safe.
+final class LongObjectHashMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    LongObjectHashMap() {
+        this(16);
+    }
+
+    LongObjectHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int slot = mix(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        int slot = mix(key) & mask;
+        Object existing;
+        while ((existing = values[slot]) != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return (V) existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(values.length << 1);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int slot = mix(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                shiftKeys(slot);
+                size--;
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // Raw slot access for allocation-free iteration: valueAt returns null for empty slots.
+    // The map must not be modified while iterating this way.
+    int capacity() {
+        return values.length;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private void shiftKeys(int slot) {
+        // Move later entries of the probe chain back so lookups never hit a premature hole
+        int last;
+        while (true) {
+            last = slot;
+            slot = (slot + 1) & mask;
+            while (true) {
+                if (values[slot] == null) {
+                    values[last] = null;
+                    return;
+                }
+                int ideal = mix(keys[slot]) & mask;
+                if (last <= slot ? (last >= ideal || ideal > slot) : (last >= ideal && ideal > slot)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = keys[slot];
+            values[last] = values[slot];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * 0.75f);
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 2) / 0.75);
+        return Math.max(16, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,78 @@
+package hasjamon.block4block;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-size ring of per-tick durations in milliseconds. Written by a single thread (the server
+// tick), read from any thread without locking: the write counter is published after the sample,
+// so readers only ever look at completed slots.
+final class MsptRingBuffer {
+
+    // Summary of a window of tick times
+    record Stats(int samples, double p50, double p95, double max, double mean) {
+        static final Stats EMPTY = new Stats(0, 0.0, 0.0, 0.0, 0.0);
+
+        // Convert a tick time to the TPS it allows, capped at the vanilla 20
+        static double toTps(double mspt) {
+            return mspt <= 50.0 ? 20.0 : 1000.0 / mspt;
+        }
+    }
+
+    private final double[] samples;
+    private final AtomicLong written = new AtomicLong();
+
+    MsptRingBuffer(int capacity) {
+        samples = new double[Math.max(capacity, 20)];
+    }
+
+    int capacity() {
+        return samples.length;
+    }
+
+    // Total number of samples ever recorded
+    long count() {
+        return written.get();
+    }
+
+    void record(double mspt) {
+        long index = written.get();
+        samples[(int) (index % samples.length)] = mspt;
+        written.lazySet(index + 1);
+    }
+
+    // Most recent sample, or 0 if nothing has been recorded yet
+    double latest() {
+        long index = written.get();
+        return index == 0 ? 0.0 : samples[(int) ((index - 1) % samples.length)];
+    }
+
+    // Copy the newest `window` samples (oldest first) into `out`; returns how many were copied
+    int copyRecent(int window, double[] out) {
+        long end = written.get();
+        int n = (int) Math.min(Math.min(window, end), Math.min(samples.length, out.length));
+        for (int i = 0; i < n; i++) {
+            out[i] = samples[(int) ((end - n + i) % samples.length)];
+        }
+        return n;
+    }
+
+    Stats stats(int window) {
+        double[] copy = new double[Math.min(window, samples.length)];
+        int n = copyRecent(window, copy);
+        if (n == 0) {
+            return Stats.EMPTY;
+        }
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += copy[i];
+        }
+        Arrays.sort(copy, 0, n);
+        return new Stats(n, percentile(copy, n, 0.50), percentile(copy, n, 0.95), copy[n - 1], sum / n);
+    }
+
+    // Nearest-rank percentile of the first n (sorted) values
+    private static double percentile(double[] sorted, int n, double fraction) {
+        int rank = (int) Math.ceil(fraction * n);
+        return sorted[Math.max(0, Math.min(n - 1, rank - 1))];
+    }
+}
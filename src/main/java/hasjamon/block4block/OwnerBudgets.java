@@ -0,0 +1,180 @@
+package hasjamon.block4block;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-owner spawner accounting and activation budgets. Player-placed spawners record who placed
+// them (the placer's UUID, or their scoreboard team); owners are interned to small ids that the
+// spawner index stores next to each spawner. Every update interval the index is tallied into a
+// spawner count and activation area (sum of range squared) per owner.
+//
+// An owner's budget is the area of `budget-spawners` spawners at the current full range; their
+// demand is the area their spawners activate at the ranges last applied, with their own budget factor
+// taken back out, so spawners already shrunk by entity density or a cluster throttle count for what
+// they actually cost. While the server is under load, owners whose demand is over budget get a range
+// factor that brings their area back to the budget, so one player with 80 stacked spawners sheds load long
+// before 80 players with one each notice anything. Owners within budget keep their full range.
+//
+// Scans on region threads intern owners concurrently, so lookups are synchronized; the factors
+// are published as a fresh array that readers use without locking.
+final class OwnerBudgets {
+
+    // Owner id of spawners without a recorded owner (natural, or placed before owners were stored)
+    static final int NONE = 0;
+
+    // Prefix of team owners; player owners are their UUID string
+    static final String TEAM_PREFIX = "team:";
+
+    // What one owner's spawners cost at the last tally
+    record Usage(int owner, String name, int spawners, long area, long demand, int factorSteps) {
+    }
+
+    // Spawner count and activation area per owner id, filled from the index under its lock
+    static final class Tally {
+        private int[] spawners;
+        private long[] area;
+
+        private Tally(int owners) {
+            spawners = new int[Math.max(1, owners)];
+            area = new long[spawners.length];
+        }
+
+        void add(int owner, int range) {
+            if (owner == NONE) {
+                return;
+            }
+            if (owner >= spawners.length) {
+                // Interned by a scan after the tally started
+                spawners = Arrays.copyOf(spawners, owner + 1);
+                area = Arrays.copyOf(area, owner + 1);
+            }
+            spawners[owner]++;
+            area[owner] += (long) range * range;
+        }
+    }
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>(List.of(""));
+
+    // Range factor per owner id in 1/EntityDensityTracker.FACTOR_STEPS units; ids past the end get full range
+    private volatile byte[] factorSteps = new byte[0];
+    private volatile List<Usage> usage = List.of();
+    private volatile boolean groupByTeam;
+    private volatile boolean enabled;
+    private int budgetSpawners = 16;
+    private int minFactorSteps = 2;
+    private boolean shrinking;
+
+    void configure(boolean enabled, boolean groupByTeam, int budgetSpawners, double minFactor) {
+        this.enabled = enabled;
+        this.groupByTeam = groupByTeam;
+        this.budgetSpawners = Math.max(1, budgetSpawners);
+        this.minFactorSteps = Math.max(1, Math.min(EntityDensityTracker.FACTOR_STEPS,
+                (int) Math.round(minFactor * EntityDensityTracker.FACTOR_STEPS)));
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    boolean isGroupByTeam() {
+        return groupByTeam;
+    }
+
+    // Whether any owner currently has less than full range
+    synchronized boolean isShrinking() {
+        return shrinking;
+    }
+
+    synchronized int idOf(String owner) {
+        if (owner == null) {
+            return NONE;
+        }
+        Integer id = ids.get(owner);
+        if (id == null) {
+            id = names.size();
+            names.add(owner);
+            ids.put(owner, id);
+        }
+        return id;
+    }
+
+    // Null for NONE
+    synchronized String nameOf(int owner) {
+        return owner > NONE && owner < names.size() ? names.get(owner) : null;
+    }
+
+    Tally newTally() {
+        synchronized (this) {
+            return new Tally(names.size());
+        }
+    }
+
+    int factorSteps(int owner) {
+        byte[] steps = factorSteps;
+        return owner > NONE && owner < steps.length ? steps[owner] : EntityDensityTracker.FACTOR_STEPS;
+    }
+
+    // Owners of the last tally, largest consumers first
+    List<Usage> usage() {
+        return usage;
+    }
+
+    // Recompute every owner's factor from a tally at the given full range; only owners over budget
+    // are shrunk, and only while `underLoad`. Returns the owners whose factor changed.
+    synchronized BitSet update(Tally tally, int fullRange, boolean underLoad) {
+        long budget = (long) budgetSpawners * fullRange * fullRange;
+        byte[] previous = factorSteps;
+        int owners = Math.max(tally.spawners.length, previous.length);
+        byte[] next = new byte[owners];
+        BitSet changed = new BitSet();
+        List<Usage> usage = new ArrayList<>();
+        boolean shrinking = false;
+
+        for (int owner = NONE + 1; owner < owners; owner++) {
+            int spawners = owner < tally.spawners.length ? tally.spawners[owner] : 0;
+            long area = owner < tally.area.length ? tally.area[owner] : 0;
+            int before = owner < previous.length ? previous[owner] : EntityDensityTracker.FACTOR_STEPS;
+            // Undo this owner's factor (area shrinks with its square), or a shrunk owner would look within
+            // budget on the next tally and get its full range back
+            long demand = area * EntityDensityTracker.FACTOR_STEPS * EntityDensityTracker.FACTOR_STEPS / ((long) before * before);
+            int steps = EntityDensityTracker.FACTOR_STEPS;
+            if (enabled && underLoad && demand > budget) {
+                // Range scales area quadratically, so the square root of the ratio fits the budget
+                steps = Math.max(minFactorSteps,
+                        (int) (Math.sqrt((double) budget / demand) * EntityDensityTracker.FACTOR_STEPS));
+            }
+            next[owner] = (byte) steps;
+            if (steps != before) {
+                changed.set(owner);
+            }
+            shrinking |= steps < EntityDensityTracker.FACTOR_STEPS;
+            if (spawners > 0) {
+                usage.add(new Usage(owner, names.get(owner), spawners, area, demand, steps));
+            }
+        }
+        usage.sort(Comparator.comparingLong(Usage::demand).reversed());
+
+        factorSteps = next;
+        this.usage = usage;
+        this.shrinking = shrinking;
+        return changed;
+    }
+
+    String summary() {
+        List<Usage> current = usage;
+        int over = 0;
+        for (Usage entry : current) {
+            if (entry.factorSteps() < EntityDensityTracker.FACTOR_STEPS) {
+                over++;
+            }
+        }
+        return current.size() + " owners, " + over + " shrunk (budget " + budgetSpawners + " spawners each, by "
+                + (groupByTeam ? "team" : "player") + ")";
+    }
+}
@@ -0,0 +1,40 @@
+package hasjamon.block4block;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+// Feeds living-entity adds and removes into the density tracker. Paper fires these for spawns,
+// chunk loads, despawns, deaths and unloads alike, which Spigot's events can't match without
+// polling. Kept in its own class so the Paper event types are never loaded on Spigot.
+final class PaperEntityListener implements Listener {
+
+    private final EntityDensityTracker tracker;
+
+    PaperEntityListener(EntityDensityTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event) {
+        Entity entity = event.getEntity();
+        if (entity instanceof LivingEntity && !(entity instanceof Player)) {
+            Location location = entity.getLocation();
+            tracker.add(event.getWorld(), entity.getEntityId(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        Entity entity = event.getEntity();
+        if (entity instanceof LivingEntity && !(entity instanceof Player)) {
+            tracker.remove(event.getWorld(), entity.getEntityId());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hasjamon.block4block;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+// Feeds per-tick durations from Paper's tick events into the ring buffer. Kept in its own class
+// so the Paper event types are never loaded on Spigot.
+final class PaperTickListener implements Listener {
+
+    private final MsptRingBuffer buffer;
+
+    PaperTickListener(MsptRingBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        buffer.record(event.getTickDuration());
+    }
+}
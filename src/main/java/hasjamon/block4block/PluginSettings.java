@@ -0,0 +1,185 @@
+package hasjamon.block4block;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Set;
+import java.util.logging.Logger;
+
+// The plugin's settings from config.yml, read in one go and published as a whole: the plugin keeps
+// a single volatile reference, so chunk loads, region threads and the async planner always see
+// values from the same load, and a reload can compare the old and new snapshot to find out which
+// spawners need another look and which components need reconfiguring. Components with their own
+// state (tick sensor, density tracker, load signals, owner budgets, ...) get their part of the
+// record; a component whose part didn't change is left alone.
+// Debug mode is toggled at runtime and lives on the plugin.
+record PluginSettings(int initialSpawnerRange, int spawnerRangeHigh, int spawnerRangeLow,
+                      double tpsThresholdLow, double tpsThresholdHigh, int updateIntervalTicks,
+                      boolean affectNaturallyGenerated, boolean updatePreexistingSpawners, long tickBudgetNanos,
+                      Set<String> disabledWorlds, boolean onlyUpdateNearPlayers, int playerChunkRadius,
+                      boolean lazyRangeApplication, int lazyActivationRadius, int lazyIdleIntervals, boolean persistRegistry,
+                      MetricsSettings metrics, TickSensorSettings tickSensor, RangeControllers.Settings rangeController,
+                      ForecastSettings forecast, LoadSignalSettings loadSignals, DensitySettings density,
+                      OwnerBudgetSettings ownerBudget, ClusterSettings clusters, ThrottleSettings throttle) {
+
+    // What the server supports; settings for features it doesn't are loaded as disabled
+    record Capabilities(boolean prediction, boolean loadSignals, boolean entityEvents) {
+    }
+
+    // Blank file for no export
+    record MetricsSettings(String prometheusFile, int writeIntervalSeconds) {
+    }
+
+    record TickSensorSettings(TickSensor.Signal signal, int shortWindowTicks, int longWindowTicks) {
+    }
+
+    record ForecastSettings(boolean enabled, int windowTicks, double horizonSeconds, double confidenceSigmas) {
+    }
+
+    record LoadSignalSettings(boolean enabled, double tpsFloor, double tpsWeight, double allocationWeight,
+                              double youngGcWeight, double heapWeight, double cpuWeight,
+                              double allocationHighMbPerSecond, double youngGcHighPercent,
+                              double heapLowPercent, double heapHighPercent,
+                              boolean ignoreMajorGc, boolean ignoreOtherProcesses) {
+    }
+
+    record DensitySettings(boolean enabled, int softLimit, int hardLimit, double minRangeFactor) {
+    }
+
+    record OwnerBudgetSettings(boolean enabled, boolean groupByTeam, int budgetSpawners, double minRangeFactor,
+                               double tpsBelow, double tpsRecover) {
+    }
+
+    // A radius of 0 while disabled, so no clusters are tracked
+    record ClusterSettings(boolean enabled, int radius, ClusterThrottle.Mode mode, int minSize, int activeSpawners,
+                           double tpsBelow, double tpsRecover) {
+    }
+
+    record ThrottleSettings(boolean enabled, double halfLifeSeconds, double tpsBelow, double tpsRecover,
+                            double topPercent, double minSpawnsPerMinute,
+                            double delayMultiplier, int maxNearbyEntities, int spawnCount) {
+    }
+
+    // Features the server can't support are switched off with a warning to the logger
+    static PluginSettings load(ConfigurationSection config, Capabilities capabilities, Logger logger) {
+        return new PluginSettings(
+                // Practical max range is 128 due to vanilla limitations
+                config.getInt("initial-spawner-range", 64),
+                config.getInt("spawner-range-high", 128),
+                config.getInt("spawner-range-low", 16),
+                config.getDouble("tps-threshold-low", 15.0),
+                config.getDouble("tps-threshold-high", 18.0),
+                Math.max(1, config.getInt("update-interval-ticks", 200)),
+                config.getBoolean("affect-naturally-generated", false),
+                config.getBoolean("update-preexisting-spawners", false),
+                Math.max(50_000L, config.getLong("tick-budget-nanos", 2_000_000L)),
+                Set.copyOf(config.getStringList("disabled-worlds")),
+                config.getBoolean("only-update-near-players", true),
+                config.getInt("player-chunk-radius", 5),
+                config.getString("range-application", "eager").equalsIgnoreCase("lazy"),
+                Math.max(1, config.getInt("lazy-activation-radius", 4)),
+                Math.max(1, config.getInt("lazy-idle-intervals", 3)),
+                config.getBoolean("persist-spawner-registry", true),
+                new MetricsSettings(config.getString("metrics.prometheus-file", ""),
+                        Math.max(1, config.getInt("metrics.write-interval-seconds", 15))),
+                new TickSensorSettings(TickSensor.Signal.parse(config.getString("tick-sensor.signal", "tps")),
+                        config.getInt("tick-sensor.short-window-ticks", 100),
+                        config.getInt("tick-sensor.long-window-ticks", 1200)),
+                RangeControllers.Settings.load(config, logger),
+                loadForecast(config, capabilities, logger),
+                loadSignals(config, capabilities, logger),
+                loadDensity(config, capabilities, logger),
+                loadOwnerBudget(config),
+                loadClusters(config),
+                loadThrottle(config));
+    }
+
+    SpawnerRangePolicy rangePolicy() {
+        return new SpawnerRangePolicy(affectNaturallyGenerated, updatePreexistingSpawners);
+    }
+
+    boolean isDisabled(String worldName) {
+        return disabledWorlds.contains(worldName);
+    }
+
+    // Forecasts need per-tick times, and a regionized server has no single tick loop to forecast
+    private static ForecastSettings loadForecast(ConfigurationSection config, Capabilities capabilities, Logger logger) {
+        boolean enabled = config.getBoolean("predictive.enabled", false);
+        if (enabled && !capabilities.prediction()) {
+            logger.warning("Predictive ranges need Paper's tick times on a non-regionized server, reacting to measured TPS only");
+            enabled = false;
+        }
+        return new ForecastSettings(enabled,
+                config.getInt("predictive.window-ticks", 600),
+                config.getDouble("predictive.horizon-seconds", 30.0),
+                config.getDouble("predictive.confidence-sigmas", 2.0));
+    }
+
+    // JVM-wide signals can't be attributed to a single region
+    private static LoadSignalSettings loadSignals(ConfigurationSection config, Capabilities capabilities, Logger logger) {
+        boolean enabled = config.getBoolean("load-signals.enabled", false);
+        if (enabled && !capabilities.loadSignals()) {
+            logger.warning("Load signals aren't used on regionized servers, each region follows its own TPS");
+            enabled = false;
+        }
+        return new LoadSignalSettings(enabled,
+                config.getDouble("load-signals.tps-floor", 10.0),
+                config.getDouble("load-signals.weights.tps", 1.0),
+                config.getDouble("load-signals.weights.allocation", 0.0),
+                config.getDouble("load-signals.weights.young-gc", 0.0),
+                config.getDouble("load-signals.weights.heap", 0.0),
+                config.getDouble("load-signals.weights.cpu", 0.0),
+                config.getDouble("load-signals.allocation-high-mb-per-second", 1500.0),
+                config.getDouble("load-signals.young-gc-high-percent", 10.0),
+                config.getDouble("load-signals.heap-low-percent", 60.0),
+                config.getDouble("load-signals.heap-high-percent", 90.0),
+                config.getBoolean("load-signals.ignore-major-gc", true),
+                config.getBoolean("load-signals.ignore-other-processes", true));
+    }
+
+    private static DensitySettings loadDensity(ConfigurationSection config, Capabilities capabilities, Logger logger) {
+        boolean enabled = config.getBoolean("entity-density.enabled", false);
+        if (enabled && !capabilities.entityEvents()) {
+            logger.warning("entity-density needs Paper's entity add/remove events, spawner ranges won't follow entity density");
+            enabled = false;
+        }
+        return new DensitySettings(enabled,
+                config.getInt("entity-density.soft-limit", 150),
+                config.getInt("entity-density.hard-limit", 600),
+                config.getDouble("entity-density.min-range-factor", 0.25));
+    }
+
+    private static OwnerBudgetSettings loadOwnerBudget(ConfigurationSection config) {
+        double tpsBelow = config.getDouble("owner-budget.tps-below", 19.0);
+        return new OwnerBudgetSettings(config.getBoolean("owner-budget.enabled", false),
+                config.getString("owner-budget.group-by", "player").equalsIgnoreCase("team"),
+                config.getInt("owner-budget.budget-spawners", 16),
+                config.getDouble("owner-budget.min-range-factor", 0.25),
+                tpsBelow,
+                Math.max(tpsBelow, config.getDouble("owner-budget.tps-recover", 19.5)));
+    }
+
+    private static ClusterSettings loadClusters(ConfigurationSection config) {
+        boolean enabled = config.getBoolean("spawner-clusters.enabled", false);
+        double tpsBelow = config.getDouble("spawner-clusters.tps-below", 18.0);
+        return new ClusterSettings(enabled,
+                enabled ? config.getInt("spawner-clusters.radius", 8) : 0,
+                ClusterThrottle.Mode.parse(config.getString("spawner-clusters.mode", "active-limit")),
+                config.getInt("spawner-clusters.min-size", 4),
+                config.getInt("spawner-clusters.active-spawners", 2),
+                tpsBelow,
+                Math.max(tpsBelow, config.getDouble("spawner-clusters.tps-recover", 19.0)));
+    }
+
+    private static ThrottleSettings loadThrottle(ConfigurationSection config) {
+        double tpsBelow = config.getDouble("spawner-throttle.tps-below", 17.0);
+        return new ThrottleSettings(config.getBoolean("spawner-throttle.enabled", false),
+                config.getDouble("spawner-throttle.half-life-seconds", 300.0),
+                tpsBelow,
+                Math.max(tpsBelow, config.getDouble("spawner-throttle.tps-recover", 18.5)),
+                Math.max(0.0, Math.min(100.0, config.getDouble("spawner-throttle.top-percent", 5.0))),
+                config.getDouble("spawner-throttle.min-spawns-per-minute", 4.0),
+                Math.max(1.0, config.getDouble("spawner-throttle.delay-multiplier", 2.0)),
+                Math.max(1, config.getInt("spawner-throttle.max-nearby-entities", 4)),
+                Math.max(1, config.getInt("spawner-throttle.spawn-count", 2)));
+    }
+}
@@ -0,0 +1,12 @@
+package hasjamon.block4block;
+
+// Maps a TPS sample to the spawner range the server should be running at.
+// Implementations only express the desired range; RangeGovernor limits how fast it is applied.
+interface RangeController {
+
+    // Desired spawner range for the given TPS, knowing the range currently applied
+    int desiredRange(double tps, int currentRange);
+
+    // Short name shown in the status command
+    String name();
+}
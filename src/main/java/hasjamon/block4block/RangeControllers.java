@@ -0,0 +1,89 @@
+package hasjamon.block4block;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+// Builds the configured range controller and governor from a config file. Only needs the config
+// API, not a server, so the plugin and the offline simulator make the same decisions from the same file.
+// The plugin keeps the parsed Settings in PluginSettings and only builds a new governor when they change.
+final class RangeControllers {
+
+    private RangeControllers() {
+    }
+
+    // Everything a governor is built from, so a reload can tell whether the running one still fits
+    record Settings(String type, int rangeLow, int rangeHigh, double tpsLow, double tpsHigh,
+                    List<SteppedRangeController.Tier> tiers, double hysteresis, double ewmaAlpha,
+                    int maxChangePerInterval, long minDwellMillis, int quantizeStep) {
+
+        // Invalid tiers are logged to the logger unless it is null
+        static Settings load(ConfigurationSection config, Logger logger) {
+            List<SteppedRangeController.Tier> tiers = new ArrayList<>();
+            for (Map<?, ?> entry : config.getMapList("range-controller.tiers")) {
+                if (entry.get("tps") instanceof Number tps && entry.get("range") instanceof Number range) {
+                    tiers.add(new SteppedRangeController.Tier(tps.doubleValue(), range.intValue()));
+                } else if (logger != null) {
+                    logger.warning("Ignoring invalid range-controller tier: " + entry);
+                }
+            }
+            return new Settings(config.getString("range-controller.type", "threshold").toLowerCase(Locale.ROOT),
+                    config.getInt("spawner-range-low", 16),
+                    config.getInt("spawner-range-high", 128),
+                    config.getDouble("tps-threshold-low", 15.0),
+                    config.getDouble("tps-threshold-high", 18.0),
+                    List.copyOf(tiers),
+                    config.getDouble("range-controller.hysteresis", 0.5),
+                    config.getDouble("range-controller.ewma-alpha", 0.3),
+                    config.getInt("range-controller.max-change-per-interval", 0),
+                    config.getLong("range-controller.min-dwell-seconds", 0L) * 1000L,
+                    config.getInt("range-controller.quantize-step", 1));
+        }
+    }
+
+    // Governor around a fresh controller; problems are logged to the logger unless it is null
+    static RangeGovernor createGovernor(ConfigurationSection config, Logger logger) {
+        return createGovernor(Settings.load(config, logger), logger);
+    }
+
+    static RangeGovernor createGovernor(Settings settings, Logger logger) {
+        // Without a range-controller section this behaves exactly like the original low/high switch
+        return new RangeGovernor(createController(settings, logger),
+                settings.maxChangePerInterval(), settings.minDwellMillis(), settings.quantizeStep());
+    }
+
+    static RangeController createController(Settings settings, Logger logger) {
+        switch (settings.type()) {
+            case "stepped": {
+                if (!settings.tiers().isEmpty()) {
+                    return new SteppedRangeController(settings.tiers().toArray(new SteppedRangeController.Tier[0]),
+                            settings.hysteresis());
+                }
+                if (logger != null) {
+                    logger.warning("No valid range-controller tiers configured, falling back to threshold controller");
+                }
+                break;
+            }
+            case "ewma":
+                if (settings.tpsHigh() > settings.tpsLow()) {
+                    return new EwmaRangeController(settings.rangeLow(), settings.rangeHigh(), settings.tpsLow(),
+                            settings.tpsHigh(), settings.ewmaAlpha());
+                }
+                if (logger != null) {
+                    logger.warning("EWMA range controller needs tps-threshold-high above tps-threshold-low, falling back to threshold controller");
+                }
+                break;
+            case "threshold":
+                break;
+            default:
+                if (logger != null) {
+                    logger.warning("Unknown range-controller type '" + settings.type() + "', falling back to threshold controller");
+                }
+        }
+        return new ThresholdRangeController(settings.rangeLow(), settings.rangeHigh(), settings.tpsLow(), settings.tpsHigh());
+    }
+}
@@ -0,0 +1,62 @@
+package hasjamon.block4block;
+
+// Shapes a controller's desired range before it is applied: rounds it to a quantization step,
+// limits how far it may move per update interval, and enforces a minimum dwell time between
+// changes. Returns the currently applied range unchanged whenever no spawner writes are warranted.
+final class RangeGovernor {
+
+    private final RangeController controller;
+    private final int maxChangePerInterval;
+    private final long minDwellMillis;
+    private final int quantizeStep;
+    private long lastChangeMillis = Long.MIN_VALUE;
+
+    RangeGovernor(RangeController controller, int maxChangePerInterval, long minDwellMillis, int quantizeStep) {
+        this.controller = controller;
+        this.maxChangePerInterval = Math.max(0, maxChangePerInterval);
+        this.minDwellMillis = Math.max(0L, minDwellMillis);
+        this.quantizeStep = Math.max(1, quantizeStep);
+    }
+
+    RangeController getController() {
+        return controller;
+    }
+
+    // Range to apply for this TPS sample; equals currentRange if nothing should change
+    int nextRange(double tps, int currentRange, long nowMillis) {
+        int desired = quantize(controller.desiredRange(tps, currentRange));
+
+        if (maxChangePerInterval > 0 && Math.abs(desired - currentRange) > maxChangePerInterval) {
+            // Move at least one quantization step, otherwise a small limit would never get anywhere
+            int step = Math.max(quantizeStep, maxChangePerInterval - maxChangePerInterval % quantizeStep);
+            desired = desired > currentRange ? currentRange + step : currentRange - step;
+        }
+
+        if (desired == currentRange) {
+            return currentRange;
+        }
+
+        if (lastChangeMillis != Long.MIN_VALUE && nowMillis - lastChangeMillis < minDwellMillis) {
+            return currentRange;
+        }
+
+        lastChangeMillis = nowMillis;
+        return desired;
+    }
+
+    // Milliseconds until another change is allowed
+    long remainingDwellMillis(long nowMillis) {
+        if (lastChangeMillis == Long.MIN_VALUE) {
+            return 0L;
+        }
+        return Math.max(0L, minDwellMillis - (nowMillis - lastChangeMillis));
+    }
+
+    private int quantize(int range) {
+        if (quantizeStep == 1) {
+            return Math.max(1, range);
+        }
+        int quantized = Math.round((float) range / quantizeStep) * quantizeStep;
+        return Math.max(quantizeStep, quantized);
+    }
+}
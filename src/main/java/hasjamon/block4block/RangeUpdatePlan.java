@@ -0,0 +1,87 @@
+package hasjamon.block4block;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// The spawners whose range has to change, as (world, position, new range) entries. Computed off
+// the main thread from a SpawnerSnapshot; the main thread then only applies the entries.
+final class RangeUpdatePlan {
+
+    private final int baseRange;
+    private final int generation;
+    private final UUID[] worldIds;
+    private final long[] blockKeys;
+    private final int[] ranges;
+    private final int size;
+    private final int examined;
+
+    private RangeUpdatePlan(int baseRange, int generation, UUID[] worldIds, long[] blockKeys, int[] ranges, int size, int examined) {
+        this.baseRange = baseRange;
+        this.generation = generation;
+        this.worldIds = worldIds;
+        this.blockKeys = blockKeys;
+        this.ranges = ranges;
+        this.size = size;
+        this.examined = examined;
+    }
+
+    // Pure function of its inputs, safe to call from any thread
+    static RangeUpdatePlan compute(SpawnerSnapshot snapshot, SpawnerRangePolicy policy, int baseRange, int generation) {
+        UUID[] worldIds = new UUID[Math.max(16, snapshot.size() / 4)];
+        long[] blockKeys = new long[worldIds.length];
+        int[] ranges = new int[worldIds.length];
+        int size = 0;
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            int target = policy.targetRange(snapshot.isPlayerPlaced(i), baseRange);
+            if (target == SpawnerRangePolicy.UNMANAGED) {
+                continue;
+            }
+            target = EntityDensityTracker.scale(EntityDensityTracker.scale(target, snapshot.densitySteps(i)), snapshot.ownerSteps(i));
+            target = ClusterThrottle.scale(target, snapshot.clusterSteps(i));
+            if (target == snapshot.range(i)) {
+                continue;
+            }
+            if (size == blockKeys.length) {
+                worldIds = Arrays.copyOf(worldIds, size << 1);
+                blockKeys = Arrays.copyOf(blockKeys, size << 1);
+                ranges = Arrays.copyOf(ranges, size << 1);
+            }
+            worldIds[size] = snapshot.worldId(i);
+            blockKeys[size] = snapshot.blockKey(i);
+            ranges[size] = target;
+            size++;
+        }
+        return new RangeUpdatePlan(baseRange, generation, worldIds, blockKeys, ranges, size, snapshot.size());
+    }
+
+    int baseRange() {
+        return baseRange;
+    }
+
+    // Range generation the plan was made for; plans for an older generation are dropped
+    int generation() {
+        return generation;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Spawners looked at while planning, including those that needed no change
+    int examined() {
+        return examined;
+    }
+
+    UUID worldId(int index) {
+        return worldIds[index];
+    }
+
+    long blockKey(int index) {
+        return blockKeys[index];
+    }
+
+    int range(int index) {
+        return ranges[index];
+    }
+}
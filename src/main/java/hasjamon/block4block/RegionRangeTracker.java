@@ -0,0 +1,166 @@
+package hasjamon.block4block;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// Per-region spawner ranges for regionized servers. Chunks are grouped into 16x16-chunk sections,
+// Folia's default region grid, so a section never spans two regions. Each section with indexed
+// spawners gets its own governor, fed by the TPS of the region that currently owns it; an overloaded
+// region shrinks its spawner ranges without penalizing healthy ones.
+// Evaluated from the global region, read by region threads when chunks load.
+final class RegionRangeTracker {
+
+    static final int SECTION_SHIFT = 4;
+
+    // Per-section state; range is read without the lock by rangeAt callers
+    static final class Section {
+        private final RangeGovernor governor;
+        private volatile int range;
+        private double lastTps = 20.0;
+        private int evaluatedPass;
+        private int changedPass;
+
+        private Section(RangeGovernor governor, int range) {
+            this.governor = governor;
+            this.range = range;
+        }
+
+        int range() {
+            return range;
+        }
+
+        boolean changedIn(int pass) {
+            return changedPass == pass;
+        }
+    }
+
+    private final MethodHandle regionTpsGetter;
+    private final DoubleSupplier fallbackTps;
+    private final Map<UUID, LongObjectHashMap<Section>> worlds = new HashMap<>();
+    private Supplier<RangeGovernor> governorFactory;
+    private int pass;
+    private double lowestTps = 20.0;
+
+    private RegionRangeTracker(MethodHandle regionTpsGetter, DoubleSupplier fallbackTps) {
+        this.regionTpsGetter = regionTpsGetter;
+        this.fallbackTps = fallbackTps;
+    }
+
+    // Bind Server.getRegionTPS(World, int, int) once; without it every section follows the fallback
+    static RegionRangeTracker create(Logger logger, DoubleSupplier fallbackTps) {
+        MethodHandle getter = null;
+        try {
+            getter = MethodHandles.publicLookup().findVirtual(Bukkit.getServer().getClass(), "getRegionTPS",
+                    MethodType.methodType(double[].class, World.class, int.class, int.class)).bindTo(Bukkit.getServer());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warning("Unable to locate per-region TPS (" + e.getMessage() + "). All regions will use the server TPS.");
+        }
+        return new RegionRangeTracker(getter, fallbackTps);
+    }
+
+    // Sections keep no state worth carrying over a governor change, they are recreated on demand
+    synchronized void setGovernorFactory(Supplier<RangeGovernor> governorFactory) {
+        this.governorFactory = governorFactory;
+        worlds.clear();
+    }
+
+    // Start a monitoring pass; each section is evaluated at most once per pass
+    synchronized int beginPass() {
+        lowestTps = 20.0;
+        return ++pass;
+    }
+
+    // Re-evaluate the section containing a chunk from its region's TPS, once per pass
+    synchronized Section evaluate(World world, int chunkX, int chunkZ, int initialRange, long nowMillis) {
+        LongObjectHashMap<Section> sections = worlds.computeIfAbsent(world.getUID(), id -> new LongObjectHashMap<>());
+        long sectionKey = BlockKeys.chunkKey(chunkX >> SECTION_SHIFT, chunkZ >> SECTION_SHIFT);
+        Section section = sections.get(sectionKey);
+        if (section == null) {
+            section = new Section(governorFactory.get(), initialRange);
+            sections.put(sectionKey, section);
+        }
+        if (section.evaluatedPass == pass) {
+            return section;
+        }
+
+        section.evaluatedPass = pass;
+        section.lastTps = regionTps(world, chunkX, chunkZ);
+        lowestTps = Math.min(lowestTps, section.lastTps);
+        int newRange = section.governor.nextRange(section.lastTps, section.range, nowMillis);
+        if (newRange != section.range) {
+            section.range = newRange;
+            section.changedPass = pass;
+        }
+        return section;
+    }
+
+    // Range for spawners in a chunk: its section's range, or the fallback if it hasn't been evaluated
+    synchronized int rangeAt(UUID worldId, int chunkX, int chunkZ, int fallback) {
+        LongObjectHashMap<Section> sections = worlds.get(worldId);
+        if (sections == null) {
+            return fallback;
+        }
+        Section section = sections.get(BlockKeys.chunkKey(chunkX >> SECTION_SHIFT, chunkZ >> SECTION_SHIFT));
+        return section != null ? section.range : fallback;
+    }
+
+    synchronized void removeWorld(UUID worldId) {
+        worlds.remove(worldId);
+    }
+
+    boolean hasRegionTps() {
+        return regionTpsGetter != null;
+    }
+
+    // Lowest region TPS seen in the last pass
+    synchronized double lowestTps() {
+        return lowestTps;
+    }
+
+    // Section count and range spread, for the status command
+    synchronized String summary() {
+        int count = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (LongObjectHashMap<Section> sections : worlds.values()) {
+            for (int slot = 0; slot < sections.capacity(); slot++) {
+                Section section = sections.valueAt(slot);
+                if (section != null) {
+                    count++;
+                    min = Math.min(min, section.range);
+                    max = Math.max(max, section.range);
+                }
+            }
+        }
+        if (count == 0) {
+            return "no sections evaluated yet";
+        }
+        return count + " sections, range " + (min == max ? String.valueOf(min) : min + "-" + max)
+                + ", lowest region TPS " + String.format("%.2f", lowestTps);
+    }
+
+    // Five-second TPS of the region owning the chunk; the server TPS if unknown
+    private double regionTps(World world, int chunkX, int chunkZ) {
+        if (regionTpsGetter != null) {
+            try {
+                double[] tps = (double[]) regionTpsGetter.invoke(world, chunkX, chunkZ);
+                if (tps != null && tps.length > 0) {
+                    return tps[0];
+                }
+            } catch (Throwable ignored) {
+                // Region not ticking (chunk just unloaded), fall through
+            }
+        }
+        return fallbackTps.getAsDouble();
+    }
+}
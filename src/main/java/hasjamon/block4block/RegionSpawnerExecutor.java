@@ -0,0 +1,72 @@
+package hasjamon.block4block;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Regionized servers (Folia): the legacy BukkitScheduler throws there, so timers go to the global
+// region scheduler and chunk work to the region scheduler of the owning region.
+// Only created when RegionizedServer is present, the scheduler API itself exists on Paper too.
+final class RegionSpawnerExecutor implements SpawnerExecutor {
+
+    private final JavaPlugin plugin;
+
+    RegionSpawnerExecutor(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // Folia keeps the Paper API but replaces the tick loop with RegionizedServer
+    static boolean isRegionizedServer() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return true;
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        // The regionized schedulers reject delays below one tick
+        ScheduledTask scheduled = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, ignored -> task.run(),
+                Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+        return scheduled::cancel;
+    }
+
+    @Override
+    public void runGlobalLater(Runnable task, long delayTicks) {
+        Bukkit.getGlobalRegionScheduler().runDelayed(plugin, ignored -> task.run(), Math.max(1L, delayTicks));
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, ignored -> task.run());
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(world, chunkX, chunkZ)) {
+            task.run();
+        } else {
+            Bukkit.getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+        }
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task) {
+        player.getScheduler().run(plugin, ignored -> task.run(), null);
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getGlobalRegionScheduler().cancelTasks(plugin);
+        Bukkit.getAsyncScheduler().cancelTasks(plugin);
+    }
+}
@@ -0,0 +1,177 @@
+package hasjamon.block4block;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Spawns per spawner position from SpawnerSpawnEvent, as exponentially decayed scores in primitive
+// arrays. A score decays lazily when touched; at a steady spawn rate it settles at rate / lambda,
+// so it converts straight to spawns per minute. Also remembers which spawners are throttled, so
+// the hottest ones can be throttled first and restored once load or their activity drops.
+// Synchronized: on regionized servers spawns are reported from several region threads.
+final class SpawnerActivityTracker {
+
+    // Entries decayed below this (and not throttled) are dropped when ranking
+    private static final double EVICT_SCORE = 0.05;
+
+    // One tracked spawner, ranked by its current spawn rate
+    record Entry(UUID worldId, long blockKey, double spawnsPerMinute, int totalSpawns, boolean throttled) {
+    }
+
+    // Spawners to throttle and to restore after a selection pass
+    record Selection(List<Entry> throttle, List<Entry> restore) {
+    }
+
+    private final Map<UUID, WorldActivity> worlds = new HashMap<>();
+    private double lambdaPerMilli = Math.log(2) / 300_000.0;
+
+    synchronized void setHalfLifeSeconds(double halfLifeSeconds) {
+        lambdaPerMilli = Math.log(2) / (Math.max(1.0, halfLifeSeconds) * 1000.0);
+    }
+
+    synchronized void recordSpawn(UUID worldId, long blockKey, long nowMillis) {
+        WorldActivity activity = worlds.computeIfAbsent(worldId, id -> new WorldActivity());
+        int slot = activity.slots.get(blockKey, -1);
+        if (slot < 0) {
+            slot = activity.add(blockKey, nowMillis);
+        }
+        activity.scores[slot] = decayed(activity, slot, nowMillis) + 1.0;
+        activity.lastMillis[slot] = nowMillis;
+        activity.totals[slot]++;
+    }
+
+    synchronized boolean isThrottled(UUID worldId, long blockKey) {
+        WorldActivity activity = worlds.get(worldId);
+        if (activity == null) {
+            return false;
+        }
+        int slot = activity.slots.get(blockKey, -1);
+        return slot >= 0 && activity.throttled[slot];
+    }
+
+    synchronized void removeWorld(UUID worldId) {
+        worlds.remove(worldId);
+    }
+
+    synchronized int size() {
+        int size = 0;
+        for (WorldActivity activity : worlds.values()) {
+            size += activity.size;
+        }
+        return size;
+    }
+
+    synchronized int throttledCount() {
+        int count = 0;
+        for (WorldActivity activity : worlds.values()) {
+            for (int slot = 0; slot < activity.size; slot++) {
+                if (activity.throttled[slot]) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // The most active spawners, busiest first
+    synchronized List<Entry> top(int limit, long nowMillis) {
+        List<Entry> entries = ranked(nowMillis);
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    // Decide which spawners should be throttled: the busiest topPercent of all tracked spawners
+    // that spawn at least minSpawnsPerMinute, and none if the server isn't overloaded. Returns
+    // the changes against the current throttled set and records the new set.
+    synchronized Selection select(boolean overloaded, double topPercent, double minSpawnsPerMinute, long nowMillis) {
+        List<Entry> ranked = ranked(nowMillis);
+        int budget = overloaded ? (int) Math.ceil(ranked.size() * topPercent / 100.0) : 0;
+
+        List<Entry> throttle = new ArrayList<>();
+        List<Entry> restore = new ArrayList<>();
+        int chosen = 0;
+        for (Entry entry : ranked) {
+            boolean hot = chosen < budget && entry.spawnsPerMinute() >= minSpawnsPerMinute;
+            if (hot) {
+                chosen++;
+            }
+            if (hot != entry.throttled()) {
+                WorldActivity activity = worlds.get(entry.worldId());
+                activity.throttled[activity.slots.get(entry.blockKey(), -1)] = hot;
+                (hot ? throttle : restore).add(entry);
+            }
+        }
+        return new Selection(throttle, restore);
+    }
+
+    // Every tracked spawner with its decayed rate, busiest first; drops entries that have gone quiet
+    private List<Entry> ranked(long nowMillis) {
+        List<Entry> entries = new ArrayList<>();
+        double perMinute = lambdaPerMilli * 60_000.0;
+        for (Map.Entry<UUID, WorldActivity> world : worlds.entrySet()) {
+            WorldActivity activity = world.getValue();
+            // Backwards so swap-removal doesn't skip anything
+            for (int slot = activity.size - 1; slot >= 0; slot--) {
+                double score = decayed(activity, slot, nowMillis);
+                if (score < EVICT_SCORE && !activity.throttled[slot]) {
+                    activity.remove(slot);
+                    continue;
+                }
+                entries.add(new Entry(world.getKey(), activity.blockKeys[slot], score * perMinute,
+                        activity.totals[slot], activity.throttled[slot]));
+            }
+        }
+        entries.sort((a, b) -> Double.compare(b.spawnsPerMinute(), a.spawnsPerMinute()));
+        return entries;
+    }
+
+    private double decayed(WorldActivity activity, int slot, long nowMillis) {
+        long age = nowMillis - activity.lastMillis[slot];
+        return age <= 0 ? activity.scores[slot] : activity.scores[slot] * Math.exp(-age * lambdaPerMilli);
+    }
+
+    // Dense per-world arrays addressed through a block key -> slot map
+    private static final class WorldActivity {
+        final LongIntHashMap slots = new LongIntHashMap(64);
+        long[] blockKeys = new long[16];
+        double[] scores = new double[16];
+        long[] lastMillis = new long[16];
+        int[] totals = new int[16];
+        boolean[] throttled = new boolean[16];
+        int size;
+
+        int add(long blockKey, long nowMillis) {
+            if (size == blockKeys.length) {
+                int capacity = size << 1;
+                blockKeys = Arrays.copyOf(blockKeys, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                lastMillis = Arrays.copyOf(lastMillis, capacity);
+                totals = Arrays.copyOf(totals, capacity);
+                throttled = Arrays.copyOf(throttled, capacity);
+            }
+            int slot = size++;
+            blockKeys[slot] = blockKey;
+            scores[slot] = 0.0;
+            lastMillis[slot] = nowMillis;
+            totals[slot] = 0;
+            throttled[slot] = false;
+            slots.put(blockKey, slot, -1);
+            return slot;
+        }
+
+        void remove(int slot) {
+            slots.remove(blockKeys[slot], -1);
+            int last = --size;
+            if (slot != last) {
+                blockKeys[slot] = blockKeys[last];
+                scores[slot] = scores[last];
+                lastMillis[slot] = lastMillis[last];
+                totals[slot] = totals[last];
+                throttled[slot] = throttled[last];
+                slots.put(blockKeys[slot], slot, -1);
+            }
+        }
+    }
+}
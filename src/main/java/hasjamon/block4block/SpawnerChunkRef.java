@@ -0,0 +1,7 @@
+package hasjamon.block4block;
+
+import org.bukkit.World;
+
+// A spawner-bearing chunk queued for a range update
+record SpawnerChunkRef(World world, SpawnerIndex.SpawnerChunk chunk) {
+}
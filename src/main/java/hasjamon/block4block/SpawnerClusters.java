@@ -0,0 +1,239 @@
+package hasjamon.block4block;
+
+import java.util.Arrays;
+
+// The spawners of one world grouped into clusters: spawners within `radius` blocks of each other,
+// transitively. A union-find kept up to date by the spawner index as spawners are placed, loaded,
+// broken and unloaded; adding a spawner unions it with its indexed neighbours, found in the chunks
+// around it. Union-find can't split a set, so removing a spawner only unlinks it and marks its
+// cluster dirty; dirty clusters are rebuilt from their remaining members when clusters are next
+// read, or when the owner settles them (every update interval), so removed nodes are freed even while
+// nobody reads the clusters. Members of each cluster form a circular linked list, so merging and listing are cheap.
+// Guarded by the same lock as the index.
+final class SpawnerClusters {
+
+    // Largest supported radius, neighbours then always lie in the chunks next to the spawner's
+    static final int MAX_RADIUS = 16;
+
+    // Called with the block keys of one cluster; the array is reused between calls
+    interface ClusterVisitor {
+        void visit(long[] blockKeys, int size);
+    }
+
+    private final LongObjectHashMap<SpawnerIndex.SpawnerChunk> chunks;
+    private final int radius;
+    private final LongIntHashMap nodes = new LongIntHashMap();
+
+    // Per node; a parent of -1 marks a free slot
+    private long[] blockKeys = new long[16];
+    private int[] parent = new int[16];
+    private int[] size = new int[16];
+    private int[] next = new int[16];
+    private int[] prev = new int[16];
+    private int[] settled = new int[16];
+    private int nodeCount;
+    private IntStack free = new IntStack();
+
+    // Removed nodes that may still be on parent paths, freed once their clusters are rebuilt
+    private IntStack retired = new IntStack();
+    // Surviving members of clusters that lost a spawner
+    private IntStack dirty = new IntStack();
+    private int settleRound;
+
+    private long[] members = new long[16];
+
+    SpawnerClusters(LongObjectHashMap<SpawnerIndex.SpawnerChunk> chunks, int radius) {
+        this.chunks = chunks;
+        this.radius = Math.max(1, Math.min(MAX_RADIUS, radius));
+    }
+
+    int radius() {
+        return radius;
+    }
+
+    void add(long blockKey) {
+        if (nodes.containsKey(blockKey)) {
+            return;
+        }
+        int node = allocate(blockKey);
+        nodes.put(blockKey, node, -1);
+        unionWithNeighbours(node);
+    }
+
+    void remove(long blockKey) {
+        int node = nodes.remove(blockKey, -1);
+        if (node < 0) {
+            return;
+        }
+        if (next[node] != node) {
+            dirty.push(next[node]);
+            next[prev[node]] = next[node];
+            prev[next[node]] = prev[node];
+        }
+        next[node] = node;
+        prev[node] = node;
+        retired.push(node);
+    }
+
+    // Visit every cluster of at least minSize spawners
+    void forEachCluster(int minSize, ClusterVisitor visitor) {
+        settle();
+        for (int node = 0; node < nodeCount; node++) {
+            if (parent[node] != node || size[node] < minSize) {
+                continue;
+            }
+            int count = 0;
+            int member = node;
+            do {
+                if (count == members.length) {
+                    members = Arrays.copyOf(members, count << 1);
+                }
+                members[count++] = blockKeys[member];
+                member = next[member];
+            } while (member != node);
+            visitor.visit(members, count);
+        }
+    }
+
+    // Rebuild the clusters that lost members, then free the removed nodes
+    void settle() {
+        if (retired.size == 0) {
+            return;
+        }
+        settleRound++;
+        IntStack rebuild = new IntStack();
+        while (dirty.size > 0) {
+            int start = dirty.pop();
+            if (parent[start] < 0 || nodes.get(blockKeys[start], -1) != start || settled[start] == settleRound) {
+                continue;
+            }
+            // Split the list into singletons, then union them again with what is still around
+            rebuild.size = 0;
+            int member = start;
+            do {
+                rebuild.push(member);
+                member = next[member];
+            } while (member != start);
+            for (int i = 0; i < rebuild.size; i++) {
+                int node = rebuild.values[i];
+                settled[node] = settleRound;
+                parent[node] = node;
+                size[node] = 1;
+                next[node] = node;
+                prev[node] = node;
+            }
+            for (int i = 0; i < rebuild.size; i++) {
+                unionWithNeighbours(rebuild.values[i]);
+            }
+        }
+        while (retired.size > 0) {
+            int node = retired.pop();
+            parent[node] = -1;
+            free.push(node);
+        }
+    }
+
+    private void unionWithNeighbours(int node) {
+        long blockKey = blockKeys[node];
+        int x = BlockKeys.blockX(blockKey);
+        int y = BlockKeys.blockY(blockKey);
+        int z = BlockKeys.blockZ(blockKey);
+        int radiusSquared = radius * radius;
+        for (int chunkX = (x - radius) >> 4; chunkX <= (x + radius) >> 4; chunkX++) {
+            for (int chunkZ = (z - radius) >> 4; chunkZ <= (z + radius) >> 4; chunkZ++) {
+                SpawnerIndex.SpawnerChunk chunk = chunks.get(BlockKeys.chunkKey(chunkX, chunkZ));
+                if (chunk == null) {
+                    continue;
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    long other = chunk.blockKey(i);
+                    if (other == blockKey) {
+                        continue;
+                    }
+                    int dx = BlockKeys.blockX(other) - x;
+                    int dy = BlockKeys.blockY(other) - y;
+                    int dz = BlockKeys.blockZ(other) - z;
+                    if (dx * dx + dy * dy + dz * dz > radiusSquared) {
+                        continue;
+                    }
+                    // Spawners of a chunk being indexed get their node one after another
+                    int neighbour = nodes.get(other, -1);
+                    if (neighbour >= 0) {
+                        union(node, neighbour);
+                    }
+                }
+            }
+        }
+    }
+
+    private int find(int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        // Splice the two member lists into one, at the nodes themselves: a root may already have
+        // been removed and unlinked from its list, `a` and `b` are always still indexed
+        int nextA = next[a];
+        int nextB = next[b];
+        next[a] = nextB;
+        prev[nextB] = a;
+        next[b] = nextA;
+        prev[nextA] = b;
+    }
+
+    private int allocate(long blockKey) {
+        int node;
+        if (free.size > 0) {
+            node = free.pop();
+        } else {
+            if (nodeCount == parent.length) {
+                int capacity = nodeCount << 1;
+                blockKeys = Arrays.copyOf(blockKeys, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                size = Arrays.copyOf(size, capacity);
+                next = Arrays.copyOf(next, capacity);
+                prev = Arrays.copyOf(prev, capacity);
+                settled = Arrays.copyOf(settled, capacity);
+            }
+            node = nodeCount++;
+        }
+        blockKeys[node] = blockKey;
+        parent[node] = node;
+        size[node] = 1;
+        next[node] = node;
+        prev[node] = node;
+        return node;
+    }
+
+    private static final class IntStack {
+        private int[] values = new int[16];
+        private int size;
+
+        void push(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+    }
+}
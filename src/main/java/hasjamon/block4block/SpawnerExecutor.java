@@ -0,0 +1,36 @@
+package hasjamon.block4block;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+// Where the plugin's work runs. A Bukkit server ticks everything on one main thread; a regionized
+// server (Folia) ticks each region on its own thread, so block access has to be scheduled on the
+// region that owns the chunk and timers run on the global region. Everything goes through this
+// interface, so the rest of the plugin doesn't care which kind of server it is on and a stand-in
+// that runs tasks in place can be used to exercise the scheduling logic.
+interface SpawnerExecutor {
+
+    // Handle for a repeating task
+    interface Task {
+        void cancel();
+    }
+
+    // True if chunks are owned by different threads and must be reached through runAtChunk
+    boolean isRegionized();
+
+    // Repeating task for plugin-wide work (TPS monitoring, the update scheduler); must not touch blocks
+    // on a regionized server. Delays are in ticks.
+    Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+    void runGlobalLater(Runnable task, long delayTicks);
+
+    void runAsync(Runnable task);
+
+    // Run on the thread that owns the chunk; immediately if the caller already does
+    void runAtChunk(World world, int chunkX, int chunkZ, Runnable task);
+
+    // Run on the thread that owns the player; skipped if the player is gone by then
+    void runForPlayer(Player player, Runnable task);
+
+    void cancelAll();
+}
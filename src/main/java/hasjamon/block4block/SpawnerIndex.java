@@ -0,0 +1,487 @@
+package hasjamon.block4block;
+
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Known spawner positions per world, grouped by chunk and stored as packed block keys (see BlockKeys).
+// Kept up to date from chunk load/unload and spawner place/break events so range changes only
+// have to visit blocks that are actually spawners. Each entry also caches the spawner's flags, owner
+// (see OwnerBudgets) and the range it was last seen with, so updates can be planned without touching
+// the world.
+// Must be accessed under the plugin's state lock; on Folia, chunk loads, events and updates reach it
+// from region threads.
+final class SpawnerIndex {
+
+    // Spawner carries the player-placed marker
+    static final byte FLAG_PLAYER_PLACED = 1;
+    // Spawner was last left throttled by the plugin (see SpawnerThrottle)
+    static final byte FLAG_THROTTLED = 2;
+
+    private final Map<UUID, WorldSpawners> worlds = new HashMap<>();
+
+    // Radius within which spawners form clusters (see SpawnerClusters), 0 to not track clusters
+    private int clusterRadius;
+
+    WorldSpawners getWorld(World world) {
+        return worlds.get(world.getUID());
+    }
+
+    Iterable<WorldSpawners> worlds() {
+        return worlds.values();
+    }
+
+    // Start, stop or regroup cluster tracking; rebuilds the clusters of every world if the radius changed
+    void setClusterRadius(int radius) {
+        radius = radius <= 0 ? 0 : Math.min(SpawnerClusters.MAX_RADIUS, radius);
+        if (radius == clusterRadius) {
+            return;
+        }
+        clusterRadius = radius;
+        for (WorldSpawners spawners : worlds.values()) {
+            spawners.rebuildClusters(radius);
+        }
+    }
+
+    // Replace everything known about a chunk with the spawners found by a fresh scan
+    void setChunk(World world, int chunkX, int chunkZ, long[] blockKeys, byte[] flags, short[] ranges, int[] owners, int count) {
+        long chunkKey = BlockKeys.chunkKey(chunkX, chunkZ);
+        if (count == 0) {
+            WorldSpawners spawners = worlds.get(world.getUID());
+            if (spawners != null) {
+                spawners.removeChunk(chunkKey);
+            }
+            return;
+        }
+        WorldSpawners spawners = worlds.computeIfAbsent(world.getUID(), id -> new WorldSpawners(id, world.getName(), clusterRadius));
+        SpawnerChunk chunk = new SpawnerChunk(chunkKey, count);
+        for (int i = 0; i < count; i++) {
+            chunk.add(blockKeys[i], flags[i], ranges[i], owners[i]);
+        }
+        spawners.putChunk(chunk);
+    }
+
+    void add(World world, int x, int y, int z, byte flags, int range, int owner) {
+        long blockKey = BlockKeys.blockKey(x, y, z);
+        worlds.computeIfAbsent(world.getUID(), id -> new WorldSpawners(id, world.getName(), clusterRadius)).add(blockKey, flags, (short) range, owner);
+    }
+
+    // Remember the range a spawner now has, after it was written
+    void recordRange(World world, long blockKey, int range) {
+        WorldSpawners spawners = worlds.get(world.getUID());
+        if (spawners != null) {
+            SpawnerChunk chunk = spawners.getChunk(BlockKeys.chunkKeyOfBlock(blockKey));
+            int index = chunk != null ? chunk.indexOf(blockKey) : -1;
+            if (index >= 0) {
+                chunk.setRange(index, range);
+            }
+        }
+    }
+
+    // Remember whether a spawner is throttled, after the throttle was applied or restored
+    void recordThrottled(World world, long blockKey, boolean throttled) {
+        WorldSpawners spawners = worlds.get(world.getUID());
+        if (spawners != null) {
+            SpawnerChunk chunk = spawners.getChunk(BlockKeys.chunkKeyOfBlock(blockKey));
+            int index = chunk != null ? chunk.indexOf(blockKey) : -1;
+            if (index >= 0) {
+                chunk.setFlags(index, (byte) (throttled ? chunk.flags(index) | FLAG_THROTTLED : chunk.flags(index) & ~FLAG_THROTTLED));
+            }
+        }
+    }
+
+    boolean remove(World world, int x, int y, int z) {
+        WorldSpawners spawners = worlds.get(world.getUID());
+        return spawners != null && spawners.remove(BlockKeys.blockKey(x, y, z));
+    }
+
+    void removeChunk(World world, int chunkX, int chunkZ) {
+        WorldSpawners spawners = worlds.get(world.getUID());
+        if (spawners != null) {
+            spawners.removeChunk(BlockKeys.chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    void removeWorld(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    void clear() {
+        worlds.clear();
+    }
+
+    int chunkCount() {
+        int count = 0;
+        for (WorldSpawners spawners : worlds.values()) {
+            count += spawners.chunkCount();
+        }
+        return count;
+    }
+
+    int spawnerCount() {
+        int count = 0;
+        for (WorldSpawners spawners : worlds.values()) {
+            count += spawners.spawnerCount();
+        }
+        return count;
+    }
+
+    // Spawner-bearing chunks of a single world, also bucketed into a coarse grid of 8x8-chunk
+    // cells so proximity queries only look at cells that actually contain spawners
+    static final class WorldSpawners {
+        private static final int CELL_SHIFT = 3;
+
+        private final UUID worldId;
+        private final String worldName;
+        private final LongObjectHashMap<SpawnerChunk> chunks = new LongObjectHashMap<>();
+        private final LongObjectHashMap<GridCell> cells = new LongObjectHashMap<>();
+        private int spawnerCount;
+        // Null while clusters aren't tracked
+        private SpawnerClusters clusters;
+
+        // Dense slot ids for the chunks, so a query can mark visited chunks in a reusable bitmap
+        private int[] freeSlots = new int[16];
+        private int freeSlotCount;
+        private int nextSlot;
+        private long[] visited = new long[1];
+
+        WorldSpawners(UUID worldId, String worldName, int clusterRadius) {
+            this.worldId = worldId;
+            this.worldName = worldName;
+            rebuildClusters(clusterRadius);
+        }
+
+        UUID worldId() {
+            return worldId;
+        }
+
+        String worldName() {
+            return worldName;
+        }
+
+        SpawnerChunk getChunk(long chunkKey) {
+            return chunks.get(chunkKey);
+        }
+
+        LongObjectHashMap<SpawnerChunk> chunks() {
+            return chunks;
+        }
+
+        int chunkCount() {
+            return chunks.size();
+        }
+
+        int spawnerCount() {
+            return spawnerCount;
+        }
+
+        // Null while clusters aren't tracked
+        SpawnerClusters clusters() {
+            return clusters;
+        }
+
+        private void rebuildClusters(int radius) {
+            clusters = radius > 0 ? new SpawnerClusters(chunks, radius) : null;
+            if (clusters == null) {
+                return;
+            }
+            for (int slot = 0; slot < chunks.capacity(); slot++) {
+                SpawnerChunk chunk = chunks.valueAt(slot);
+                if (chunk != null) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        clusters.add(chunk.blockKey(i));
+                    }
+                }
+            }
+        }
+
+        // Add every spawner chunk within `radius` chunks (circular) of any of the given centers
+        // (chunk keys) to `out`, each at most once. Cost scales with the spawner chunks in the
+        // grid cells around the centers, not with the area covered.
+        int collectNear(long[] centers, int centerCount, int radius, List<SpawnerChunk> out) {
+            int start = out.size();
+            int words = (nextSlot + 63) >>> 6;
+            if (visited.length < words) {
+                visited = new long[Math.max(words, visited.length << 1)];
+            }
+
+            int radiusSquared = radius * radius;
+            for (int c = 0; c < centerCount; c++) {
+                int centerX = BlockKeys.chunkX(centers[c]);
+                int centerZ = BlockKeys.chunkZ(centers[c]);
+                int minCellX = (centerX - radius) >> CELL_SHIFT;
+                int maxCellX = (centerX + radius) >> CELL_SHIFT;
+                int minCellZ = (centerZ - radius) >> CELL_SHIFT;
+                int maxCellZ = (centerZ + radius) >> CELL_SHIFT;
+
+                for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                    for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                        GridCell cell = cells.get(BlockKeys.chunkKey(cellX, cellZ));
+                        if (cell == null) {
+                            continue;
+                        }
+                        for (int i = 0; i < cell.size; i++) {
+                            SpawnerChunk chunk = cell.chunks[i];
+                            long bit = 1L << chunk.slot;
+                            int word = chunk.slot >>> 6;
+                            if ((visited[word] & bit) != 0) {
+                                continue;
+                            }
+                            int dx = BlockKeys.chunkX(chunk.chunkKey) - centerX;
+                            int dz = BlockKeys.chunkZ(chunk.chunkKey) - centerZ;
+                            if (dx * dx + dz * dz <= radiusSquared) {
+                                visited[word] |= bit;
+                                out.add(chunk);
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Reset only the bits this query set
+            for (int i = start; i < out.size(); i++) {
+                int slot = out.get(i).slot;
+                visited[slot >>> 6] &= ~(1L << slot);
+            }
+            return out.size() - start;
+        }
+
+        private void add(long blockKey, byte flags, short range, int owner) {
+            long chunkKey = BlockKeys.chunkKeyOfBlock(blockKey);
+            SpawnerChunk chunk = chunks.get(chunkKey);
+            if (chunk == null) {
+                chunk = new SpawnerChunk(chunkKey, 1);
+                chunks.put(chunkKey, chunk);
+                link(chunk);
+            }
+            if (chunk.add(blockKey, flags, range, owner)) {
+                spawnerCount++;
+                if (clusters != null) {
+                    clusters.add(blockKey);
+                }
+            }
+        }
+
+        private void putChunk(SpawnerChunk chunk) {
+            SpawnerChunk previous = chunks.put(chunk.chunkKey(), chunk);
+            if (previous != null) {
+                unlink(previous);
+            }
+            link(chunk);
+            spawnerCount += chunk.size() - (previous != null ? previous.size() : 0);
+            if (clusters != null) {
+                // Spawners that were already known keep their place in their cluster
+                if (previous != null) {
+                    for (int i = 0; i < previous.size(); i++) {
+                        if (chunk.indexOf(previous.blockKey(i)) < 0) {
+                            clusters.remove(previous.blockKey(i));
+                        }
+                    }
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (previous == null || previous.indexOf(chunk.blockKey(i)) < 0) {
+                        clusters.add(chunk.blockKey(i));
+                    }
+                }
+            }
+        }
+
+        private void removeChunk(long chunkKey) {
+            SpawnerChunk previous = chunks.remove(chunkKey);
+            if (previous != null) {
+                unlink(previous);
+                spawnerCount -= previous.size();
+                if (clusters != null) {
+                    for (int i = 0; i < previous.size(); i++) {
+                        clusters.remove(previous.blockKey(i));
+                    }
+                }
+            }
+        }
+
+        private boolean remove(long blockKey) {
+            long chunkKey = BlockKeys.chunkKeyOfBlock(blockKey);
+            SpawnerChunk chunk = chunks.get(chunkKey);
+            if (chunk == null || !chunk.remove(blockKey)) {
+                return false;
+            }
+            spawnerCount--;
+            if (clusters != null) {
+                clusters.remove(blockKey);
+            }
+            if (chunk.size() == 0) {
+                chunks.remove(chunkKey);
+                unlink(chunk);
+            }
+            return true;
+        }
+
+        private void link(SpawnerChunk chunk) {
+            chunk.slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : nextSlot++;
+            long cellKey = cellKey(chunk.chunkKey);
+            GridCell cell = cells.get(cellKey);
+            if (cell == null) {
+                cell = new GridCell();
+                cells.put(cellKey, cell);
+            }
+            cell.add(chunk);
+        }
+
+        private void unlink(SpawnerChunk chunk) {
+            long cellKey = cellKey(chunk.chunkKey);
+            GridCell cell = cells.get(cellKey);
+            if (cell != null) {
+                cell.remove(chunk);
+                if (cell.size == 0) {
+                    cells.remove(cellKey);
+                }
+            }
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount << 1);
+            }
+            freeSlots[freeSlotCount++] = chunk.slot;
+            chunk.slot = -1;
+        }
+
+        private static long cellKey(long chunkKey) {
+            return BlockKeys.chunkKey(BlockKeys.chunkX(chunkKey) >> CELL_SHIFT, BlockKeys.chunkZ(chunkKey) >> CELL_SHIFT);
+        }
+    }
+
+    // Spawner chunks within one grid cell
+    private static final class GridCell {
+        private SpawnerChunk[] chunks = new SpawnerChunk[4];
+        private int size;
+
+        private void add(SpawnerChunk chunk) {
+            if (size == chunks.length) {
+                chunks = Arrays.copyOf(chunks, size << 1);
+            }
+            chunk.cellIndex = size;
+            chunks[size++] = chunk;
+        }
+
+        private void remove(SpawnerChunk chunk) {
+            int index = chunk.cellIndex;
+            if (index < 0 || index >= size || chunks[index] != chunk) {
+                return;
+            }
+            SpawnerChunk last = chunks[--size];
+            chunks[index] = last;
+            last.cellIndex = index;
+            chunks[size] = null;
+            chunk.cellIndex = -1;
+        }
+    }
+
+    // Spawner block keys (plus flags, owner and last seen range) within one chunk. Chunks rarely hold more
+    // than a handful of spawners, so flat arrays with linear search beat any hashed structure here.
+    static final class SpawnerChunk {
+        private final long chunkKey;
+        private long[] blockKeys;
+        private byte[] flags;
+        private short[] ranges;
+        private int[] owners;
+        private int size;
+        // Position in the world's slot bitmap and in its grid cell while indexed, -1 otherwise
+        private int slot = -1;
+        private int cellIndex = -1;
+
+        SpawnerChunk(long chunkKey, int expectedSize) {
+            this.chunkKey = chunkKey;
+            this.blockKeys = new long[Math.max(expectedSize, 1)];
+            this.flags = new byte[blockKeys.length];
+            this.ranges = new short[blockKeys.length];
+            this.owners = new int[blockKeys.length];
+        }
+
+        long chunkKey() {
+            return chunkKey;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long blockKey(int index) {
+            return blockKeys[index];
+        }
+
+        byte flags(int index) {
+            return flags[index];
+        }
+
+        boolean isPlayerPlaced(int index) {
+            return (flags[index] & FLAG_PLAYER_PLACED) != 0;
+        }
+
+        int range(int index) {
+            return ranges[index];
+        }
+
+        // Owner id from OwnerBudgets, OwnerBudgets.NONE for spawners nobody placed
+        int owner(int index) {
+            return owners[index];
+        }
+
+        void setFlags(int index, byte value) {
+            flags[index] = value;
+        }
+
+        void setRange(int index, int range) {
+            ranges[index] = (short) range;
+        }
+
+        void setOwner(int index, int owner) {
+            owners[index] = owner;
+        }
+
+        int indexOf(long blockKey) {
+            for (int i = 0; i < size; i++) {
+                if (blockKeys[i] == blockKey) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean add(long blockKey, byte flags, short range, int owner) {
+            int index = indexOf(blockKey);
+            if (index >= 0) {
+                this.flags[index] = flags;
+                ranges[index] = range;
+                owners[index] = owner;
+                return false;
+            }
+            if (size == blockKeys.length) {
+                blockKeys = Arrays.copyOf(blockKeys, size << 1);
+                this.flags = Arrays.copyOf(this.flags, size << 1);
+                ranges = Arrays.copyOf(ranges, size << 1);
+                owners = Arrays.copyOf(owners, size << 1);
+            }
+            blockKeys[size] = blockKey;
+            this.flags[size] = flags;
+            ranges[size] = range;
+            owners[size] = owner;
+            size++;
+            return true;
+        }
+
+        private boolean remove(long blockKey) {
+            int index = indexOf(blockKey);
+            if (index < 0) {
+                return false;
+            }
+            size--;
+            blockKeys[index] = blockKeys[size];
+            flags[index] = flags[size];
+            ranges[index] = ranges[size];
+            owners[index] = owners[size];
+            return true;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package hasjamon.block4block;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+// Counters, histograms and gauges describing what the plugin costs and does, cheap enough to stay
+// on in production: recording is an adder increment or a short bucket scan, without allocation or
+// locks. Spawner work comes from the SpawnerPassTotals of each source, adders that any thread may add
+// finished jobs and calls to, so an export may miss work still in progress but never blocks it.
+// Rendered for the metrics command and in Prometheus text format.
+final class SpawnerMetrics {
+
+    private static final String PREFIX = "adaptivespawner_";
+
+    // Cumulative-bucket histogram with fixed upper bounds
+    static final class Histogram {
+        private final String name;
+        private final String help;
+        private final double[] bounds;
+        private final LongAdder[] buckets;
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Histogram(String name, String help, double... bounds) {
+            this.name = name;
+            this.help = help;
+            this.bounds = bounds;
+            // One more bucket for values above the last bound
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(double value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            sum.add(value);
+        }
+
+        void recordNanos(long nanos) {
+            record(nanos / 1_000_000_000.0);
+        }
+
+        long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        double sum() {
+            return sum.sum();
+        }
+
+        // Upper bound of the bucket holding the given quantile; the last bound if it lies beyond
+        double quantile(double q) {
+            long count = count();
+            if (count == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(q * count);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return bounds[i];
+                }
+            }
+            return bounds[bounds.length - 1];
+        }
+    }
+
+    private record Gauge(String name, String help, DoubleSupplier value) {
+    }
+
+    private record PassSource(String name, SpawnerPassTotals totals) {
+    }
+
+    // Latency buckets from 10 microseconds to 5 seconds
+    private static final double[] SECONDS = {0.00001, 0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005,
+            0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0};
+
+    final Histogram chunkScan = new Histogram("chunk_scan_seconds",
+            "Main-thread time to scan one chunk's tile entities and apply the range", SECONDS);
+    final Histogram passWork = new Histogram("update_pass_work_seconds",
+            "Main-thread time spent on one update pass, summed over its ticks", SECONDS);
+    final Histogram passWall = new Histogram("update_pass_wall_seconds",
+            "Wall time from queueing an update pass until it finished or was superseded",
+            0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0, 30.0, 60.0, 120.0, 300.0);
+    final Histogram tps = new Histogram("control_tps",
+            "TPS samples the range decision was made on", 5.0, 10.0, 12.5, 15.0, 17.0, 18.0, 19.0, 19.5, 19.9, 20.0);
+
+    final LongAdder rangeTransitions = new LongAdder();
+    final LongAdder passesSuperseded = new LongAdder();
+
+    // Spawner work of finished update passes
+    private final SpawnerPassTotals passTotals = new SpawnerPassTotals();
+    private final List<PassSource> passSources = new ArrayList<>();
+    private final List<Gauge> gauges = new ArrayList<>();
+
+    SpawnerMetrics() {
+        passSources.add(new PassSource("update_pass", passTotals));
+    }
+
+    // Register before metrics are read; sources are cumulative since enable
+    void addPassSource(String name, SpawnerPassTotals totals) {
+        passSources.add(new PassSource(name, totals));
+    }
+
+    void addGauge(String name, String help, DoubleSupplier value) {
+        gauges.add(new Gauge(name, help, value));
+    }
+
+    // Spawner work of every finished or superseded pass since creation
+    SpawnerPassTotals passTotals() {
+        return passTotals;
+    }
+
+    // Scheduler thread, once per finished or superseded job
+    void recordPass(UpdateJob<?> job, long nowNanos) {
+        passTotals.add(job.stats());
+        passWork.recordNanos(job.elapsedNanos());
+        passWall.recordNanos(nowNanos - job.createdNanos());
+        if (job.isSuperseded()) {
+            passesSuperseded.increment();
+        }
+    }
+
+    // Lines for the metrics command
+    List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (PassSource source : passSources) {
+            lines.add("§7" + source.name() + ": §f" + source.totals().summary());
+        }
+        lines.add("§7range transitions: §f" + rangeTransitions.sum() + "§7, superseded passes: §f" + passesSuperseded.sum());
+        for (Histogram histogram : List.of(chunkScan, passWork, passWall)) {
+            lines.add("§7" + histogram.name + ": §f" + histogram.count() + " samples"
+                    + String.format(Locale.ROOT, ", p50<=%s p95<=%s p99<=%s", millis(histogram.quantile(0.50)),
+                    millis(histogram.quantile(0.95)), millis(histogram.quantile(0.99))));
+        }
+        lines.add("§7" + tps.name + ": §f" + tps.count() + " samples"
+                + String.format(Locale.ROOT, ", mean %.2f", tps.count() == 0 ? 0.0 : tps.sum() / tps.count()));
+        for (Gauge gauge : gauges) {
+            lines.add("§7" + gauge.name() + ": §f" + format(gauge.value().getAsDouble()));
+        }
+        return lines;
+    }
+
+    // Written to a temporary file and moved into place, so scrapers never read a partial file
+    void writePrometheus(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write(toPrometheus());
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        passCounter(out, "chunks_total", "Chunks whose spawners were looked at", s -> s.chunks.sum());
+        passCounter(out, "spawners_read_total", "Spawners read", s -> s.spawners.sum());
+        passCounter(out, "snapshots_total", "Block state snapshots taken", s -> s.snapshots.sum());
+        passCounter(out, "snapshots_skipped_total", "Snapshots avoided by reading live tile entities", s -> s.snapshotsSkipped.sum());
+        passCounter(out, "spawners_written_total", "Spawners whose range was written", s -> s.written.sum());
+        passCounter(out, "spawners_unchanged_total", "Spawners already at their target range", s -> s.unchanged.sum());
+        counter(out, "range_transitions_total", "Changes of the global spawner range", rangeTransitions.sum());
+        counter(out, "update_passes_superseded_total", "Range update passes replaced by a newer range", passesSuperseded.sum());
+        for (Histogram histogram : List.of(chunkScan, passWork, passWall, tps)) {
+            histogram(out, histogram);
+        }
+        for (Gauge gauge : gauges) {
+            header(out, gauge.name(), gauge.help(), "gauge");
+            out.append(PREFIX).append(gauge.name()).append(' ').append(format(gauge.value().getAsDouble())).append('\n');
+        }
+        return out.toString();
+    }
+
+    private interface PassField {
+        long get(SpawnerPassTotals totals);
+    }
+
+    private void passCounter(StringBuilder out, String name, String help, PassField field) {
+        header(out, name, help, "counter");
+        for (PassSource source : passSources) {
+            out.append(PREFIX).append(name).append("{source=\"").append(source.name()).append("\"} ")
+                    .append(field.get(source.totals())).append('\n');
+        }
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "counter");
+        out.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, Histogram histogram) {
+        header(out, histogram.name, histogram.help, "histogram");
+        long cumulative = 0;
+        for (int i = 0; i < histogram.buckets.length; i++) {
+            cumulative += histogram.buckets[i].sum();
+            String bound = i < histogram.bounds.length ? format(histogram.bounds[i]) : "+Inf";
+            out.append(PREFIX).append(histogram.name).append("_bucket{le=\"").append(bound).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        out.append(PREFIX).append(histogram.name).append("_sum ").append(format(histogram.sum())).append('\n');
+        out.append(PREFIX).append(histogram.name).append("_count ").append(cumulative).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static String millis(double seconds) {
+        return String.format(Locale.ROOT, "%.2fms", seconds * 1000.0);
+    }
+}
@@ -0,0 +1,24 @@
+package hasjamon.block4block;
+
+// Counters for one pass over spawners: an update job or a single call, counted by the thread doing the
+// work. Long-lived totals add these up in SpawnerPassTotals.
+final class SpawnerPassStats {
+
+    // Chunks whose spawners were looked at
+    int chunks;
+    // Spawners read
+    int spawners;
+    // Block state snapshots created (every tile entity of a chunk on Spigot)
+    int snapshots;
+    // Snapshots avoided by reading the live tile entity instead (Paper)
+    int snapshotsSkipped;
+    // Spawners whose range was written
+    int written;
+    // Spawners already at the target range, so no update() was needed
+    int unchanged;
+
+    String summary() {
+        return chunks + " chunks, " + spawners + " spawners, " + snapshots + " snapshots taken, "
+                + snapshotsSkipped + " skipped, " + written + " written, " + unchanged + " unchanged";
+    }
+}
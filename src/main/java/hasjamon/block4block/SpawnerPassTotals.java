@@ -0,0 +1,38 @@
+package hasjamon.block4block;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Spawner work of one source since enable (chunk loads, region updates, throttles, finished passes).
+// Each call or job counts into its own SpawnerPassStats and adds them here when done; on regionized
+// servers several region threads add at once, and 64-bit sums don't wrap on long uptimes.
+final class SpawnerPassTotals {
+
+    final LongAdder chunks = new LongAdder();
+    final LongAdder spawners = new LongAdder();
+    final LongAdder snapshots = new LongAdder();
+    final LongAdder snapshotsSkipped = new LongAdder();
+    final LongAdder written = new LongAdder();
+    final LongAdder unchanged = new LongAdder();
+
+    void add(SpawnerPassStats stats) {
+        chunks.add(stats.chunks);
+        spawners.add(stats.spawners);
+        snapshots.add(stats.snapshots);
+        snapshotsSkipped.add(stats.snapshotsSkipped);
+        written.add(stats.written);
+        unchanged.add(stats.unchanged);
+    }
+
+    // Run one call's work against fresh stats and add them once it's done
+    void record(Consumer<SpawnerPassStats> work) {
+        SpawnerPassStats stats = new SpawnerPassStats();
+        work.accept(stats);
+        add(stats);
+    }
+
+    String summary() {
+        return chunks.sum() + " chunks, " + spawners.sum() + " spawners, " + snapshots.sum() + " snapshots taken, "
+                + snapshotsSkipped.sum() + " skipped, " + written.sum() + " written, " + unchanged.sum() + " unchanged";
+    }
+}
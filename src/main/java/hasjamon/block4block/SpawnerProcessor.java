@@ -0,0 +1,158 @@
+package hasjamon.block4block;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.Collection;
+import java.util.UUID;
+
+// The per-spawner work of chunk scans, reconciles and update passes: read the player-placed marker
+// and owner, pick the target range and write it only if it differs. Depends on Bukkit interfaces only, not on
+// the plugin, so the benchmarks drive exactly this code with stubbed chunks and spawners.
+final class SpawnerProcessor {
+
+    // Called for every spawner a chunk scan or update pass reads, after its range was applied.
+    // Returns whether the spawner is throttled afterwards, for the index flags.
+    interface ScanHook {
+        boolean found(UUID worldId, CreatureSpawner spawner, long blockKey);
+    }
+
+    // Spawners found by a chunk scan, in the form SpawnerIndex.setChunk takes
+    record ChunkScan(long[] blockKeys, byte[] flags, short[] ranges, int[] owners, int found, int updated) {
+
+        static final ChunkScan EMPTY = new ChunkScan(null, null, null, null, 0, 0);
+    }
+
+    private final NamespacedKey playerPlacedKey;
+    private final NamespacedKey ownerKey;
+    private final NamespacedKey ownerTeamKey;
+    private final EntityDensityTracker densityTracker;
+    private final OwnerBudgets ownerBudgets;
+    private final ClusterThrottle clusterThrottle;
+    private final ScanHook scanHook;
+
+    // Which range each spawner gets; immutable so the async planner can use it
+    private volatile SpawnerRangePolicy policy = new SpawnerRangePolicy(false, false);
+
+    SpawnerProcessor(NamespacedKey playerPlacedKey, NamespacedKey ownerKey, NamespacedKey ownerTeamKey,
+                     EntityDensityTracker densityTracker, OwnerBudgets ownerBudgets, ClusterThrottle clusterThrottle,
+                     ScanHook scanHook) {
+        this.playerPlacedKey = playerPlacedKey;
+        this.ownerKey = ownerKey;
+        this.ownerTeamKey = ownerTeamKey;
+        this.densityTracker = densityTracker;
+        this.ownerBudgets = ownerBudgets;
+        this.clusterThrottle = clusterThrottle;
+        this.scanHook = scanHook;
+    }
+
+    SpawnerRangePolicy getPolicy() {
+        return policy;
+    }
+
+    void setPolicy(SpawnerRangePolicy policy) {
+        this.policy = policy;
+    }
+
+    // Check if a spawner has our player-placed marker using cached key
+    boolean isPlayerPlaced(CreatureSpawner spawner) {
+        return spawner.getPersistentDataContainer().has(playerPlacedKey, PersistentDataType.INTEGER);
+    }
+
+    // Record who placed a spawner; the team is kept as well so budgets can be regrouped by team later
+    void setOwner(CreatureSpawner spawner, UUID player, String team) {
+        PersistentDataContainer pdc = spawner.getPersistentDataContainer();
+        pdc.set(ownerKey, PersistentDataType.STRING, player.toString());
+        if (team != null) {
+            pdc.set(ownerTeamKey, PersistentDataType.STRING, team);
+        }
+    }
+
+    // Owner id of a spawner for OwnerBudgets, OwnerBudgets.NONE if it has no recorded owner
+    int ownerOf(CreatureSpawner spawner) {
+        PersistentDataContainer pdc = spawner.getPersistentDataContainer();
+        if (ownerBudgets.isGroupByTeam()) {
+            String team = pdc.get(ownerTeamKey, PersistentDataType.STRING);
+            if (team != null) {
+                return ownerBudgets.idOf(OwnerBudgets.TEAM_PREFIX + team);
+            }
+        }
+        return ownerBudgets.idOf(pdc.get(ownerKey, PersistentDataType.STRING));
+    }
+
+    // Apply the range to every spawner among a chunk's tile entities and collect them for the index
+    ChunkScan scan(UUID worldId, Collection<? extends BlockState> states, int range, SpawnerPassStats stats) {
+        // Sized on the first spawner found, most chunks have none; never shared so regions can scan concurrently
+        long[] blockKeys = null;
+        byte[] flags = null;
+        short[] ranges = null;
+        int[] owners = null;
+        int count = 0;
+        int found = 0;
+        for (BlockState blockState : states) {
+            if (blockState instanceof CreatureSpawner spawner) {
+                if (blockKeys == null) {
+                    blockKeys = new long[states.size()];
+                    flags = new byte[states.size()];
+                    ranges = new short[states.size()];
+                    owners = new int[states.size()];
+                }
+                boolean playerPlaced = isPlayerPlaced(spawner);
+                int owner = playerPlaced ? ownerOf(spawner) : OwnerBudgets.NONE;
+                if (process(spawner, playerPlaced, owner, range, stats)) {
+                    count++;
+                }
+
+                blockKeys[found] = BlockKeys.blockKey(blockState.getX(), blockState.getY(), blockState.getZ());
+                flags[found] = flags(playerPlaced, scanHook.found(worldId, spawner, blockKeys[found]));
+                ranges[found] = (short) spawner.getRequiredPlayerRange();
+                owners[found] = owner;
+                found++;
+            }
+        }
+        return found == 0 ? ChunkScan.EMPTY : new ChunkScan(blockKeys, flags, ranges, owners, found, count);
+    }
+
+    // Run the scan hook for a spawner read outside a chunk scan; returns its index flags
+    byte catchUp(UUID worldId, CreatureSpawner spawner, boolean playerPlaced, long blockKey) {
+        return flags(playerPlaced, scanHook.found(worldId, spawner, blockKey));
+    }
+
+    private static byte flags(boolean playerPlaced, boolean throttled) {
+        return (byte) ((playerPlaced ? SpawnerIndex.FLAG_PLAYER_PLACED : 0) | (throttled ? SpawnerIndex.FLAG_THROTTLED : 0));
+    }
+
+    // The marker and owner have already been read from the same state by the caller
+    // Returns true if spawner was updated
+    boolean process(CreatureSpawner spawner, boolean playerPlaced, int owner, int range, SpawnerPassStats stats) {
+        stats.spawners++;
+        int targetRange = policy.targetRange(playerPlaced, range);
+        if (targetRange == SpawnerRangePolicy.UNMANAGED) {
+            return false;
+        }
+        // Shed load where entities pile up instead of shrinking every spawner, with owners over their
+        // activation budget and in throttled spawner clusters
+        UUID worldId = spawner.getWorld().getUID();
+        targetRange = densityTracker.scale(worldId, spawner.getX() >> 4, spawner.getZ() >> 4, targetRange);
+        targetRange = EntityDensityTracker.scale(targetRange, ownerBudgets.factorSteps(owner));
+        targetRange = ClusterThrottle.scale(targetRange, clusterThrottle.factorSteps(worldId,
+                BlockKeys.blockKey(spawner.getX(), spawner.getY(), spawner.getZ())));
+        return applyRange(spawner, targetRange, stats);
+    }
+
+    // Write the range only if it differs. Returns true if the spawner was written
+    boolean applyRange(CreatureSpawner spawner, int range, SpawnerPassStats stats) {
+        if (spawner.getRequiredPlayerRange() == range) {
+            stats.unchanged++;
+            return false;
+        }
+
+        spawner.setRequiredPlayerRange(range);
+        spawner.update();
+        stats.written++;
+        return true;
+    }
+}
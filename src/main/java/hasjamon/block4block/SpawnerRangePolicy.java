@@ -0,0 +1,25 @@
+package hasjamon.block4block;
+
+// Decides the range a single spawner should get from its flags and the configured behavior.
+// Immutable, so it can be handed to the async planner together with a snapshot.
+record SpawnerRangePolicy(boolean affectNaturallyGenerated, boolean updatePreexistingSpawners) {
+
+    // Minecraft's default spawner activation range
+    static final int VANILLA_SPAWNER_RANGE = 16;
+
+    // Returned for spawners the plugin leaves alone
+    static final int UNMANAGED = -1;
+
+    int targetRange(boolean playerPlaced, int range) {
+        // If updatePreexistingSpawners is true, we'll treat all spawners as updateable
+        if (playerPlaced || updatePreexistingSpawners) {
+            return range;
+        }
+        // If not a player-placed spawner and we shouldn't affect naturally generated ones,
+        // reset to vanilla range
+        if (!affectNaturallyGenerated) {
+            return VANILLA_SPAWNER_RANGE;
+        }
+        return UNMANAGED;
+    }
+}
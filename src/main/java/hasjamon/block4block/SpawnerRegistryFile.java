@@ -0,0 +1,238 @@
+package hasjamon.block4block;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Spawner positions, flags, owners and last applied ranges of every processed chunk, saved on disable so
+// the next startup can reconcile known chunks from their spawner list instead of scanning their
+// tile entities. Chunks known to have no spawners are stored too, they need no work at all.
+//
+// Big-endian binary layout:
+//   int magic, int version, int ownerCount
+//   per owner:   short length, UTF-8 owner name (see OwnerBudgets)
+//   int worldCount
+//   per world:   long uuidMost, long uuidLeast, int chunkCount
+//   per chunk:   long chunkKey, int spawnerCount
+//   per spawner: long blockKey, byte flags (SpawnerIndex.FLAG_*), short range, int owner (index into the
+//                owners, -1 for none)
+//   long CRC32 of everything before it
+// Anything unexpected (wrong magic or version, bad checksum, truncation) rejects the whole file.
+final class SpawnerRegistryFile {
+
+    static final int MAGIC = 0x41525352; // "ARSR"
+    // 3: spawners left throttled are flagged; older files can't tell and are rejected
+    static final int VERSION = 3;
+
+    // Spawners of one chunk; empty arrays for a chunk without spawners. Owners are null for none.
+    record ChunkEntry(long[] blockKeys, byte[] flags, short[] ranges, String[] owners) {
+
+        static final ChunkEntry EMPTY = new ChunkEntry(new long[0], new byte[0], new short[0], new String[0]);
+
+        static ChunkEntry ofSize(int size) {
+            return new ChunkEntry(new long[size], new byte[size], new short[size], new String[size]);
+        }
+
+        int size() {
+            return blockKeys.length;
+        }
+
+        // Whether any spawner was left throttled when the file was saved
+        boolean hasThrottled() {
+            for (byte flag : flags) {
+                if ((flag & SpawnerIndex.FLAG_THROTTLED) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Map<UUID, LongObjectHashMap<ChunkEntry>> worlds;
+    private final int chunkCount;
+    private final int spawnerCount;
+
+    private SpawnerRegistryFile(Map<UUID, LongObjectHashMap<ChunkEntry>> worlds, int chunkCount, int spawnerCount) {
+        this.worlds = worlds;
+        this.chunkCount = chunkCount;
+        this.spawnerCount = spawnerCount;
+    }
+
+    // Recorded spawners of a chunk, or null if the chunk wasn't processed when the file was saved
+    ChunkEntry get(UUID worldId, int chunkX, int chunkZ) {
+        LongObjectHashMap<ChunkEntry> chunks = worlds.get(worldId);
+        return chunks == null ? null : chunks.get(BlockKeys.chunkKey(chunkX, chunkZ));
+    }
+
+    // Recorded chunks of every world, keyed by chunk key; read-only
+    Map<UUID, LongObjectHashMap<ChunkEntry>> worlds() {
+        return worlds;
+    }
+
+    int chunkCount() {
+        return chunkCount;
+    }
+
+    int spawnerCount() {
+        return spawnerCount;
+    }
+
+    static SpawnerRegistryFile read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 20) {
+            throw new IOException("file is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getLong(bytes.length - 8) != crc.getValue()) {
+            throw new IOException("checksum mismatch");
+        }
+        buffer.limit(bytes.length - 8);
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a spawner registry");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported version " + version);
+            }
+
+            int ownerCount = buffer.getInt();
+            if (ownerCount < 0 || ownerCount > buffer.remaining() / 2) {
+                throw new IOException("invalid owner count " + ownerCount);
+            }
+            String[] owners = new String[ownerCount];
+            for (int o = 0; o < ownerCount; o++) {
+                owners[o] = readUtf(buffer);
+            }
+
+            Map<UUID, LongObjectHashMap<ChunkEntry>> worlds = new HashMap<>();
+            int totalChunks = 0;
+            int totalSpawners = 0;
+            int worldCount = buffer.getInt();
+            for (int w = 0; w < worldCount; w++) {
+                UUID worldId = new UUID(buffer.getLong(), buffer.getLong());
+                int chunkCount = buffer.getInt();
+                LongObjectHashMap<ChunkEntry> chunks = new LongObjectHashMap<>();
+                for (int c = 0; c < chunkCount; c++) {
+                    long chunkKey = buffer.getLong();
+                    int count = buffer.getInt();
+                    // Each spawner takes 15 bytes, a bogus count must not allocate huge arrays
+                    if (count < 0 || count > buffer.remaining() / 15) {
+                        throw new IOException("invalid spawner count " + count);
+                    }
+                    ChunkEntry entry = count == 0 ? ChunkEntry.EMPTY : ChunkEntry.ofSize(count);
+                    for (int i = 0; i < count; i++) {
+                        entry.blockKeys()[i] = buffer.getLong();
+                        entry.flags()[i] = buffer.get();
+                        entry.ranges()[i] = buffer.getShort();
+                        int owner = buffer.getInt();
+                        if (owner < -1 || owner >= owners.length) {
+                            throw new IOException("invalid owner " + owner);
+                        }
+                        entry.owners()[i] = owner < 0 ? null : owners[owner];
+                    }
+                    chunks.put(chunkKey, entry);
+                    totalSpawners += count;
+                }
+                worlds.put(worldId, chunks);
+                totalChunks += chunkCount;
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("unexpected trailing data");
+            }
+            return new SpawnerRegistryFile(worlds, totalChunks, totalSpawners);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("file is truncated", e);
+        }
+    }
+
+    // Written to a temporary file first, so a crash mid-write never leaves a half-written registry
+    static void write(Path file, Map<UUID, LongObjectHashMap<ChunkEntry>> worlds) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream fileOut = Files.newOutputStream(temp);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fileOut), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            Map<String, Integer> owners = ownerTable(worlds);
+            out.writeInt(owners.size());
+            for (String owner : owners.keySet()) {
+                byte[] name = owner.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(name.length);
+                out.write(name);
+            }
+            out.writeInt(worlds.size());
+            for (Map.Entry<UUID, LongObjectHashMap<ChunkEntry>> world : worlds.entrySet()) {
+                LongObjectHashMap<ChunkEntry> chunks = world.getValue();
+                out.writeLong(world.getKey().getMostSignificantBits());
+                out.writeLong(world.getKey().getLeastSignificantBits());
+                out.writeInt(chunks.size());
+                for (int slot = 0; slot < chunks.capacity(); slot++) {
+                    ChunkEntry entry = chunks.valueAt(slot);
+                    if (entry == null) {
+                        continue;
+                    }
+                    out.writeLong(chunks.keyAt(slot));
+                    out.writeInt(entry.size());
+                    for (int i = 0; i < entry.size(); i++) {
+                        out.writeLong(entry.blockKeys()[i]);
+                        out.writeByte(entry.flags()[i]);
+                        out.writeShort(entry.ranges()[i]);
+                        String owner = entry.owners()[i];
+                        out.writeInt(owner == null ? -1 : owners.get(owner));
+                    }
+                }
+            }
+            // The checksum covers everything written so far; the trailer itself isn't part of it
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(crc.getValue());
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Distinct owners in first-seen order, each with its index in the file
+    private static Map<String, Integer> ownerTable(Map<UUID, LongObjectHashMap<ChunkEntry>> worlds) {
+        Map<String, Integer> owners = new LinkedHashMap<>();
+        for (LongObjectHashMap<ChunkEntry> chunks : worlds.values()) {
+            for (int slot = 0; slot < chunks.capacity(); slot++) {
+                ChunkEntry entry = chunks.valueAt(slot);
+                if (entry == null) {
+                    continue;
+                }
+                for (String owner : entry.owners()) {
+                    if (owner != null) {
+                        owners.putIfAbsent(owner, owners.size());
+                    }
+                }
+            }
+        }
+        return owners;
+    }
+
+    private static String readUtf(ByteBuffer buffer) throws IOException {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length > buffer.remaining()) {
+            throw new IOException("file is truncated");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
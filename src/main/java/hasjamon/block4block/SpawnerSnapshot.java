@@ -0,0 +1,124 @@
+package hasjamon.block4block;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// Immutable copy of indexed spawners (world, position, flags, last seen range, local density
+// factor, owner budget and cluster throttle factors), taken on the main thread so an update can be
+// planned on another thread without touching the index or the trackers
+final class SpawnerSnapshot {
+
+    private final UUID[] worldIds;
+    private final long[] blockKeys;
+    private final byte[] flags;
+    private final short[] ranges;
+    private final byte[] densitySteps;
+    private final byte[] ownerSteps;
+    private final byte[] clusterSteps;
+    private final int size;
+
+    private SpawnerSnapshot(UUID[] worldIds, long[] blockKeys, byte[] flags, short[] ranges, byte[] densitySteps,
+                            byte[] ownerSteps, byte[] clusterSteps, int size) {
+        this.worldIds = worldIds;
+        this.blockKeys = blockKeys;
+        this.flags = flags;
+        this.ranges = ranges;
+        this.densitySteps = densitySteps;
+        this.ownerSteps = ownerSteps;
+        this.clusterSteps = clusterSteps;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    UUID worldId(int index) {
+        return worldIds[index];
+    }
+
+    long blockKey(int index) {
+        return blockKeys[index];
+    }
+
+    boolean isPlayerPlaced(int index) {
+        return (flags[index] & SpawnerIndex.FLAG_PLAYER_PLACED) != 0;
+    }
+
+    int range(int index) {
+        return ranges[index];
+    }
+
+    // Entity density range factor at the spawner, in 1/EntityDensityTracker.FACTOR_STEPS units
+    int densitySteps(int index) {
+        return densitySteps[index];
+    }
+
+    // Range factor of the spawner's owner budget, in the same units
+    int ownerSteps(int index) {
+        return ownerSteps[index];
+    }
+
+    // Cluster throttle factor, ClusterThrottle.INACTIVE for spawners switched off
+    int clusterSteps(int index) {
+        return clusterSteps[index];
+    }
+
+    static final class Builder {
+        private UUID[] worldIds;
+        private long[] blockKeys;
+        private byte[] flags;
+        private short[] ranges;
+        private byte[] densitySteps;
+        private byte[] ownerSteps;
+        private byte[] clusterSteps;
+        private int size;
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            worldIds = new UUID[capacity];
+            blockKeys = new long[capacity];
+            flags = new byte[capacity];
+            ranges = new short[capacity];
+            densitySteps = new byte[capacity];
+            ownerSteps = new byte[capacity];
+            clusterSteps = new byte[capacity];
+        }
+
+        Builder addChunk(UUID worldId, SpawnerIndex.SpawnerChunk chunk, int densitySteps, OwnerBudgets ownerBudgets,
+                         ClusterThrottle clusterThrottle) {
+            for (int i = 0; i < chunk.size(); i++) {
+                add(worldId, chunk.blockKey(i), chunk.flags(i), chunk.range(i), densitySteps,
+                        ownerBudgets.factorSteps(chunk.owner(i)), clusterThrottle.factorSteps(worldId, chunk.blockKey(i)));
+            }
+            return this;
+        }
+
+        Builder add(UUID worldId, long blockKey, byte flag, int range, int density, int owner, int cluster) {
+            if (size == blockKeys.length) {
+                int capacity = size << 1;
+                worldIds = Arrays.copyOf(worldIds, capacity);
+                blockKeys = Arrays.copyOf(blockKeys, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                ranges = Arrays.copyOf(ranges, capacity);
+                densitySteps = Arrays.copyOf(densitySteps, capacity);
+                ownerSteps = Arrays.copyOf(ownerSteps, capacity);
+                clusterSteps = Arrays.copyOf(clusterSteps, capacity);
+            }
+            worldIds[size] = worldId;
+            blockKeys[size] = blockKey;
+            flags[size] = flag;
+            ranges[size] = (short) range;
+            densitySteps[size] = (byte) density;
+            ownerSteps[size] = (byte) owner;
+            clusterSteps[size] = (byte) cluster;
+            size++;
+            return this;
+        }
+
+        // The builder must not be used after this
+        SpawnerSnapshot build() {
+            return new SpawnerSnapshot(worldIds, blockKeys, flags, ranges, densitySteps, ownerSteps, clusterSteps, size);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package hasjamon.block4block;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+// Throttles a busy spawner beyond its range: longer spawn delays, fewer nearby entities before it
+// pauses, and fewer mobs per spawn. The original values are stored in the spawner's own
+// PersistentDataContainer, so a throttled spawner can always be restored, even after a restart.
+record SpawnerThrottle(NamespacedKey originalKey, double delayMultiplier, int maxNearbyEntities, int spawnCount) {
+
+    // Returns false if the spawner was already throttled
+    boolean apply(CreatureSpawner spawner) {
+        PersistentDataContainer pdc = spawner.getPersistentDataContainer();
+        if (pdc.has(originalKey, PersistentDataType.INTEGER_ARRAY)) {
+            return false;
+        }
+        int minDelay = spawner.getMinSpawnDelay();
+        int maxDelay = spawner.getMaxSpawnDelay();
+        int maxNearby = spawner.getMaxNearbyEntities();
+        int count = spawner.getSpawnCount();
+        pdc.set(originalKey, PersistentDataType.INTEGER_ARRAY, new int[]{minDelay, maxDelay, maxNearby, count});
+
+        // Raise the maximum first, the minimum may never exceed it
+        spawner.setMaxSpawnDelay(scaleDelay(maxDelay));
+        spawner.setMinSpawnDelay(scaleDelay(minDelay));
+        spawner.setMaxNearbyEntities(Math.min(maxNearby, maxNearbyEntities));
+        spawner.setSpawnCount(Math.min(count, spawnCount));
+        spawner.update();
+        return true;
+    }
+
+    // Returns false if the spawner wasn't throttled
+    boolean restore(CreatureSpawner spawner) {
+        PersistentDataContainer pdc = spawner.getPersistentDataContainer();
+        int[] original = pdc.get(originalKey, PersistentDataType.INTEGER_ARRAY);
+        if (original == null) {
+            return false;
+        }
+        pdc.remove(originalKey);
+        if (original.length == 4) {
+            // Lower the minimum first, for the same reason
+            spawner.setMinSpawnDelay(original[0]);
+            spawner.setMaxSpawnDelay(original[1]);
+            spawner.setMaxNearbyEntities(original[2]);
+            spawner.setSpawnCount(original[3]);
+        }
+        spawner.update();
+        return true;
+    }
+
+    boolean isThrottled(CreatureSpawner spawner) {
+        return spawner.getPersistentDataContainer().has(originalKey, PersistentDataType.INTEGER_ARRAY);
+    }
+
+    private int scaleDelay(int delay) {
+        return (int) Math.min(Short.MAX_VALUE, Math.round(Math.max(1, delay) * delayMultiplier));
+    }
+}
@@ -0,0 +1,120 @@
+package hasjamon.block4block;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+// Runs queued UpdateJobs on the main thread under a per-tick time budget instead of in one pass.
+// Jobs are processed in submission order; the task only runs while there is pending work.
+// Not used on regionized servers, where block work is dispatched to the owning regions instead.
+final class SpawnerUpdateScheduler {
+
+    private final SpawnerExecutor executor;
+    private final SpawnerMetrics metrics;
+    private final ArrayDeque<UpdateJob<?>> jobs = new ArrayDeque<>();
+    private long budgetNanos;
+    private SpawnerExecutor.Task task;
+    private int supersededCount;
+    private UpdateJob<?> lastFinished;
+
+    SpawnerUpdateScheduler(SpawnerExecutor executor, SpawnerMetrics metrics, long budgetNanos) {
+        this.executor = executor;
+        this.metrics = metrics;
+        this.budgetNanos = budgetNanos;
+    }
+
+    void setBudgetNanos(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    // Queue a job. A range update replaces any range update that hasn't finished yet,
+    // since the spawners it would still visit are going to get the newer range anyway.
+    void submit(UpdateJob<?> job) {
+        if (job.kind() == UpdateJob.Kind.RANGE_UPDATE) {
+            Iterator<UpdateJob<?>> iterator = jobs.iterator();
+            while (iterator.hasNext()) {
+                UpdateJob<?> pending = iterator.next();
+                if (pending.kind() == UpdateJob.Kind.RANGE_UPDATE) {
+                    iterator.remove();
+                    pending.supersede();
+                    metrics.recordPass(pending, System.nanoTime());
+                    supersededCount++;
+                }
+            }
+        }
+        jobs.add(job);
+        ensureRunning();
+    }
+
+    boolean isIdle() {
+        return jobs.isEmpty();
+    }
+
+    int getSupersededCount() {
+        return supersededCount;
+    }
+
+    // Most recently completed job, or null
+    UpdateJob<?> getLastFinished() {
+        return lastFinished;
+    }
+
+    // Progress of the running job and the number queued behind it, for the status command
+    String describeProgress() {
+        UpdateJob<?> current = jobs.peek();
+        if (current == null) {
+            return "idle";
+        }
+        String progress = current.description() + " " + current.completed() + "/" + current.total();
+        if (jobs.size() > 1) {
+            progress += " (+" + (jobs.size() - 1) + " queued)";
+        }
+        return progress;
+    }
+
+    void cancelAll() {
+        jobs.clear();
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void ensureRunning() {
+        if (task == null) {
+            task = executor.runGlobalTimer(this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        long now = start;
+
+        // Always make some progress, even with a tiny budget
+        do {
+            UpdateJob<?> job = jobs.peek();
+            if (job == null) {
+                break;
+            }
+            long unitStart = now;
+            boolean worked = job.step();
+            now = System.nanoTime();
+            job.addElapsed(now - unitStart);
+            if (!worked || job.isDone()) {
+                jobs.poll();
+                lastFinished = job;
+                job.finish();
+                metrics.recordPass(job, now);
+            }
+        } while (now < deadline);
+
+        if (jobs.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package hasjamon.block4block;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// The chunk, range and reconcile paths between the spawner index and the world: scanning loaded
+// chunks into the index, reconciling chunks known from the registry, and bringing indexed spawners
+// to a new range, either re-read one chunk at a time or planned off the main thread from a snapshot
+// of the index. The plugin decides when and with which range; this class does the block work and
+// keeps the index and chunk stamps in step. It only needs a SpawnerExecutor and the worlds, not the
+// plugin, so the load test drives the same code the plugin runs.
+final class SpawnerUpdater {
+
+    // Where worlds come from; the server's in the plugin
+    interface Worlds {
+        Worlds BUKKIT = new Worlds() {
+            @Override
+            public List<World> all() {
+                return Bukkit.getWorlds();
+            }
+
+            @Override
+            public World get(UUID worldId) {
+                return Bukkit.getWorld(worldId);
+            }
+        };
+
+        List<World> all();
+
+        // Null if the world is gone
+        World get(UUID worldId);
+    }
+
+    // Planned spawner writes applied per scheduler step
+    static final int APPLY_BATCH_SIZE = 32;
+
+    // Tile entity filter for Paper's non-snapshot getTileEntities
+    private static final Predicate<Block> IS_SPAWNER = block -> block.getType() == Material.SPAWNER;
+
+    // The plugin's lock over the spawner index and chunk states
+    private final Object stateLock;
+    private final SpawnerIndex spawnerIndex;
+    private final ChunkStateCache chunkStates;
+    private final SpawnerProcessor spawnerProcessor;
+    private final EntityDensityTracker densityTracker;
+    private final OwnerBudgets ownerBudgets;
+    private final ClusterThrottle clusterThrottle;
+    private final SpawnerExecutor executor;
+    private final SpawnerUpdateScheduler updateScheduler;
+    private final SpawnerMetrics metrics;
+    private final Worlds worlds;
+    private final boolean isPaper;
+    private final Logger logger;
+    private final BooleanSupplier debug;
+
+    // Bumped whenever spawners need to be brought to a new range; chunks stamped with an
+    // older generation are processed again, chunks with the current one are skipped
+    private volatile int rangeGeneration = 1;
+
+    private volatile Set<String> disabledWorlds = Set.of();
+    private volatile boolean onlyUpdateNearPlayers = true;
+    private volatile int playerChunkRadius = 5;
+
+    // Reusable buffer for the chunk keys of players in one world (monitor thread only)
+    private long[] playerChunkBuffer = new long[64];
+
+    SpawnerUpdater(Object stateLock, SpawnerIndex spawnerIndex, ChunkStateCache chunkStates, SpawnerProcessor spawnerProcessor,
+                   EntityDensityTracker densityTracker, OwnerBudgets ownerBudgets, ClusterThrottle clusterThrottle,
+                   SpawnerExecutor executor, SpawnerUpdateScheduler updateScheduler, SpawnerMetrics metrics,
+                   Worlds worlds, boolean isPaper, Logger logger, BooleanSupplier debug) {
+        this.stateLock = stateLock;
+        this.spawnerIndex = spawnerIndex;
+        this.chunkStates = chunkStates;
+        this.spawnerProcessor = spawnerProcessor;
+        this.densityTracker = densityTracker;
+        this.ownerBudgets = ownerBudgets;
+        this.clusterThrottle = clusterThrottle;
+        this.executor = executor;
+        this.updateScheduler = updateScheduler;
+        this.metrics = metrics;
+        this.worlds = worlds;
+        this.isPaper = isPaper;
+        this.logger = logger;
+        this.debug = debug;
+    }
+
+    void configure(Set<String> disabledWorlds, boolean onlyUpdateNearPlayers, int playerChunkRadius) {
+        this.disabledWorlds = disabledWorlds;
+        this.onlyUpdateNearPlayers = onlyUpdateNearPlayers;
+        this.playerChunkRadius = playerChunkRadius;
+    }
+
+    boolean isDisabled(World world) {
+        return disabledWorlds.contains(world.getName());
+    }
+
+    int rangeGeneration() {
+        return rangeGeneration;
+    }
+
+    // Invalidate every chunk's recorded state so the next pass processes them again
+    void advanceRangeGeneration() {
+        rangeGeneration++;
+    }
+
+    // Spawner-bearing chunks a range change applies to, based on configuration (global thread only)
+    List<SpawnerChunkRef> collectTargetChunks() {
+        List<SpawnerChunkRef> targets = new ArrayList<>();
+        synchronized (stateLock) {
+            if (onlyUpdateNearPlayers) {
+                // Only update spawner chunks near players, found through the index's spatial grid
+                List<SpawnerIndex.SpawnerChunk> nearby = new ArrayList<>();
+                int playerCount = 0;
+
+                for (World world : worlds.all()) {
+                    // Skip disabled worlds and worlds without known spawners
+                    SpawnerIndex.WorldSpawners spawners = spawnerIndex.getWorld(world);
+                    if (spawners == null || isDisabled(world)) {
+                        continue;
+                    }
+
+                    List<Player> players = world.getPlayers();
+                    if (players.isEmpty()) {
+                        continue;
+                    }
+                    if (playerChunkBuffer.length < players.size()) {
+                        playerChunkBuffer = new long[Math.max(players.size(), playerChunkBuffer.length << 1)];
+                    }
+                    int centers = 0;
+                    for (Player player : players) {
+                        Location location = player.getLocation();
+                        playerChunkBuffer[centers++] = BlockKeys.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+                    }
+                    playerCount += centers;
+
+                    nearby.clear();
+                    spawners.collectNear(playerChunkBuffer, centers, playerChunkRadius, nearby);
+                    for (SpawnerIndex.SpawnerChunk spawnerChunk : nearby) {
+                        targets.add(new SpawnerChunkRef(world, spawnerChunk));
+                    }
+                }
+
+                if (debug.getAsBoolean()) {
+                    logDebug("Found " + targets.size() + " spawner chunks near " + playerCount + " players");
+                }
+            } else {
+                // Update every indexed spawner chunk (the index only holds loaded chunks)
+                for (World world : worlds.all()) {
+                    SpawnerIndex.WorldSpawners spawners = spawnerIndex.getWorld(world);
+                    if (spawners == null || isDisabled(world)) {
+                        continue;
+                    }
+
+                    LongObjectHashMap<SpawnerIndex.SpawnerChunk> chunks = spawners.chunks();
+                    for (int slot = 0; slot < chunks.capacity(); slot++) {
+                        SpawnerIndex.SpawnerChunk spawnerChunk = chunks.valueAt(slot);
+                        if (spawnerChunk != null) {
+                            targets.add(new SpawnerChunkRef(world, spawnerChunk));
+                        }
+                    }
+                }
+                if (debug.getAsBoolean()) {
+                    logDebug("Found all " + targets.size() + " indexed spawner chunks");
+                }
+            }
+        }
+        return targets;
+    }
+
+    // Queue a range update that re-reads every targeted spawner, correcting any drift between the
+    // index and the world; the scheduler applies it under the tick budget
+    UpdateJob<SpawnerChunkRef> updateAllSpawners(int newRange) {
+        List<SpawnerChunkRef> targets = collectTargetChunks();
+
+        UpdateJob<SpawnerChunkRef> job = new UpdateJob<>(UpdateJob.Kind.RANGE_UPDATE, "range update to " + newRange,
+                targets, (target, stats) -> updateIndexedSpawners(target.world(), target.chunk(), newRange, stats));
+        if (debug.getAsBoolean()) {
+            job.onFinish(finished -> logDebug("Range update to " + newRange + (finished.isSuperseded() ? " (superseded)" : "")
+                    + ": " + finished.stats().summary()));
+        }
+        updateScheduler.submit(job);
+        return job;
+    }
+
+    // Plan a range change off the main thread from a snapshot of the index, then apply only the
+    // spawners that actually need a new range in budgeted batches on the main thread
+    void planRangeUpdate(int newRange) {
+        SpawnerSnapshot.Builder builder;
+        int chunks = 0;
+        synchronized (stateLock) {
+            builder = new SpawnerSnapshot.Builder(spawnerIndex.spawnerCount());
+            for (SpawnerChunkRef target : collectTargetChunks()) {
+                int chunkX = BlockKeys.chunkX(target.chunk().chunkKey());
+                int chunkZ = BlockKeys.chunkZ(target.chunk().chunkKey());
+                // Chunks that already have this generation (chunk loads, lazy reconciles) need nothing
+                if (markChunkProcessed(target.world(), chunkX, chunkZ)) {
+                    builder.addChunk(target.world().getUID(), target.chunk(),
+                            densityTracker.factorStepsAt(target.world().getUID(), chunkX, chunkZ), ownerBudgets, clusterThrottle);
+                    chunks++;
+                }
+            }
+        }
+
+        SpawnerSnapshot snapshot = builder.build();
+        SpawnerRangePolicy policy = spawnerProcessor.getPolicy();
+        int generation = rangeGeneration;
+        int planChunks = chunks;
+
+        executor.runAsync(() -> {
+            RangeUpdatePlan plan = RangeUpdatePlan.compute(snapshot, policy, newRange, generation);
+            executor.runGlobalLater(() -> applyPlan(plan, planChunks), 0L);
+        });
+    }
+
+    private void applyPlan(RangeUpdatePlan plan, int chunks) {
+        if (plan.generation() != rangeGeneration) {
+            if (debug.getAsBoolean()) {
+                logDebug("Dropping range plan for " + plan.baseRange() + ", a newer range change superseded it");
+            }
+            return;
+        }
+        if (debug.getAsBoolean()) {
+            logDebug("Planned range update to " + plan.baseRange() + ": " + plan.size() + " of " + plan.examined()
+                    + " spawners in " + chunks + " chunks need a new range");
+        }
+        if (plan.size() == 0) {
+            return;
+        }
+
+        List<Integer> batches = new ArrayList<>();
+        for (int start = 0; start < plan.size(); start += APPLY_BATCH_SIZE) {
+            batches.add(start);
+        }
+        UpdateJob<Integer> job = new UpdateJob<>(UpdateJob.Kind.RANGE_UPDATE, "range update to " + plan.baseRange(),
+                batches, (start, stats) -> applyPlanBatch(plan, start, stats));
+        if (debug.getAsBoolean()) {
+            job.onFinish(finished -> logDebug("Range update to " + plan.baseRange() + (finished.isSuperseded() ? " (superseded)" : "")
+                    + ": " + finished.stats().summary()));
+        }
+        updateScheduler.submit(job);
+    }
+
+    private void applyPlanBatch(RangeUpdatePlan plan, int start, SpawnerPassStats stats) {
+        World world = null;
+        UUID worldId = null;
+        int end = Math.min(start + APPLY_BATCH_SIZE, plan.size());
+        for (int i = start; i < end; i++) {
+            if (!plan.worldId(i).equals(worldId)) {
+                worldId = plan.worldId(i);
+                world = worlds.get(worldId);
+            }
+            if (world == null) {
+                continue;
+            }
+
+            long blockKey = plan.blockKey(i);
+            int x = BlockKeys.blockX(blockKey);
+            int y = BlockKeys.blockY(blockKey);
+            int z = BlockKeys.blockZ(blockKey);
+            if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+                continue;
+            }
+
+            Block block = world.getBlockAt(x, y, z);
+            if (block.getType() != Material.SPAWNER) {
+                synchronized (stateLock) {
+                    spawnerIndex.remove(world, x, y, z);
+                }
+                continue;
+            }
+
+            CreatureSpawner spawner = readSpawner(block, stats);
+            if (spawner != null) {
+                stats.spawners++;
+                spawnerProcessor.applyRange(spawner, plan.range(i), stats);
+                synchronized (stateLock) {
+                    spawnerIndex.recordRange(world, blockKey, plan.range(i));
+                }
+            }
+        }
+    }
+
+    // Scan a chunk that is already loaded, on the thread that owns it
+    void updateLoadedChunk(Chunk chunk, int range, SpawnerPassStats stats) {
+        if (!chunk.isLoaded() || isDisabled(chunk.getWorld())
+                || !markChunkProcessed(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            return;
+        }
+
+        int count = scanChunk(chunk, range, stats);
+        if (count > 0 && debug.getAsBoolean()) {
+            logger.info("Updated " + count + " spawners in chunk " +
+                    chunk.getWorld().getName() + " [" + chunk.getX() + "," + chunk.getZ() + "]");
+        }
+    }
+
+    // Startup: chunks the registry knows are reconciled from their recorded spawners, the rest are scanned.
+    // Chunks with spawners left throttled are scanned too, so the scan hook restores or keeps their throttle;
+    // a reconcile doesn't read spawners already at their range.
+    void startupChunk(Chunk chunk, int range, SpawnerRegistryFile registry, SpawnerPassStats stats) {
+        SpawnerRegistryFile.ChunkEntry known = registry != null
+                ? registry.get(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ()) : null;
+        if (known == null || known.hasThrottled()) {
+            updateLoadedChunk(chunk, range, stats);
+            return;
+        }
+        if (!chunk.isLoaded() || isDisabled(chunk.getWorld())
+                || !markChunkProcessed(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            return;
+        }
+        reconcileKnownChunk(chunk, known, range, stats);
+    }
+
+    // Bring a chunk up to date from its recorded spawners without looking at its tile entities.
+    // Spawners whose recorded range is already the target range aren't even read.
+    private void reconcileKnownChunk(Chunk chunk, SpawnerRegistryFile.ChunkEntry known, int range, SpawnerPassStats stats) {
+        stats.chunks++;
+        World world = chunk.getWorld();
+        int densitySteps = densityTracker.factorStepsAt(world.getUID(), chunk.getX(), chunk.getZ());
+
+        long[] blockKeys = new long[known.size()];
+        byte[] flags = new byte[known.size()];
+        short[] ranges = new short[known.size()];
+        int[] owners = new int[known.size()];
+        int found = 0;
+        for (int i = 0; i < known.size(); i++) {
+            long blockKey = known.blockKeys()[i];
+            Block block = world.getBlockAt(BlockKeys.blockX(blockKey), BlockKeys.blockY(blockKey), BlockKeys.blockZ(blockKey));
+            if (block.getType() != Material.SPAWNER) {
+                continue;
+            }
+
+            boolean playerPlaced = (known.flags()[i] & SpawnerIndex.FLAG_PLAYER_PLACED) != 0;
+            int owner = ownerBudgets.idOf(known.owners()[i]);
+            int currentRange = known.ranges()[i];
+            int target = spawnerProcessor.getPolicy().targetRange(playerPlaced, range);
+            if (target != SpawnerRangePolicy.UNMANAGED) {
+                target = EntityDensityTracker.scale(EntityDensityTracker.scale(target, densitySteps), ownerBudgets.factorSteps(owner));
+                target = ClusterThrottle.scale(target, clusterThrottle.factorSteps(world.getUID(), blockKey));
+            }
+            if (target == SpawnerRangePolicy.UNMANAGED || target == currentRange) {
+                stats.spawners++;
+                stats.unchanged++;
+                flags[found] = playerPlaced ? SpawnerIndex.FLAG_PLAYER_PLACED : 0;
+            } else {
+                CreatureSpawner spawner = readSpawner(block, stats);
+                if (spawner == null) {
+                    continue;
+                }
+                playerPlaced = spawnerProcessor.isPlayerPlaced(spawner);
+                owner = playerPlaced ? spawnerProcessor.ownerOf(spawner) : OwnerBudgets.NONE;
+                spawnerProcessor.process(spawner, playerPlaced, owner, range, stats);
+                currentRange = spawner.getRequiredPlayerRange();
+                flags[found] = spawnerProcessor.catchUp(world.getUID(), spawner, playerPlaced, blockKey);
+            }
+
+            blockKeys[found] = blockKey;
+            ranges[found] = (short) currentRange;
+            owners[found] = owner;
+            found++;
+        }
+        synchronized (stateLock) {
+            spawnerIndex.setChunk(world, chunk.getX(), chunk.getZ(), blockKeys, flags, ranges, owners, found);
+        }
+    }
+
+    // Scan a chunk's tile entities, record its spawners in the index and apply the range to them
+    // Returns the number of spawners updated
+    int scanChunk(Chunk chunk, int range, SpawnerPassStats stats) {
+        long start = System.nanoTime();
+        stats.chunks++;
+
+        Collection<BlockState> states;
+        if (isPaper) {
+            // Only spawners, read from the live tile entities instead of copying every chest and hopper
+            states = chunk.getTileEntities(IS_SPAWNER, false);
+            stats.snapshotsSkipped += states.size();
+        } else {
+            BlockState[] snapshots = chunk.getTileEntities();
+            stats.snapshots += snapshots.length;
+            states = Arrays.asList(snapshots);
+        }
+
+        SpawnerProcessor.ChunkScan scan = spawnerProcessor.scan(chunk.getWorld().getUID(), states, range, stats);
+        synchronized (stateLock) {
+            spawnerIndex.setChunk(chunk.getWorld(), chunk.getX(), chunk.getZ(),
+                    scan.blockKeys(), scan.flags(), scan.ranges(), scan.owners(), scan.found());
+        }
+        metrics.chunkScan.recordNanos(System.nanoTime() - start);
+        return scan.updated();
+    }
+
+    // Update the indexed spawners of a loaded chunk without looking at any of its other tile entities
+    void updateIndexedSpawners(World world, SpawnerIndex.SpawnerChunk spawnerChunk, int range, SpawnerPassStats stats) {
+        int chunkX = BlockKeys.chunkX(spawnerChunk.chunkKey());
+        int chunkZ = BlockKeys.chunkZ(spawnerChunk.chunkKey());
+        // Jobs queued before a reload may still hold chunks of a world disabled since
+        if (isDisabled(world) || !world.isChunkLoaded(chunkX, chunkZ) || !markChunkProcessed(world, chunkX, chunkZ)) {
+            return;
+        }
+
+        stats.chunks++;
+        // The entries are copied and written back under the lock; the world is read and written outside it
+        long[] blockKeys;
+        synchronized (stateLock) {
+            blockKeys = new long[spawnerChunk.size()];
+            for (int i = 0; i < blockKeys.length; i++) {
+                blockKeys[i] = spawnerChunk.blockKey(i);
+            }
+        }
+
+        int count = 0;
+        for (long blockKey : blockKeys) {
+            int x = BlockKeys.blockX(blockKey);
+            int y = BlockKeys.blockY(blockKey);
+            int z = BlockKeys.blockZ(blockKey);
+            Block block = world.getBlockAt(x, y, z);
+
+            if (block.getType() != Material.SPAWNER) {
+                // Removed by something we don't listen to (e.g. WorldEdit)
+                synchronized (stateLock) {
+                    spawnerIndex.remove(world, x, y, z);
+                }
+                continue;
+            }
+
+            CreatureSpawner spawner = readSpawner(block, stats);
+            if (spawner == null) {
+                continue;
+            }
+            boolean playerPlaced = spawnerProcessor.isPlayerPlaced(spawner);
+            int owner = playerPlaced ? spawnerProcessor.ownerOf(spawner) : OwnerBudgets.NONE;
+            if (spawnerProcessor.process(spawner, playerPlaced, owner, range, stats)) {
+                count++;
+            }
+            byte flags = spawnerProcessor.catchUp(world.getUID(), spawner, playerPlaced, blockKey);
+            // Refresh what the index knows, for later planned updates
+            synchronized (stateLock) {
+                int index = spawnerChunk.indexOf(blockKey);
+                if (index >= 0) {
+                    spawnerChunk.setFlags(index, flags);
+                    spawnerChunk.setOwner(index, owner);
+                    spawnerChunk.setRange(index, spawner.getRequiredPlayerRange());
+                }
+            }
+        }
+
+        if (count > 0 && debug.getAsBoolean()) {
+            logger.info("Updated " + count + " indexed spawners in chunk " +
+                    world.getName() + " [" + chunkX + "," + chunkZ + "]");
+        }
+    }
+
+    // Forget an unloaded chunk; it is rescanned when it loads again
+    void forgetChunk(World world, int chunkX, int chunkZ) {
+        synchronized (stateLock) {
+            spawnerIndex.removeChunk(world, chunkX, chunkZ);
+            chunkStates.evict(world, chunkX, chunkZ);
+        }
+    }
+
+    // Returns false if the chunk already reflects the current range generation
+    boolean markChunkProcessed(World world, int chunkX, int chunkZ) {
+        synchronized (stateLock) {
+            return chunkStates.markApplied(world, chunkX, chunkZ, rangeGeneration);
+        }
+    }
+
+    // Spawner view of a block: the live tile entity on Paper, a snapshot elsewhere
+    CreatureSpawner readSpawner(Block block, SpawnerPassStats stats) {
+        BlockState state;
+        if (isPaper) {
+            state = block.getState(false);
+            stats.snapshotsSkipped++;
+        } else {
+            state = block.getState();
+            stats.snapshots++;
+        }
+        return state instanceof CreatureSpawner spawner ? spawner : null;
+    }
+
+    private void logDebug(String message) {
+        logger.log(Level.INFO, "[Debug] " + message);
+    }
+}
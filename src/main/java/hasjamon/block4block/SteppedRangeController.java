@@ -0,0 +1,59 @@
+package hasjamon.block4block;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Picks the range of the highest tier whose minimum TPS is reached. Moving up to a higher tier
+// additionally needs `hysteresis` TPS of headroom, so TPS hovering at a tier edge doesn't flap.
+final class SteppedRangeController implements RangeController {
+
+    // One step of the ladder: at or above minTps the spawner range is `range`
+    record Tier(double minTps, int range) {
+    }
+
+    private final Tier[] tiers;
+    private final double hysteresis;
+
+    SteppedRangeController(Tier[] tiers, double hysteresis) {
+        if (tiers.length == 0) {
+            throw new IllegalArgumentException("at least one tier is required");
+        }
+        // Highest TPS first
+        this.tiers = tiers.clone();
+        Arrays.sort(this.tiers, Comparator.comparingDouble(Tier::minTps).reversed());
+        this.hysteresis = Math.max(0.0, hysteresis);
+    }
+
+    @Override
+    public int desiredRange(double tps, int currentRange) {
+        int currentTier = tierOf(currentRange);
+        for (int i = 0; i < tiers.length; i++) {
+            Tier tier = tiers[i];
+            // Climbing above the current tier has to clear the hysteresis margin
+            double required = i < currentTier ? tier.minTps() + hysteresis : tier.minTps();
+            if (tps >= required) {
+                return tier.range();
+            }
+        }
+        return tiers[tiers.length - 1].range();
+    }
+
+    // Index of the tier closest to the given range
+    private int tierOf(int range) {
+        int best = tiers.length - 1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < tiers.length; i++) {
+            int distance = Math.abs(tiers[i].range() - range);
+            if (distance < bestDistance) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public String name() {
+        return "stepped (" + tiers.length + " tiers)";
+    }
+}
@@ -0,0 +1,33 @@
+package hasjamon.block4block;
+
+// Original two-state behaviour: low range at or below the low threshold, high range at or above
+// the high threshold, and whatever is currently applied in between
+final class ThresholdRangeController implements RangeController {
+
+    private final int rangeLow;
+    private final int rangeHigh;
+    private final double tpsThresholdLow;
+    private final double tpsThresholdHigh;
+
+    ThresholdRangeController(int rangeLow, int rangeHigh, double tpsThresholdLow, double tpsThresholdHigh) {
+        this.rangeLow = rangeLow;
+        this.rangeHigh = rangeHigh;
+        this.tpsThresholdLow = tpsThresholdLow;
+        this.tpsThresholdHigh = tpsThresholdHigh;
+    }
+
+    @Override
+    public int desiredRange(double tps, int currentRange) {
+        if (tps <= tpsThresholdLow) {
+            return rangeLow;
+        } else if (tps >= tpsThresholdHigh) {
+            return rangeHigh;
+        }
+        return currentRange;
+    }
+
+    @Override
+    public String name() {
+        return "threshold";
+    }
+}
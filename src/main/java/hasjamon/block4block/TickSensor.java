@@ -0,0 +1,167 @@
+package hasjamon.block4block;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+// Measures server load. The best available source is resolved once at enable:
+// - Paper: per-tick MSPT from ServerTickEndEvent into a ring buffer, and Bukkit.getTPS()
+// - Spigot: the NMS server's recentTps array through a cached MethodHandle
+// so nothing on the monitoring path needs reflection lookups.
+final class TickSensor {
+
+    enum Source {
+        PAPER("Paper tick events"),
+        SPIGOT_RECENT_TPS("Spigot recentTps"),
+        NONE("unavailable");
+
+        private final String description;
+
+        Source(String description) {
+            this.description = description;
+        }
+
+        String description() {
+            return description;
+        }
+    }
+
+    // What drives the range controller
+    enum Signal {
+        // One-minute TPS average (original behavior)
+        TPS,
+        // Median / 95th percentile tick time over the short window, converted to TPS
+        MSPT_P50,
+        MSPT_P95;
+
+        static Signal parse(String value) {
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "mspt-p50" -> MSPT_P50;
+                case "mspt-p95" -> MSPT_P95;
+                default -> TPS;
+            };
+        }
+    }
+
+    private final Source source;
+    private final MsptRingBuffer buffer;
+    private final MethodHandle recentTpsGetter;
+    private final Logger logger;
+    private Signal signal = Signal.TPS;
+    private int shortWindowTicks = 100;
+    private int longWindowTicks = 1200;
+    private boolean warnedUnavailable;
+
+    private TickSensor(Source source, MsptRingBuffer buffer, MethodHandle recentTpsGetter, Logger logger) {
+        this.source = source;
+        this.buffer = buffer;
+        this.recentTpsGetter = recentTpsGetter;
+        this.logger = logger;
+    }
+
+    static TickSensor create(JavaPlugin plugin, boolean isPaper, int bufferTicks) {
+        MsptRingBuffer buffer = new MsptRingBuffer(bufferTicks);
+        if (isPaper) {
+            Bukkit.getPluginManager().registerEvents(new PaperTickListener(buffer), plugin);
+            return new TickSensor(Source.PAPER, buffer, null, plugin.getLogger());
+        }
+
+        MethodHandle getter = resolveRecentTps(plugin.getLogger());
+        return new TickSensor(getter != null ? Source.SPIGOT_RECENT_TPS : Source.NONE, buffer, getter, plugin.getLogger());
+    }
+
+    // Bind MinecraftServer.recentTps once; returns null if this server doesn't have it
+    private static MethodHandle resolveRecentTps(Logger logger) {
+        try {
+            Object server = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
+            Field field = server.getClass().getField("recentTps");
+            return MethodHandles.publicLookup().unreflectGetter(field).bindTo(server);
+        } catch (Exception | LinkageError e) {
+            logger.warning("Unable to locate server TPS (" + e.getMessage() + "). Spawner ranges will not adapt to load.");
+            return null;
+        }
+    }
+
+    void configure(Signal signal, int shortWindowTicks, int longWindowTicks) {
+        this.signal = signal;
+        this.shortWindowTicks = Math.max(1, Math.min(shortWindowTicks, buffer.capacity()));
+        this.longWindowTicks = Math.max(1, Math.min(longWindowTicks, buffer.capacity()));
+    }
+
+    Source getSource() {
+        return source;
+    }
+
+    Signal getSignal() {
+        return signal;
+    }
+
+    int getShortWindowTicks() {
+        return shortWindowTicks;
+    }
+
+    int getLongWindowTicks() {
+        return longWindowTicks;
+    }
+
+    MsptRingBuffer getBuffer() {
+        return buffer;
+    }
+
+    // One-minute TPS average as reported by the server, 20.0 if unavailable
+    double getTps() {
+        switch (source) {
+            case PAPER:
+                try {
+                    return Bukkit.getTPS()[0];
+                } catch (UnsupportedOperationException e) {
+                    // Regionized servers have no single server TPS
+                    warnUnavailable(e);
+                }
+                return 20.0;
+            case SPIGOT_RECENT_TPS:
+                try {
+                    return ((double[]) recentTpsGetter.invoke())[0];
+                } catch (Throwable t) {
+                    warnUnavailable(t);
+                }
+                return 20.0;
+            default:
+                return 20.0;
+        }
+    }
+
+    // TPS value used for range decisions, based on the configured signal
+    double getControlTps() {
+        return controlTps(signal, getTps(), buffer, shortWindowTicks);
+    }
+
+    // The signal's TPS from a TPS reading and recent tick times; also used by the simulator
+    static double controlTps(Signal signal, double tps, MsptRingBuffer buffer, int shortWindowTicks) {
+        if (signal == Signal.TPS || buffer.count() < shortWindowTicks) {
+            return tps;
+        }
+        MsptRingBuffer.Stats stats = buffer.stats(shortWindowTicks);
+        return MsptRingBuffer.Stats.toTps(signal == Signal.MSPT_P95 ? stats.p95() : stats.p50());
+    }
+
+    MsptRingBuffer.Stats shortWindow() {
+        return buffer.stats(shortWindowTicks);
+    }
+
+    MsptRingBuffer.Stats longWindow() {
+        return buffer.stats(longWindowTicks);
+    }
+
+    private void warnUnavailable(Throwable t) {
+        if (!warnedUnavailable) {
+            warnedUnavailable = true;
+            logger.warning("Failed to read server TPS (" + t.getMessage() + ") - defaulting to 20.0. Plugin may not adjust spawner ranges correctly.");
+        }
+    }
+}
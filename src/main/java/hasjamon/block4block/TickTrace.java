@@ -0,0 +1,70 @@
+package hasjamon.block4block;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Plain-text load trace shared by the in-game recorder and the offline simulator:
+//   # AdaptiveRangeMobSpawner trace v1
+//   tick,mspt,tps
+//   1200,38.41,19.98
+// Paper records every tick with its MSPT. Spigot has no per-tick times, so its traces hold one TPS
+// reading per second with an empty mspt column. Lines starting with '#' are comments.
+final class TickTrace {
+
+    static final String HEADER = "# AdaptiveRangeMobSpawner trace v1";
+    static final String COLUMNS = "tick,mspt,tps";
+
+    // mspt is NaN when the trace has no tick times
+    record Sample(long tick, double mspt, double tps) {
+
+        boolean hasMspt() {
+            return !Double.isNaN(mspt);
+        }
+    }
+
+    private TickTrace() {
+    }
+
+    static String format(long tick, double mspt, double tps) {
+        return tick + "," + (Double.isNaN(mspt) ? "" : String.format(Locale.ROOT, "%.2f", mspt))
+                + "," + String.format(Locale.ROOT, "%.2f", tps);
+    }
+
+    static List<Sample> read(Path file) throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            long lastTick = Long.MIN_VALUE;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.equals(COLUMNS)) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                if (columns.length != 3) {
+                    throw new IOException("line " + lineNumber + ": expected " + COLUMNS);
+                }
+                try {
+                    long tick = Long.parseLong(columns[0]);
+                    if (tick <= lastTick) {
+                        throw new IOException("line " + lineNumber + ": ticks must increase");
+                    }
+                    lastTick = tick;
+                    double mspt = columns[1].isEmpty() ? Double.NaN : Double.parseDouble(columns[1]);
+                    samples.add(new Sample(tick, mspt, Double.parseDouble(columns[2])));
+                } catch (NumberFormatException e) {
+                    throw new IOException("line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return samples;
+    }
+}
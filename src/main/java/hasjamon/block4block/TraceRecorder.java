@@ -0,0 +1,131 @@
+package hasjamon.block4block;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Records the server's load as a TickTrace for the offline simulator. Polls the tick sensor once a
+// second: on Paper it copies the tick times recorded since the last poll, elsewhere it records a
+// single TPS reading. Lines are written on a dedicated thread, so recording never blocks a tick.
+// Synchronized: commands may start or stop a recording from another thread than the poll.
+final class TraceRecorder {
+
+    private static final long POLL_TICKS = 20L;
+
+    private final TickSensor tickSensor;
+    private final SpawnerExecutor executor;
+    private final Logger logger;
+
+    private ExecutorService writer;
+    private BufferedWriter out;
+    private SpawnerExecutor.Task task;
+    private Path file;
+    private long lastCount;
+    private long tick;
+    private long stopAtTick;
+    private double[] samples = new double[0];
+
+    TraceRecorder(TickSensor tickSensor, SpawnerExecutor executor, Logger logger) {
+        this.tickSensor = tickSensor;
+        this.executor = executor;
+        this.logger = logger;
+    }
+
+    synchronized boolean isRecording() {
+        return task != null;
+    }
+
+    synchronized Path getFile() {
+        return file;
+    }
+
+    synchronized long getRecordedTicks() {
+        return tick;
+    }
+
+    // maxSeconds <= 0 records until stopped
+    synchronized void start(Path file, int maxSeconds) throws IOException {
+        if (isRecording()) {
+            throw new IllegalStateException("already recording to " + this.file);
+        }
+        Files.createDirectories(file.getParent());
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        out.write(TickTrace.HEADER);
+        out.newLine();
+        out.write(TickTrace.COLUMNS);
+        out.newLine();
+
+        this.file = file;
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AdaptiveRangeMobSpawner-TraceWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lastCount = tickSensor.getBuffer().count();
+        tick = 0L;
+        stopAtTick = maxSeconds > 0 ? maxSeconds * 20L : Long.MAX_VALUE;
+        samples = new double[tickSensor.getBuffer().capacity()];
+        task = executor.runGlobalTimer(this::poll, POLL_TICKS, POLL_TICKS);
+    }
+
+    synchronized void stop() {
+        if (!isRecording()) {
+            return;
+        }
+        task.cancel();
+        task = null;
+        BufferedWriter finished = out;
+        Path finishedFile = file;
+        writer.execute(() -> {
+            try {
+                finished.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close trace " + finishedFile, e);
+            }
+        });
+        writer.shutdown();
+        out = null;
+        logger.info("Trace recording stopped after " + tick + " ticks: " + file);
+    }
+
+    private synchronized void poll() {
+        if (!isRecording()) {
+            return; // A run that was already due when the recording stopped
+        }
+        double tps = tickSensor.getTps();
+        StringBuilder lines = new StringBuilder();
+        if (tickSensor.getSource() == TickSensor.Source.PAPER) {
+            MsptRingBuffer buffer = tickSensor.getBuffer();
+            long count = buffer.count();
+            // Ticks older than the ring are lost if a poll was delayed that long; the trace skips them
+            int n = buffer.copyRecent((int) Math.min(count - lastCount, samples.length), samples);
+            lastCount = count;
+            for (int i = 0; i < n && tick < stopAtTick; i++) {
+                tick++;
+                lines.append(TickTrace.format(tick, samples[i], tps)).append('\n');
+            }
+        } else {
+            tick += POLL_TICKS;
+            lines.append(TickTrace.format(tick, Double.NaN, tps)).append('\n');
+        }
+
+        BufferedWriter target = out;
+        Path targetFile = file;
+        writer.execute(() -> {
+            try {
+                target.write(lines.toString());
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write trace " + targetFile, e);
+            }
+        });
+        if (tick >= stopAtTick) {
+            stop();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package hasjamon.block4block;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// A resumable batch of spawner work: a list of units processed one at a time by the
+// SpawnerUpdateScheduler, which keeps the cursor so the job can continue on the next tick
+final class UpdateJob<T> {
+
+    enum Kind {
+        // Initial scan of chunks that were loaded before the plugin was enabled
+        STARTUP_SCAN,
+        // Pushing a new range to known spawners; a newer range update supersedes a pending one
+        RANGE_UPDATE,
+        // Re-applying ranges where entity density changed; never superseded, it covers different chunks
+        DENSITY_UPDATE,
+        // Re-applying ranges of owners whose activation budget factor changed; never superseded either
+        BUDGET_UPDATE,
+        // Re-applying ranges of spawners whose cluster throttle changed; never superseded either
+        CLUSTER_UPDATE,
+        // Bringing the spawners a config reload affects in line with the new settings; never superseded either
+        SETTINGS_UPDATE,
+        // Catching up the surroundings of players who stood still through a range change (lazy mode)
+        LAZY_CATCH_UP
+    }
+
+    private final Kind kind;
+    private final String description;
+    private final List<T> units;
+    private final BiConsumer<T, SpawnerPassStats> processor;
+    private final SpawnerPassStats stats = new SpawnerPassStats();
+    private Consumer<UpdateJob<T>> onFinish;
+    private int cursor;
+    private boolean superseded;
+    private long elapsedNanos;
+    private final long createdNanos = System.nanoTime();
+
+    UpdateJob(Kind kind, String description, List<T> units, BiConsumer<T, SpawnerPassStats> processor) {
+        this.kind = kind;
+        this.description = description;
+        this.units = units;
+        this.processor = processor;
+    }
+
+    // Called on the main thread once the job completes or is superseded
+    UpdateJob<T> onFinish(Consumer<UpdateJob<T>> onFinish) {
+        this.onFinish = onFinish;
+        return this;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    String description() {
+        return description;
+    }
+
+    int completed() {
+        return cursor;
+    }
+
+    int total() {
+        return units.size();
+    }
+
+    boolean isDone() {
+        return cursor >= units.size();
+    }
+
+    boolean isSuperseded() {
+        return superseded;
+    }
+
+    // What this job has done so far
+    SpawnerPassStats stats() {
+        return stats;
+    }
+
+    // Main-thread time spent on this job so far
+    long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Process the next unit; returns false if there was nothing left to do
+    boolean step() {
+        if (cursor >= units.size()) {
+            return false;
+        }
+        processor.accept(units.get(cursor++), stats);
+        return true;
+    }
+
+    // System.nanoTime() when the job was created
+    long createdNanos() {
+        return createdNanos;
+    }
+
+    void addElapsed(long nanos) {
+        elapsedNanos += nanos;
+    }
+
+    void finish() {
+        if (onFinish != null) {
+            onFinish.accept(this);
+        }
+    }
+
+    void supersede() {
+        superseded = true;
+        finish();
+    }
+}
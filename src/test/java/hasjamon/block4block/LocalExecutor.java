@@ -0,0 +1,114 @@
+package hasjamon.block4block;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Stand-in for the server's schedulers: nothing runs until the test calls tick(), which runs every
+// timer and delayed task that is due and then drains the async queue. Chunk and player tasks run in
+// place, like on a non-regionized server's main thread. Shared with the load test through this
+// module's test jar, which measures the main-thread half of each tick on its own.
+final class LocalExecutor implements SpawnerExecutor {
+
+    private static final class Scheduled implements Task {
+        private final Runnable task;
+        private final long period;
+        private long due;
+        private boolean cancelled;
+
+        Scheduled(Runnable task, long due, long period) {
+            this.task = task;
+            this.due = due;
+            this.period = period;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final List<Scheduled> scheduled = new ArrayList<>();
+    private final ArrayDeque<Runnable> async = new ArrayDeque<>();
+    private long currentTick;
+
+    void tick() {
+        runDueTasks();
+        runAsyncTasks();
+    }
+
+    // The main-thread half of a tick: the next tick's timers and delayed tasks
+    void runDueTasks() {
+        currentTick++;
+        // Tasks scheduled by these tasks are due in a later tick
+        for (Scheduled task : new ArrayList<>(scheduled)) {
+            if (task.cancelled || task.due > currentTick) {
+                continue;
+            }
+            task.task.run();
+            if (task.period > 0) {
+                task.due = currentTick + task.period;
+            } else {
+                task.cancelled = true;
+            }
+        }
+        scheduled.removeIf(task -> task.cancelled);
+    }
+
+    // Async tasks, standing in for another thread that finishes before the next tick
+    void runAsyncTasks() {
+        while (!async.isEmpty()) {
+            async.poll().run();
+        }
+    }
+
+    // Timers and delayed tasks still pending
+    int pendingTasks() {
+        return scheduled.size();
+    }
+
+    boolean isIdle() {
+        return scheduled.isEmpty() && async.isEmpty();
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return false;
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        Scheduled timer = new Scheduled(task, currentTick + Math.max(1, delayTicks), Math.max(1, periodTicks));
+        scheduled.add(timer);
+        return timer;
+    }
+
+    @Override
+    public void runGlobalLater(Runnable task, long delayTicks) {
+        scheduled.add(new Scheduled(task, currentTick + Math.max(1, delayTicks), 0));
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        async.add(task);
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public void cancelAll() {
+        scheduled.clear();
+        async.clear();
+    }
+}
@@ -0,0 +1,130 @@
+package hasjamon.block4block;
+
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpawnerClustersTest {
+
+    private final World world = Stubs.world(new UUID(0L, 1L), "world");
+    private final SpawnerIndex index = new SpawnerIndex();
+
+    @Test
+    void removingABridgeSplitsTheCluster() {
+        index.setClusterRadius(4);
+        add(0, 0);
+        add(4, 0);
+        add(8, 0);
+        assertEquals(Set.of(Set.of(key(0, 0), key(4, 0), key(8, 0))), clusters());
+
+        index.remove(world, 4, 40, 0);
+        assertEquals(Set.of(Set.of(key(0, 0)), Set.of(key(8, 0))), clusters());
+
+        add(4, 0);
+        assertEquals(Set.of(Set.of(key(0, 0), key(4, 0), key(8, 0))), clusters(), "putting the bridge back joins them again");
+    }
+
+    @Test
+    void clustersReachAcrossChunkBorders() {
+        index.setClusterRadius(4);
+        add(14, 0);
+        add(17, 0);
+        add(17, 20);
+        assertEquals(Set.of(Set.of(key(14, 0), key(17, 0)), Set.of(key(17, 20))), clusters());
+    }
+
+    @Test
+    void settleRebuildsClustersThatLostMembers() {
+        index.setClusterRadius(4);
+        // A line of five; the first added spawner is the root of the cluster
+        for (int x = 0; x <= 16; x += 4) {
+            add(x, 0);
+        }
+        index.remove(world, 0, 40, 0);
+        index.remove(world, 8, 40, 0);
+        SpawnerClusters clusters = index.getWorld(world).clusters();
+        clusters.settle();
+
+        // Spawners added after settling join what is left, in the slots of the removed ones
+        add(20, 0);
+        add(-4, 0);
+        assertEquals(Set.of(Set.of(key(4, 0)), Set.of(key(12, 0), key(16, 0), key(20, 0)), Set.of(key(-4, 0))), clusters());
+
+        index.remove(world, 4, 40, 0);
+        index.remove(world, -4, 40, 0);
+        clusters.settle();
+        assertEquals(Set.of(Set.of(key(12, 0), key(16, 0), key(20, 0))), clusters());
+    }
+
+    @Test
+    void aRadiusChangeRebuildsTheClusters() {
+        index.setClusterRadius(4);
+        add(0, 0);
+        add(6, 0);
+        add(12, 0);
+        assertEquals(Set.of(Set.of(key(0, 0)), Set.of(key(6, 0)), Set.of(key(12, 0))), clusters());
+
+        index.setClusterRadius(6);
+        assertEquals(Set.of(Set.of(key(0, 0), key(6, 0), key(12, 0))), clusters());
+
+        index.setClusterRadius(0);
+        assertNull(index.getWorld(world).clusters(), "clusters aren't tracked without a radius");
+        index.setClusterRadius(SpawnerClusters.MAX_RADIUS + 10);
+        assertEquals(SpawnerClusters.MAX_RADIUS, index.getWorld(world).clusters().radius());
+        assertEquals(Set.of(Set.of(key(0, 0), key(6, 0), key(12, 0))), clusters());
+    }
+
+    @Test
+    void aRescannedChunkKeepsItsExistingMembers() {
+        index.setClusterRadius(4);
+        // Two spawners in chunk 0, bridged to chunk 1 by the one at x=12
+        scanChunk(8, 12);
+        add(16, 0);
+        assertEquals(Set.of(Set.of(key(8, 0), key(12, 0), key(16, 0))), clusters());
+
+        // A rescan finds the same spawners: nothing changes
+        scanChunk(8, 12);
+        assertEquals(Set.of(Set.of(key(8, 0), key(12, 0), key(16, 0))), clusters());
+        assertEquals(3, index.spawnerCount());
+
+        // The bridge is gone and a new spawner sits next to the one that stayed
+        scanChunk(4, 8);
+        assertEquals(Set.of(Set.of(key(4, 0), key(8, 0)), Set.of(key(16, 0))), clusters());
+        assertEquals(3, index.spawnerCount());
+    }
+
+    private void add(int x, int z) {
+        index.add(world, x, 40, z, SpawnerIndex.FLAG_PLAYER_PLACED, 16, OwnerBudgets.NONE);
+    }
+
+    // The spawners a chunk scan of chunk (0, 0) found, at the given x and z = 0
+    private void scanChunk(int... xs) {
+        long[] blockKeys = new long[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            blockKeys[i] = key(xs[i], 0);
+        }
+        index.setChunk(world, 0, 0, blockKeys, new byte[xs.length], new short[xs.length], new int[xs.length], xs.length);
+    }
+
+    private static long key(int x, int z) {
+        return BlockKeys.blockKey(x, 40, z);
+    }
+
+    private Set<Set<Long>> clusters() {
+        Set<Set<Long>> clusters = new HashSet<>();
+        index.getWorld(world).clusters().forEachCluster(1, (blockKeys, size) -> {
+            Set<Long> members = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                members.add(blockKeys[i]);
+            }
+            clusters.add(members);
+        });
+        return clusters;
+    }
+}
@@ -0,0 +1,113 @@
+package hasjamon.block4block;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpawnerRegistryFileTest {
+
+    private static final UUID WORLD = new UUID(1L, 2L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsSpawnersFlagsAndOwners() throws IOException {
+        Path file = dir.resolve("spawners.bin");
+        SpawnerRegistryFile.write(file, sample());
+
+        SpawnerRegistryFile registry = SpawnerRegistryFile.read(file);
+        assertEquals(2, registry.chunkCount());
+        assertEquals(3, registry.spawnerCount());
+
+        SpawnerRegistryFile.ChunkEntry farm = registry.get(WORLD, 3, -4);
+        assertArrayEquals(new long[]{BlockKeys.blockKey(48, 20, -64), BlockKeys.blockKey(50, 20, -64), BlockKeys.blockKey(52, -10, -60)},
+                farm.blockKeys());
+        assertArrayEquals(new byte[]{SpawnerIndex.FLAG_PLAYER_PLACED, SpawnerIndex.FLAG_PLAYER_PLACED | SpawnerIndex.FLAG_THROTTLED, 0},
+                farm.flags());
+        assertArrayEquals(new short[]{16, 32, 0}, farm.ranges());
+        assertEquals(Arrays.asList(UUID.nameUUIDFromBytes(new byte[]{1}).toString(), OwnerBudgets.TEAM_PREFIX + "blue", null),
+                Arrays.asList(farm.owners()));
+        assertTrue(farm.hasThrottled());
+
+        SpawnerRegistryFile.ChunkEntry empty = registry.get(WORLD, 0, 0);
+        assertEquals(0, empty.size());
+        assertFalse(empty.hasThrottled());
+        assertNull(registry.get(WORLD, 1, 1), "chunks that weren't processed are unknown");
+        assertNull(registry.get(new UUID(3L, 4L), 3, -4));
+    }
+
+    @Test
+    void rejectsABadChecksum() throws IOException {
+        Path file = dir.resolve("spawners.bin");
+        SpawnerRegistryFile.write(file, sample());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> SpawnerRegistryFile.read(file));
+        assertEquals("checksum mismatch", e.getMessage());
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws IOException {
+        Path file = dir.resolve("spawners.bin");
+        SpawnerRegistryFile.write(file, sample());
+        byte[] bytes = Files.readAllBytes(file);
+        // Cut off at every length; none may read back as a registry
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> SpawnerRegistryFile.read(file), "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsAnOlderVersion() throws IOException {
+        Path file = dir.resolve("spawners.bin");
+        SpawnerRegistryFile.write(file, sample());
+        byte[] bytes = Files.readAllBytes(file);
+        // Rewrite the version and fix up the checksum, so only the version is wrong
+        bytes[7] = (byte) (SpawnerRegistryFile.VERSION - 1);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        ByteBuffer.wrap(bytes).putLong(bytes.length - 8, crc.getValue());
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> SpawnerRegistryFile.read(file));
+        assertEquals("unsupported version " + (SpawnerRegistryFile.VERSION - 1), e.getMessage());
+    }
+
+    // A farm chunk with a throttled spawner, a natural one and two owners, plus a chunk without spawners
+    private static Map<UUID, LongObjectHashMap<SpawnerRegistryFile.ChunkEntry>> sample() {
+        SpawnerRegistryFile.ChunkEntry farm = SpawnerRegistryFile.ChunkEntry.ofSize(3);
+        farm.blockKeys()[0] = BlockKeys.blockKey(48, 20, -64);
+        farm.blockKeys()[1] = BlockKeys.blockKey(50, 20, -64);
+        farm.blockKeys()[2] = BlockKeys.blockKey(52, -10, -60);
+        farm.flags()[0] = SpawnerIndex.FLAG_PLAYER_PLACED;
+        farm.flags()[1] = SpawnerIndex.FLAG_PLAYER_PLACED | SpawnerIndex.FLAG_THROTTLED;
+        farm.ranges()[0] = 16;
+        farm.ranges()[1] = 32;
+        farm.owners()[0] = UUID.nameUUIDFromBytes(new byte[]{1}).toString();
+        farm.owners()[1] = OwnerBudgets.TEAM_PREFIX + "blue";
+
+        LongObjectHashMap<SpawnerRegistryFile.ChunkEntry> chunks = new LongObjectHashMap<>();
+        chunks.put(BlockKeys.chunkKey(3, -4), farm);
+        chunks.put(BlockKeys.chunkKey(0, 0), SpawnerRegistryFile.ChunkEntry.EMPTY);
+        return Map.of(WORLD, chunks);
+    }
+}
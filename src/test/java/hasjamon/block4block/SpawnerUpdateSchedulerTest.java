@@ -0,0 +1,103 @@
+package hasjamon.block4block;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpawnerUpdateSchedulerTest {
+
+    private final LocalExecutor executor = new LocalExecutor();
+
+    @Test
+    void spreadsAJobOverTicksWithinTheBudget() {
+        SpawnerUpdateScheduler scheduler = new SpawnerUpdateScheduler(executor, new SpawnerMetrics(), 2_000_000L);
+        List<Integer> processed = new ArrayList<>();
+        scheduler.submit(job(UpdateJob.Kind.STARTUP_SCAN, 10, 1_000_000L, processed));
+
+        executor.tick();
+        assertTrue(processed.size() >= 1 && processed.size() < 10, "the first tick stops at the budget");
+
+        int ticks = 1;
+        while (!scheduler.isIdle() && ticks < 100) {
+            executor.tick();
+            ticks++;
+        }
+        assertTrue(scheduler.isIdle());
+        assertTrue(ticks > 1, "the job takes more than one tick");
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), processed, "every unit runs once, in order");
+        assertEquals(0, executor.pendingTasks(), "the scheduler stops its timer when idle");
+    }
+
+    @Test
+    void makesProgressWithoutABudget() {
+        SpawnerUpdateScheduler scheduler = new SpawnerUpdateScheduler(executor, new SpawnerMetrics(), 0L);
+        List<Integer> processed = new ArrayList<>();
+        scheduler.submit(job(UpdateJob.Kind.STARTUP_SCAN, 3, 0L, processed));
+
+        executor.tick();
+        assertEquals(1, processed.size());
+        executor.tick();
+        executor.tick();
+        executor.tick();
+        assertEquals(3, processed.size());
+        assertTrue(scheduler.isIdle());
+    }
+
+    @Test
+    void aRangeUpdateSupersedesOnlyPendingRangeUpdates() {
+        SpawnerUpdateScheduler scheduler = new SpawnerUpdateScheduler(executor, new SpawnerMetrics(), 2_000_000L);
+        List<Integer> older = new ArrayList<>();
+        List<Integer> density = new ArrayList<>();
+        List<Integer> newer = new ArrayList<>();
+        UpdateJob<Integer> olderJob = job(UpdateJob.Kind.RANGE_UPDATE, 5, 0L, older);
+        UpdateJob<Integer> densityJob = job(UpdateJob.Kind.DENSITY_UPDATE, 5, 0L, density);
+        scheduler.submit(olderJob);
+        scheduler.submit(densityJob);
+        scheduler.submit(job(UpdateJob.Kind.RANGE_UPDATE, 5, 0L, newer));
+
+        assertTrue(olderJob.isSuperseded());
+        assertFalse(densityJob.isSuperseded());
+        assertEquals(1, scheduler.getSupersededCount());
+
+        for (int i = 0; i < 10 && !scheduler.isIdle(); i++) {
+            executor.tick();
+        }
+        assertTrue(older.isEmpty(), "the superseded job never runs");
+        assertEquals(5, density.size());
+        assertEquals(5, newer.size());
+    }
+
+    @Test
+    void cancelAllStopsTheTimer() {
+        SpawnerUpdateScheduler scheduler = new SpawnerUpdateScheduler(executor, new SpawnerMetrics(), 0L);
+        List<Integer> processed = new ArrayList<>();
+        scheduler.submit(job(UpdateJob.Kind.STARTUP_SCAN, 5, 0L, processed));
+        executor.tick();
+        scheduler.cancelAll();
+        executor.tick();
+
+        assertEquals(1, processed.size());
+        assertTrue(scheduler.isIdle());
+        assertEquals(0, executor.pendingTasks());
+    }
+
+    // A job of `units` units that each record their index and take `costNanos`
+    private static UpdateJob<Integer> job(UpdateJob.Kind kind, int units, long costNanos, List<Integer> processed) {
+        List<Integer> indices = new ArrayList<>(units);
+        for (int i = 0; i < units; i++) {
+            indices.add(i);
+        }
+        return new UpdateJob<>(kind, kind.name(), indices, (unit, stats) -> {
+            long end = System.nanoTime() + costNanos;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            processed.add(unit);
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package hasjamon.block4block;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.block.TileState;
+import org.bukkit.persistence.PersistentDataContainer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+// Proxy-backed stand-ins for the Bukkit types the hot paths touch, shared with the benchmarks and the
+// load test through this module's test jar. The real interfaces have far too many methods to implement
+// by hand; only the calls the plugin makes are answered, anything else throws so a benchmark can't
+// silently measure a path that would behave differently on a server. Every stubbed call pays the same
+// proxy dispatch, so compare results between runs, not to a server. The dispatch also allocates: an
+// argument array per call and boxes for primitive arguments and results, which would dominate the gc
+// profiler's allocation rate. The benchmarks' StubBaselineBenchmark makes only the stub calls, so its
+// allocation can be subtracted from the benchmarks that drive the plugin.
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static World world(UUID id, String name) {
+        return proxy(World.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getUID" -> id;
+            case "getName" -> name;
+            default -> common(proxy, method, args);
+        });
+    }
+
+    // Owner recorded on player-placed stub spawners that aren't given one
+    static final String OWNER = new UUID(0L, 42L).toString();
+
+    static CreatureSpawner spawner(World world, int x, int y, int z, boolean playerPlaced, int range) {
+        return spawner(world, x, y, z, playerPlaced, playerPlaced ? OWNER : null, range, () -> {
+        });
+    }
+
+    // A spawner with its own owner (null for none); onUpdate runs on every update(), e.g. to simulate its cost
+    static CreatureSpawner spawner(World world, int x, int y, int z, boolean playerPlaced, String owner, int range,
+                                   Runnable onUpdate) {
+        return proxy(CreatureSpawner.class, new SpawnerHandler(world, x, y, z, playerPlaced, owner, range, onUpdate));
+    }
+
+    // Any other tile entity, e.g. a chest
+    static BlockState tileEntity(int x, int y, int z) {
+        return proxy(TileState.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getX" -> x;
+            case "getY" -> y;
+            case "getZ" -> z;
+            default -> common(proxy, method, args);
+        });
+    }
+
+    private static final class SpawnerHandler implements InvocationHandler {
+        private final World world;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final PersistentDataContainer pdc;
+        private final Runnable onUpdate;
+        private int range;
+
+        SpawnerHandler(World world, int x, int y, int z, boolean playerPlaced, String owner, int range, Runnable onUpdate) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.range = range;
+            this.onUpdate = onUpdate;
+            this.pdc = proxy(PersistentDataContainer.class, (proxy, method, args) -> switch (method.getName()) {
+                case "has" -> playerPlaced;
+                case "get" -> owner;
+                default -> common(proxy, method, args);
+            });
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "getX" -> x;
+                case "getY" -> y;
+                case "getZ" -> z;
+                case "getWorld" -> world;
+                case "getType" -> Material.SPAWNER;
+                case "getRequiredPlayerRange" -> range;
+                case "setRequiredPlayerRange" -> {
+                    range = (Integer) args[0];
+                    yield null;
+                }
+                case "update" -> {
+                    onUpdate.run();
+                    yield true;
+                }
+                case "getPersistentDataContainer" -> pdc;
+                default -> common(proxy, method, args);
+            };
+        }
+    }
+
+    // hashCode, equals and toString of any stub; everything else isn't stubbed
+    static Object common(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> method.getDeclaringClass().getSimpleName() + " stub";
+            default -> throw new UnsupportedOperationException("Not stubbed: " + method);
+        };
+    }
+
+    static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}